@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark;
+
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for warm lookups in a {@link MaterialStateCache}, both by key and by dense index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaterialStateCacheBenchmark
+{
+
+    private static final int STATES = 16;
+
+    private MaterialStateCache<Byte, MaterialState> sparse;
+    private MaterialStateCache<Byte, MaterialState> dense;
+    private Byte[] keys;
+
+    @Setup
+    public void setup()
+    {
+        this.sparse = new MaterialStateCache<Byte, MaterialState>((data) -> Stubs.empty(MaterialState.class));
+        this.dense = new MaterialStateCache<Byte, MaterialState>((data) -> Stubs.empty(MaterialState.class), STATES,
+                (data) -> data & 0xFF, (index) -> (byte) index);
+        this.keys = new Byte[STATES];
+        for (int i = 0; i < STATES; i++)
+        {
+            this.keys[i] = (byte) i;
+            this.sparse.get(this.keys[i]);
+            this.dense.get(this.keys[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+
+        int next;
+
+    }
+
+    @Benchmark
+    public MaterialState getByKey(Cursor cursor)
+    {
+        return this.sparse.get(this.keys[cursor.next++ & (STATES - 1)]);
+    }
+
+    @Benchmark
+    public MaterialState getByKeyDense(Cursor cursor)
+    {
+        return this.dense.get(this.keys[cursor.next++ & (STATES - 1)]);
+    }
+
+    @Benchmark
+    public MaterialState getByIndex(Cursor cursor)
+    {
+        return this.dense.get(cursor.next++ & (STATES - 1));
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark;
+
+import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
+import com.voxelplugineering.voxelsniper.util.Context;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+/**
+ * Creates {@link Proxy} backed stand-ins for interfaces which the benchmarks need an instance of
+ * but whose behaviour is not being measured.
+ */
+public final class Stubs
+{
+
+    /**
+     * Creates a proxy of the given interface dispatching to the given handler. The
+     * {@link Object#equals(Object)}, {@link Object#hashCode()} and {@link Object#toString()}
+     * methods are implemented by identity before the handler is consulted.
+     * 
+     * @param type The interface
+     * @param handler The handler
+     * @return The proxy
+     */
+    public static <T> T of(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class)
+            {
+                switch (method.getName())
+                {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+            }
+            return handler.invoke(proxy, method, args);
+        }));
+    }
+
+    /**
+     * Creates a proxy of the given interface for which every method returns the default value of
+     * its return type.
+     * 
+     * @param type The interface
+     * @return The proxy
+     */
+    public static <T> T empty(Class<T> type)
+    {
+        return of(type, (proxy, method, args) -> defaultValue(method));
+    }
+
+    /**
+     * Gets the default value for the return type of the given method, empty for {@link Optional}s
+     * and zero or false for primitives.
+     * 
+     * @param method The method
+     * @return The default value
+     */
+    public static Object defaultValue(Method method)
+    {
+        Class<?> type = method.getReturnType();
+        if (type == Optional.class)
+        {
+            return Optional.empty();
+        }
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == char.class)
+        {
+            return (char) 0;
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == double.class)
+        {
+            return 0d;
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates a {@link Context} holding empty material, world and biome registries, which is
+     * enough to construct the platform world and chunk wrappers.
+     * 
+     * @return The context
+     */
+    public static Context createContext()
+    {
+        Context context = new Context();
+        context.put(empty(MaterialRegistry.class));
+        context.put(empty(WorldRegistry.class));
+        context.put(empty(BiomeRegistry.class));
+        return context;
+    }
+
+    private Stubs()
+    {
+    }
+
+}
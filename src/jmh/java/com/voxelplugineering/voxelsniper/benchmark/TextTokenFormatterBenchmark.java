@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark;
+
+import com.voxelplugineering.voxelsniper.service.text.TextFormat;
+import com.voxelplugineering.voxelsniper.service.text.TextFormatParser;
+import com.voxelplugineering.voxelsniper.service.text.TextTokenFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting player messages with a {@link TextTokenFormatter}, with and without
+ * the formatted message cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextTokenFormatterBenchmark
+{
+
+    @Param({ "0", "64" })
+    public int cacheSize;
+
+    private TextTokenFormatter formatter;
+    private String shortMessage;
+    private String longMessage;
+
+    @Setup
+    public void setup()
+    {
+        TextFormatParser parser = Stubs.of(TextFormatParser.class, (proxy, method, args) -> {
+            if ("getFormat".equals(method.getName()))
+            {
+                return "\u00a7" + Integer.toHexString(((TextFormat) args[0]).ordinal() & 15);
+            }
+            return Stubs.defaultValue(method);
+        });
+        this.formatter = new TextTokenFormatter(parser, this.cacheSize);
+        this.shortMessage = TextFormat.GOLD + "Brush set to " + TextFormat.DARK_AQUA + "ball";
+        StringBuilder help = new StringBuilder();
+        for (int i = 0; i < 40; i++)
+        {
+            help.append(TextFormat.AQUA).append("/b ").append(i).append(TextFormat.GRAY).append(" - ")
+                    .append(TextFormat.WHITE).append("An example help line for a brush command\n");
+        }
+        this.longMessage = help.toString();
+    }
+
+    @Benchmark
+    public String formatShort()
+    {
+        return this.formatter.format(this.shortMessage);
+    }
+
+    @Benchmark
+    public String formatLong()
+    {
+        return this.formatter.format(this.longMessage);
+    }
+
+    @Benchmark
+    public void formatLinesLong(Blackhole bh)
+    {
+        this.formatter.formatLines(this.longMessage, 100, bh::consume);
+    }
+
+}
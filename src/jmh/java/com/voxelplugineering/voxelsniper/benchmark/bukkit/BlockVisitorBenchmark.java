@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.bukkit;
+
+import com.voxelplugineering.voxelsniper.benchmark.Stubs;
+import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.Block;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockCursor;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitor;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocation of reading a 32x32x32 region through
+ * {@link BukkitWorld#visitBlocks(Vector3i, Vector3i, BlockVisitor)}, which reuses a single
+ * {@link BlockCursor}, against reading the same region one {@link Block} at a time. Run with the
+ * gc profiler, as the {@code jmh} task does, to see the allocation per operation of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockVisitorBenchmark
+{
+
+    private BukkitWorld world;
+    private Vector3i min;
+    private Vector3i max;
+
+    @Setup
+    public void setup()
+    {
+        MaterialStateTable<BukkitMaterialState> states = FakeBukkitWorld.createStateTable();
+        FakeBukkitWorld fake = new FakeBukkitWorld("benchmark", 2);
+        int[] layers = new int[64];
+        for (int i = 0; i < layers.length; i++)
+        {
+            layers[i] = BukkitMaterialState.getStateId(i == 0 ? 7 : i < 60 ? 1 : 3, 0);
+        }
+        fake.fillLayers(layers);
+        this.world = new BukkitWorld(Stubs.createContext(), fake.getHandle(), Thread.currentThread(), states);
+        this.min = new Vector3i(-16, 40, -16);
+        this.max = new Vector3i(15, 71, 15);
+    }
+
+    @Benchmark
+    public void visitBlocks(final Blackhole bh)
+    {
+        this.world.visitBlocks(this.min, this.max, new BlockVisitor()
+        {
+
+            @Override
+            public boolean visit(BlockCursor cursor)
+            {
+                bh.consume(cursor.getStateId());
+                bh.consume(cursor.getState());
+                return true;
+            }
+        });
+    }
+
+    @Benchmark
+    public void getBlock(Blackhole bh)
+    {
+        for (int y = this.min.getY(); y <= this.max.getY(); y++)
+        {
+            for (int z = this.min.getZ(); z <= this.max.getZ(); z++)
+            {
+                for (int x = this.min.getX(); x <= this.max.getX(); x++)
+                {
+                    bh.consume(this.world.getBlock(x, y, z));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.bukkit;
+
+import com.voxelplugineering.voxelsniper.benchmark.Stubs;
+import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.world.Chunk;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link com.voxelplugineering.voxelsniper.bukkit.world.BukkitChunk} over a
+ * {@link FakeBukkitWorld}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BukkitChunkBenchmark
+{
+
+    private Chunk chunk;
+    private MaterialState stone;
+    private MaterialState dirt;
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        MaterialStateTable<BukkitMaterialState> states = FakeBukkitWorld.createStateTable();
+        FakeBukkitWorld fake = new FakeBukkitWorld("benchmark", 1);
+        int[] layers = new int[64];
+        for (int i = 0; i < layers.length; i++)
+        {
+            layers[i] = BukkitMaterialState.getStateId(1, 0);
+        }
+        fake.fillLayers(layers);
+        for (int i = 0; i < 64; i++)
+        {
+            fake.addEntity(org.bukkit.entity.EntityType.COW, (i & 7) * 2, 64, (i >> 3) * 2);
+        }
+        BukkitWorld world = new BukkitWorld(Stubs.createContext(), fake.getHandle(), Thread.currentThread(), states);
+        this.chunk = world.getChunk(0, 0, 0).get();
+        this.stone = states.get(BukkitMaterialState.getStateId(1, 0));
+        this.dirt = states.get(BukkitMaterialState.getStateId(3, 0));
+    }
+
+    @Benchmark
+    public Object getBlock()
+    {
+        int i = this.next++ & 0x3FFF;
+        return this.chunk.getBlock(i & 15, i >> 8, (i >> 4) & 15);
+    }
+
+    @Benchmark
+    public void setBlock()
+    {
+        int i = this.next++ & 0x3FFF;
+        this.chunk.setBlock((i & 1) == 0 ? this.stone : this.dirt, i & 15, i >> 8, (i >> 4) & 15, false);
+    }
+
+    @Benchmark
+    public void getLoadedEntities(Blackhole bh)
+    {
+        for (Object e : this.chunk.getLoadedEntities())
+        {
+            bh.consume(e);
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.bukkit;
+
+import com.voxelplugineering.voxelsniper.benchmark.Stubs;
+import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.util.math.Vector3d;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.buffer.StateIdBuffer;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BukkitWorld} over a {@link FakeBukkitWorld}. The benchmark thread is
+ * used as the world thread so the async access checks always pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BukkitWorldBenchmark
+{
+
+    private static final int CHUNK_RADIUS = 4;
+    private static final int ENTITIES = 512;
+
+    private FakeBukkitWorld fake;
+    private BukkitWorld world;
+    private MaterialState stone;
+    private MaterialState dirt;
+    private Vector3i volumeMin;
+    private Vector3i volumeMax;
+    private Vector3d center;
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        MaterialStateTable<BukkitMaterialState> states = FakeBukkitWorld.createStateTable();
+        this.fake = new FakeBukkitWorld("benchmark", CHUNK_RADIUS);
+        int[] layers = new int[64];
+        for (int i = 0; i < layers.length; i++)
+        {
+            layers[i] = BukkitMaterialState.getStateId(i == 0 ? 7 : i < 60 ? 1 : 3, 0);
+        }
+        this.fake.fillLayers(layers);
+        Random random = new Random(42);
+        int span = CHUNK_RADIUS * 16;
+        for (int i = 0; i < ENTITIES; i++)
+        {
+            this.fake.addEntity(org.bukkit.entity.EntityType.PIG, random.nextDouble() * span * 2 - span, 64,
+                    random.nextDouble() * span * 2 - span);
+        }
+        this.world = new BukkitWorld(Stubs.createContext(), this.fake.getHandle(), Thread.currentThread(), states);
+        this.stone = states.get(BukkitMaterialState.getStateId(1, 0));
+        this.dirt = states.get(BukkitMaterialState.getStateId(3, 0));
+        this.volumeMin = new Vector3i(-16, 40, -16);
+        this.volumeMax = new Vector3i(15, 71, 15);
+        this.center = new Vector3d(0, 64, 0);
+    }
+
+    /**
+     * Gets the next position within a 32x32x32 region spanning four chunks.
+     */
+    private int nextIndex()
+    {
+        return this.next++ & 0x7FFF;
+    }
+
+    @Benchmark
+    public Object getBlock()
+    {
+        int i = nextIndex();
+        return this.world.getBlock((i & 31) - 16, 40 + (i >> 10), ((i >> 5) & 31) - 16);
+    }
+
+    @Benchmark
+    public void setBlock()
+    {
+        int i = nextIndex();
+        this.world.setBlock((i & 1) == 0 ? this.stone : this.dirt, (i & 31) - 16, 40 + (i >> 10), ((i >> 5) & 31) - 16, false);
+    }
+
+    @Benchmark
+    public Object getChunk()
+    {
+        int i = nextIndex();
+        return this.world.getChunk((i & 7) - CHUNK_RADIUS, 0, ((i >> 3) & 7) - CHUNK_RADIUS);
+    }
+
+    @Benchmark
+    public StateIdBuffer readVolume()
+    {
+        return this.world.readVolume(this.volumeMin, this.volumeMax);
+    }
+
+    @Benchmark
+    public List<?> getEntitiesNear()
+    {
+        return this.world.getEntitiesNear(this.center, 16);
+    }
+
+    @Benchmark
+    public void getLoadedEntities(Blackhole bh)
+    {
+        for (Object e : this.world.getLoadedEntities())
+        {
+            bh.consume(e);
+        }
+    }
+
+}
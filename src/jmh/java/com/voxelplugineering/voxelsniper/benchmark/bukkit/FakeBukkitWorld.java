@@ -0,0 +1,358 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.bukkit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.benchmark.Stubs;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterial;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import org.bukkit.Location;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An in-memory stand-in for a bukkit world. Blocks are stored as bukkit state ids (type id
+ * shifted left by four, ored with the data value) in one flat array per chunk, and the bukkit
+ * interfaces are implemented with {@link Stubs} proxies.
+ * 
+ * <p>A single mutable {@link org.bukkit.block.Block} is handed out by every block lookup so that
+ * the stand-in itself does not allocate per block and allocation rates reported for the
+ * benchmarks belong to the adapters being measured. Chunk snapshots are copied, as they are on
+ * a real server. This is not thread safe.</p>
+ */
+public class FakeBukkitWorld
+{
+
+    private static final int HEIGHT = 256;
+    private static final int CHUNK_VOLUME = 16 * 16 * HEIGHT;
+
+    private final String name;
+    private final UUID uid = UUID.randomUUID();
+    private final Map<Long, FakeChunk> chunks = Maps.newHashMap();
+    private final List<org.bukkit.entity.Entity> entities = Lists.newArrayList();
+    private final org.bukkit.World handle;
+    private final org.bukkit.block.Block block;
+    private int blockX;
+    private int blockY;
+    private int blockZ;
+
+    /**
+     * Creates a new {@link FakeBukkitWorld} with the square of chunks from {@code -radius} to
+     * {@code radius - 1} on each axis loaded and empty.
+     * 
+     * @param name The world name
+     * @param radius The radius of loaded chunks
+     */
+    public FakeBukkitWorld(String name, int radius)
+    {
+        this.name = name;
+        this.handle = Stubs.of(org.bukkit.World.class, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+            case "getName":
+                return this.name;
+            case "getUID":
+                return this.uid;
+            case "getMaxHeight":
+                return HEIGHT;
+            case "getBlockAt":
+                return getBlock((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            case "getChunkAt":
+                return getChunk((Integer) args[0], (Integer) args[1]).handle;
+            case "isChunkLoaded":
+                return this.chunks.containsKey(ChunkKeys.toKey((Integer) args[0], (Integer) args[1]));
+            case "getLoadedChunks":
+                org.bukkit.Chunk[] loaded = new org.bukkit.Chunk[this.chunks.size()];
+                int i = 0;
+                for (FakeChunk chunk : this.chunks.values())
+                {
+                    loaded[i++] = chunk.handle;
+                }
+                return loaded;
+            case "getEntities":
+                return Lists.newArrayList(this.entities);
+            case "refreshChunk":
+                return true;
+            default:
+                return Stubs.defaultValue(method);
+            }
+        });
+        this.block = Stubs.of(org.bukkit.block.Block.class, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+            case "getTypeId":
+                return getStateId(this.blockX, this.blockY, this.blockZ) >> 4;
+            case "getData":
+                return (byte) (getStateId(this.blockX, this.blockY, this.blockZ) & 15);
+            case "setTypeIdAndData":
+                setStateId(this.blockX, this.blockY, this.blockZ, (Integer) args[0] << 4 | ((Byte) args[1] & 15));
+                return true;
+            case "getX":
+                return this.blockX;
+            case "getY":
+                return this.blockY;
+            case "getZ":
+                return this.blockZ;
+            case "getWorld":
+                return this.handle;
+            default:
+                return Stubs.defaultValue(method);
+            }
+        });
+        for (int cx = -radius; cx < radius; cx++)
+        {
+            for (int cz = -radius; cz < radius; cz++)
+            {
+                getChunk(cx, cz);
+            }
+        }
+    }
+
+    /**
+     * Creates a filled table of every bukkit state id, resolved directly from bukkit's material
+     * enum rather than through a material registry.
+     * 
+     * @return The state table
+     */
+    @SuppressWarnings("deprecation")
+    public static MaterialStateTable<BukkitMaterialState> createStateTable()
+    {
+        Map<org.bukkit.Material, BukkitMaterial> materials = Maps.newEnumMap(org.bukkit.Material.class);
+        int max = 0;
+        for (org.bukkit.Material m : org.bukkit.Material.values())
+        {
+            materials.put(m, new BukkitMaterial(m));
+            max = Math.max(max, m.getId());
+        }
+        int bound = BukkitMaterialState.getStateId(max + 1, 0);
+        MaterialStateTable<BukkitMaterialState> table = new MaterialStateTable<BukkitMaterialState>(() -> bound, (id) -> {
+            org.bukkit.Material type = org.bukkit.Material.getMaterial(id >> 4);
+            return type == null ? null : (BukkitMaterialState) materials.get(type).getState((byte) (id & 15));
+        }, BukkitMaterialState::getStateId);
+        table.rebuild();
+        return table;
+    }
+
+    /**
+     * Gets the bukkit world.
+     * 
+     * @return The world
+     */
+    public org.bukkit.World getHandle()
+    {
+        return this.handle;
+    }
+
+    /**
+     * Fills every loaded chunk with layers of the given state ids, starting from y zero.
+     * 
+     * @param layers The state id of each layer
+     */
+    public void fillLayers(int... layers)
+    {
+        for (FakeChunk chunk : this.chunks.values())
+        {
+            for (int y = 0; y < layers.length && y < HEIGHT; y++)
+            {
+                Arrays.fill(chunk.data, y << 8, (y + 1) << 8, (char) layers[y]);
+            }
+        }
+    }
+
+    /**
+     * Adds an entity of the given type at the given position, the chunk containing it is loaded
+     * if it is not already.
+     * 
+     * @param type The entity type
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The new entity
+     */
+    public org.bukkit.entity.Entity addEntity(org.bukkit.entity.EntityType type, double x, double y, double z)
+    {
+        UUID id = UUID.randomUUID();
+        org.bukkit.entity.Entity entity = Stubs.of(org.bukkit.entity.Entity.class, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+            case "getType":
+                return type;
+            case "getUniqueId":
+                return id;
+            case "getWorld":
+                return this.handle;
+            case "getLocation":
+                if (args == null)
+                {
+                    return new Location(this.handle, x, y, z);
+                }
+                Location loc = (Location) args[0];
+                if (loc != null)
+                {
+                    loc.setWorld(this.handle);
+                    loc.setX(x);
+                    loc.setY(y);
+                    loc.setZ(z);
+                }
+                return loc;
+            default:
+                return Stubs.defaultValue(method);
+            }
+        });
+        this.entities.add(entity);
+        getChunk((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4).entities.add(entity);
+        return entity;
+    }
+
+    /**
+     * Gets the state id at the given position, zero (air) within chunks which are not loaded.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The state id
+     */
+    public int getStateId(int x, int y, int z)
+    {
+        if (y < 0 || y >= HEIGHT)
+        {
+            return 0;
+        }
+        FakeChunk chunk = this.chunks.get(ChunkKeys.toKeyFromBlock(x, z));
+        return chunk == null ? 0 : chunk.data[index(x & 15, y, z & 15)];
+    }
+
+    private void setStateId(int x, int y, int z, int id)
+    {
+        if (y >= 0 && y < HEIGHT)
+        {
+            getChunk(x >> 4, z >> 4).data[index(x & 15, y, z & 15)] = (char) id;
+        }
+    }
+
+    private org.bukkit.block.Block getBlock(int x, int y, int z)
+    {
+        this.blockX = x;
+        this.blockY = y;
+        this.blockZ = z;
+        return this.block;
+    }
+
+    private FakeChunk getChunk(int cx, int cz)
+    {
+        long key = ChunkKeys.toKey(cx, cz);
+        FakeChunk chunk = this.chunks.get(key);
+        if (chunk == null)
+        {
+            chunk = new FakeChunk(cx, cz);
+            this.chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private static int index(int lx, int y, int lz)
+    {
+        return y << 8 | lz << 4 | lx;
+    }
+
+    private org.bukkit.ChunkSnapshot createSnapshot(FakeChunk chunk)
+    {
+        char[] copy = chunk.data.clone();
+        return Stubs.of(org.bukkit.ChunkSnapshot.class, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+            case "getBlockTypeId":
+                return copy[index((Integer) args[0], (Integer) args[1], (Integer) args[2])] >> 4;
+            case "getBlockData":
+                return copy[index((Integer) args[0], (Integer) args[1], (Integer) args[2])] & 15;
+            case "getX":
+                return chunk.x;
+            case "getZ":
+                return chunk.z;
+            case "getWorldName":
+                return this.name;
+            case "isSectionEmpty":
+                int section = (Integer) args[0];
+                for (int i = section << 12; i < (section + 1) << 12; i++)
+                {
+                    if (copy[i] != 0)
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return Stubs.defaultValue(method);
+            }
+        });
+    }
+
+    /**
+     * A chunk of the stand-in world.
+     */
+    private final class FakeChunk
+    {
+
+        final int x;
+        final int z;
+        final char[] data = new char[CHUNK_VOLUME];
+        final List<org.bukkit.entity.Entity> entities = Lists.newArrayList();
+        final org.bukkit.Chunk handle;
+
+        FakeChunk(int x, int z)
+        {
+            this.x = x;
+            this.z = z;
+            this.handle = Stubs.of(org.bukkit.Chunk.class, (proxy, method, args) -> {
+                switch (method.getName())
+                {
+                case "getX":
+                    return this.x;
+                case "getZ":
+                    return this.z;
+                case "getWorld":
+                    return FakeBukkitWorld.this.handle;
+                case "getBlock":
+                    return FakeBukkitWorld.this.getBlock(this.x << 4 | (Integer) args[0], (Integer) args[1], this.z << 4 | (Integer) args[2]);
+                case "getEntities":
+                    return this.entities.toArray(new org.bukkit.entity.Entity[this.entities.size()]);
+                case "getChunkSnapshot":
+                    return createSnapshot(this);
+                case "isLoaded":
+                    return true;
+                default:
+                    return Stubs.defaultValue(method);
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.forge;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.forge.world.ForgeChunkSnapshot;
+import com.voxelplugineering.voxelsniper.forge.world.ForgeVolumeSnapshot;
+import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterial;
+import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.buffer.StateIdBuffer;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reading forge chunks through {@link ForgeChunkSnapshot}s and
+ * {@link ForgeVolumeSnapshot}s. The chunks are detached from any world and backed only by their
+ * {@link ExtendedBlockStorage} sections, which is all the snapshots read; the vanilla block
+ * registry is bootstrapped so that real block state ids are stored.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForgeChunkSnapshotBenchmark
+{
+
+    private static final int MAX_STATE_ID = 4096 << 4;
+    private static final int CHUNK_RADIUS = 2;
+
+    private final Map<Block, ForgeMaterial> materials = Maps.newHashMap();
+    private MaterialStateCache<IBlockState, ForgeMaterialState> cache;
+    private Chunk chunk;
+    private ForgeChunkSnapshot snapshot;
+    private ForgeVolumeSnapshot volume;
+    private StateIdBuffer buffer;
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        Bootstrap.register();
+        this.cache = new MaterialStateCache<IBlockState, ForgeMaterialState>((state) -> new ForgeMaterialState(getMaterial(state.getBlock()), state),
+                MAX_STATE_ID, (state) -> Block.BLOCK_STATE_IDS.get(state), (id) -> Block.BLOCK_STATE_IDS.getByValue(id));
+        MaterialStateTable<ForgeMaterialState> states = new MaterialStateTable<ForgeMaterialState>(() -> MAX_STATE_ID, (id) -> {
+            IBlockState state = Block.BLOCK_STATE_IDS.getByValue(id);
+            return state == null ? null : this.cache.get(state);
+        }, ForgeMaterialState::getStateId);
+        states.rebuild();
+
+        Map<Long, ForgeChunkSnapshot> chunks = Maps.newHashMap();
+        for (int cx = -CHUNK_RADIUS; cx < CHUNK_RADIUS; cx++)
+        {
+            for (int cz = -CHUNK_RADIUS; cz < CHUNK_RADIUS; cz++)
+            {
+                Chunk c = createChunk(cx, cz);
+                chunks.put(ChunkKeys.toKey(cx, cz), new ForgeChunkSnapshot(c));
+                if (cx == 0 && cz == 0)
+                {
+                    this.chunk = c;
+                }
+            }
+        }
+        this.snapshot = chunks.get(ChunkKeys.toKey(0, 0));
+        int extent = CHUNK_RADIUS * 16;
+        Vector3i min = new Vector3i(-extent, 0, -extent);
+        Vector3i max = new Vector3i(extent - 1, 127, extent - 1);
+        this.volume = new ForgeVolumeSnapshot(min, max, chunks, states);
+        this.buffer = new StateIdBuffer(new Vector3i(-16, 32, -16), new Vector3i(15, 95, 15));
+    }
+
+    private ForgeMaterial getMaterial(Block block)
+    {
+        ForgeMaterial material = this.materials.get(block);
+        if (material == null)
+        {
+            material = new ForgeMaterial(block, this.cache);
+            this.materials.put(block, material);
+        }
+        return material;
+    }
+
+    /**
+     * Creates a chunk, not attached to any world, with bedrock at y zero, stone up to y 59 and
+     * dirt up to y 63. Sections above are left empty.
+     */
+    private static Chunk createChunk(int cx, int cz)
+    {
+        Chunk chunk = new Chunk(null, cx, cz);
+        ExtendedBlockStorage[] storage = new ExtendedBlockStorage[16];
+        for (int y = 0; y < 64; y++)
+        {
+            if (storage[y >> 4] == null)
+            {
+                storage[y >> 4] = new ExtendedBlockStorage(y & ~15, true);
+            }
+            IBlockState state = y == 0 ? Blocks.bedrock.getDefaultState() : y < 60 ? Blocks.stone.getDefaultState() : Blocks.dirt.getDefaultState();
+            for (int x = 0; x < 16; x++)
+            {
+                for (int z = 0; z < 16; z++)
+                {
+                    storage[y >> 4].set(x, y & 15, z, state);
+                }
+            }
+        }
+        chunk.setStorageArrays(storage);
+        return chunk;
+    }
+
+    @Benchmark
+    public ForgeChunkSnapshot createSnapshot()
+    {
+        return new ForgeChunkSnapshot(this.chunk);
+    }
+
+    @Benchmark
+    public int getStateId()
+    {
+        int i = this.next++ & 0x7FFF;
+        return this.snapshot.getStateId(i & 15, i >> 8, (i >> 4) & 15);
+    }
+
+    @Benchmark
+    public Optional<MaterialState> getState()
+    {
+        int i = this.next++ & 0x7FFF;
+        return this.volume.getState((i & 31) - 16, 32 + (i >> 10), ((i >> 5) & 31) - 16);
+    }
+
+    @Benchmark
+    public StateIdBuffer copyTo()
+    {
+        this.volume.copyTo(this.buffer);
+        return this.buffer;
+    }
+
+}
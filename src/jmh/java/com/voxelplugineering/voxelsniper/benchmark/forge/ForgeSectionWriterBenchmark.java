@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.benchmark.forge;
+
+import com.voxelplugineering.voxelsniper.forge.world.ForgeLightingEngine;
+import com.voxelplugineering.voxelsniper.forge.world.ForgeSectionWriter;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the forge write path: {@link ForgeSectionWriter#writeBlock} and the height and
+ * sky light pass of the {@link ForgeLightingEngine}. As in {@link ForgeChunkSnapshotBenchmark}
+ * the chunk is detached from any world and backed only by its {@link ExtendedBlockStorage}
+ * sections, so the flood fills and chunk resends which need a live server are not measured.
+ * 
+ * <p>Every write replaces stone with glass or glass with stone, so each one is a real change
+ * which is recorded with the lighting engine.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForgeSectionWriterBenchmark
+{
+
+    private static final int SECTION = 3;
+    private static final int SECTION_VOLUME = 4096;
+
+    private Chunk chunk;
+    private ExtendedBlockStorage section;
+    private ForgeLightingEngine lighting;
+    private IBlockState stone;
+    private IBlockState glass;
+    private int next;
+    private boolean layerFilled;
+
+    @Setup
+    public void setup()
+    {
+        Bootstrap.register();
+        this.stone = Blocks.stone.getDefaultState();
+        this.glass = Blocks.glass.getDefaultState();
+        this.chunk = new Chunk(null, 0, 0);
+        ExtendedBlockStorage[] storage = new ExtendedBlockStorage[16];
+        for (int sy = 0; sy <= SECTION; sy++)
+        {
+            storage[sy] = new ExtendedBlockStorage(sy << 4, true);
+            for (int i = 0; i < SECTION_VOLUME; i++)
+            {
+                storage[sy].set(i & 15, i >> 8, (i >> 4) & 15, this.stone);
+            }
+        }
+        storage[SECTION + 1] = new ExtendedBlockStorage((SECTION + 1) << 4, true);
+        this.chunk.setStorageArrays(storage);
+        this.chunk.generateHeightMap();
+        this.section = storage[SECTION];
+        this.lighting = new ForgeLightingEngine(true);
+    }
+
+    /**
+     * Writes a single block, sweeping over the whole section and swapping the block written on
+     * each sweep. The recorded light checks are discarded once per sweep.
+     */
+    @Benchmark
+    public boolean writeBlock()
+    {
+        int i = this.next++;
+        int index = i & (SECTION_VOLUME - 1);
+        if (index == SECTION_VOLUME - 1)
+        {
+            this.lighting.clear();
+        }
+        IBlockState state = (i & SECTION_VOLUME) == 0 ? this.glass : this.stone;
+        return ForgeSectionWriter.writeBlock(this.chunk, this.section, index & 15, SECTION << 4 | index >> 8, (index >> 4) & 15, state,
+                this.lighting);
+    }
+
+    /**
+     * Writes a full layer on top of the section, alternately building it out of stone and
+     * removing it again, and then updates the height and sky light of all 256 columns.
+     */
+    @Benchmark
+    public int writeLayer()
+    {
+        ExtendedBlockStorage top = this.chunk.getBlockStorageArray()[SECTION + 1];
+        IBlockState state = this.layerFilled ? Blocks.air.getDefaultState() : this.stone;
+        int written = 0;
+        for (int column = 0; column < 256; column++)
+        {
+            if (ForgeSectionWriter.writeBlock(this.chunk, top, column & 15, (SECTION + 1) << 4, column >> 4, state, this.lighting))
+            {
+                written++;
+            }
+        }
+        this.layerFilled = !this.layerFilled;
+        this.lighting.updateHeights();
+        this.lighting.clear();
+        return written;
+    }
+
+}
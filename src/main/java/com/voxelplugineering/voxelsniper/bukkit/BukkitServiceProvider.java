@@ -40,6 +40,8 @@ import com.voxelplugineering.voxelsniper.bukkit.util.BukkitMaterialAliases;
 import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
 import com.voxelplugineering.voxelsniper.bukkit.world.biome.BukkitBiome;
 import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterial;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.commands.StatsCommand;
 import com.voxelplugineering.voxelsniper.config.BaseConfiguration;
 import com.voxelplugineering.voxelsniper.config.VoxelSniperConfiguration;
 import com.voxelplugineering.voxelsniper.entity.Player;
@@ -60,6 +62,7 @@ import com.voxelplugineering.voxelsniper.service.platform.PlatformProxy;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistryService;
 import com.voxelplugineering.voxelsniper.service.registry.EntityRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.HandleIndex;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistryService;
 import com.voxelplugineering.voxelsniper.service.registry.PlayerRegistry;
@@ -72,8 +75,15 @@ import com.voxelplugineering.voxelsniper.service.text.TextFormatParser;
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.Pair;
 import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloader;
+import com.voxelplugineering.voxelsniper.world.history.HistoryStore;
+import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import com.voxelplugineering.voxelsniper.world.volume.ParallelVolumeEvaluator;
 import org.bukkit.entity.EntityType;
 
+import java.io.File;
 import java.util.Optional;
 
 /**
@@ -84,6 +94,13 @@ public class BukkitServiceProvider
 {
 
     private final org.bukkit.plugin.java.JavaPlugin plugin;
+    private final MaterialStateTable<BukkitMaterialState> states;
+    private MaterialRegistry<org.bukkit.Material> materials;
+    private final BudgetedChangeApplier changes = new BudgetedChangeApplier();
+    private final ChunkPreloader preloader = new ChunkPreloader();
+    private final ParallelVolumeEvaluator evaluator = new ParallelVolumeEvaluator();
+    private HistoryStore history;
+    private final HandleIndex<org.bukkit.entity.Player> players = new HandleIndex<org.bukkit.entity.Player>();
 
     /**
      * Creates a new {@link BukkitServiceProvider}.
@@ -93,6 +110,8 @@ public class BukkitServiceProvider
     public BukkitServiceProvider(org.bukkit.plugin.java.JavaPlugin pl)
     {
         this.plugin = checkNotNull(pl);
+        this.states = new MaterialStateTable<BukkitMaterialState>(BukkitServiceProvider::getStateIdBound, this::resolveState,
+                BukkitMaterialState::getStateId);
     }
 
     @InitHook(target = AnnotationScanner.class)
@@ -140,13 +159,42 @@ public class BukkitServiceProvider
         {
             registry.registerMaterial(m.name(), m, new BukkitMaterial(m));
         }
+        this.materials = registry;
+        this.states.rebuild();
+    }
+
+    @SuppressWarnings("deprecation")
+    private BukkitMaterialState resolveState(int stateId)
+    {
+        org.bukkit.Material type = org.bukkit.Material.getMaterial(stateId >> 4);
+        if (type == null || this.materials == null)
+        {
+            return null;
+        }
+        Optional<Material> material = this.materials.getMaterial(type);
+        if (!material.isPresent())
+        {
+            return null;
+        }
+        return (BukkitMaterialState) ((BukkitMaterial) material.get()).getState((byte) (stateId & 15));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int getStateIdBound()
+    {
+        int max = 0;
+        for (org.bukkit.Material m : org.bukkit.Material.values())
+        {
+            max = Math.max(max, m.getId());
+        }
+        return BukkitMaterialState.getStateId(max + 1, 0);
     }
 
     @Builder(target = WorldRegistry.class,
             priority = ServicePriorities.WORLD_REGISTRY_PRIORITY)
     public WorldRegistry<?> getWorldRegistry(Context context)
     {
-        return new WorldRegistryService<org.bukkit.World>(context, new WorldRegistryProvider(context));
+        return new WorldRegistryService<org.bukkit.World>(context, new WorldRegistryProvider(context, this.states));
     }
 
     @Builder(target = PermissionProxy.class,
@@ -161,13 +209,13 @@ public class BukkitServiceProvider
     public PlayerRegistry<?> getPlayerRegistry(Context context)
     {
         CommandSender console = new BukkitConsoleSender(org.bukkit.Bukkit.getConsoleSender());
-        return new PlayerRegistryService<org.bukkit.entity.Player>(context, new PlayerRegistryProvider(context), console);
+        return new PlayerRegistryService<org.bukkit.entity.Player>(context, new PlayerRegistryProvider(context, this.players), console);
     }
 
     @InitHook(target = EventBus.class)
     public void registerEventProxies(Context context, EventBus service)
     {
-        org.bukkit.Bukkit.getPluginManager().registerEvents(new BukkitEventHandler(context), this.plugin);
+        org.bukkit.Bukkit.getPluginManager().registerEvents(new BukkitEventHandler(context, this.players), this.plugin);
     }
 
     @InitHook(target = CommandHandler.class)
@@ -175,6 +223,7 @@ public class BukkitServiceProvider
     {
         CommandHandlerService cmd = (CommandHandlerService) service;
         cmd.setRegistrar(new BukkitCommandRegistrar(context));
+        cmd.registerCommand(new StatsCommand(context, this.changes));
     }
 
     @Builder(target = Scheduler.class,
@@ -184,6 +233,65 @@ public class BukkitServiceProvider
         return new BukkitSchedulerService(context, this.plugin);
     }
 
+    @InitHook(target = Scheduler.class)
+    public void startChangeApplier(Context context, Scheduler service)
+    {
+        this.changes.start(service);
+    }
+
+    /**
+     * Gets the applier which writes queued block changes on the main thread each tick.
+     * 
+     * @return The change applier
+     */
+    public BudgetedChangeApplier getChangeApplier()
+    {
+        return this.changes;
+    }
+
+    @InitHook(target = Scheduler.class)
+    public void startChunkPreloader(Context context, Scheduler service)
+    {
+        this.preloader.start(service);
+    }
+
+    /**
+     * Gets the preloader which loads the chunks of operations before they are started.
+     * 
+     * @return The chunk preloader
+     */
+    public ChunkPreloader getChunkPreloader()
+    {
+        return this.preloader;
+    }
+
+    /**
+     * Gets the evaluator which computes the changes of operations over world snapshots on worker
+     * threads. Its threads are stopped when the plugin is disabled.
+     * 
+     * @return The volume evaluator
+     */
+    public ParallelVolumeEvaluator getVolumeEvaluator()
+    {
+        return this.evaluator;
+    }
+
+    @InitHook(target = PlatformProxy.class)
+    public void createHistoryStore(Context context, PlatformProxy proxy)
+    {
+        this.history = new HistoryStore(new File(proxy.getRoot(), "history"), this.changes);
+    }
+
+    /**
+     * Gets the store which holds the undo history of each player.
+     * 
+     * @return The history store
+     */
+    public HistoryStore getHistoryStore()
+    {
+        return this.history;
+    }
+
     @Builder(target = BiomeRegistry.class,
             priority = ServicePriorities.BIOME_REGISTRY_PRIORITY)
     public BiomeRegistry<?> getBiomeRegistry(Context context)
@@ -238,10 +346,12 @@ class WorldRegistryProvider implements RegistryProvider<org.bukkit.World, World>
 {
 
     private final Context context;
+    private final MaterialStateTable<BukkitMaterialState> states;
 
-    public WorldRegistryProvider(Context context)
+    public WorldRegistryProvider(Context context, MaterialStateTable<BukkitMaterialState> states)
     {
         this.context = context;
+        this.states = states;
     }
 
     @Override
@@ -252,7 +362,7 @@ class WorldRegistryProvider implements RegistryProvider<org.bukkit.World, World>
         {
             return Optional.empty();
         }
-        return Optional.of(new Pair<org.bukkit.World, World>(world, new BukkitWorld(this.context, world, Gunsmith.getMainThread())));
+        return Optional.of(new Pair<org.bukkit.World, World>(world, new BukkitWorld(this.context, world, Gunsmith.getMainThread(), this.states)));
     }
 
 }
@@ -262,21 +372,28 @@ class PlayerRegistryProvider implements RegistryProvider<org.bukkit.entity.Playe
 
     private final Context context;
     private final GlobalBrushManager bm;
+    private final HandleIndex<org.bukkit.entity.Player> players;
 
-    public PlayerRegistryProvider(Context context)
+    public PlayerRegistryProvider(Context context, HandleIndex<org.bukkit.entity.Player> players)
     {
         this.context = context;
         this.bm = context.getRequired(GlobalBrushManager.class);
+        this.players = players;
     }
 
     @Override
-    @SuppressWarnings("deprecation")
     public Optional<Pair<org.bukkit.entity.Player, Player>> get(String name)
     {
-        org.bukkit.entity.Player player = org.bukkit.Bukkit.getPlayer(name);
+        org.bukkit.entity.Player player = this.players.get(name).orElse(null);
         if (player == null)
         {
-            return Optional.empty();
+            // exact match only, bukkit's getPlayer(String) scans every online player for a name prefix
+            player = org.bukkit.Bukkit.getPlayerExact(name);
+            if (player == null)
+            {
+                return Optional.empty();
+            }
+            this.players.add(player.getName(), player.getUniqueId(), player);
         }
         BukkitPlayer bp = new BukkitPlayer(player, this.bm, this.context);
         bp.init(this.context);
@@ -38,6 +38,8 @@ public class VoxelSniperBukkit extends org.bukkit.plugin.java.JavaPlugin
      */
     public static VoxelSniperBukkit voxelsniper;
 
+    private BukkitServiceProvider provider;
+
     /**
      * The main enabling sequence.
      */
@@ -45,7 +47,8 @@ public class VoxelSniperBukkit extends org.bukkit.plugin.java.JavaPlugin
     public void onEnable()
     {
         GunsmithLogger.getLogger().registerLogger("bukkit", new JavaUtilLogger(getLogger()));
-        Gunsmith.getServiceManager().register(new BukkitServiceProvider(this));
+        this.provider = new BukkitServiceProvider(this);
+        Gunsmith.getServiceManager().register(this.provider);
         Gunsmith.getServiceManager().start();
     }
 
@@ -59,6 +62,10 @@ public class VoxelSniperBukkit extends org.bukkit.plugin.java.JavaPlugin
         {
             Gunsmith.getServiceManager().shutdown();
         }
+        if (this.provider != null)
+        {
+            this.provider.getVolumeEvaluator().shutdown();
+        }
     }
 
 }
@@ -36,6 +36,8 @@ public class BukkitConfiguration
 
     public static String primaryMaterial = org.bukkit.Material.ARROW.name();
     public static String altMaterial = org.bukkit.Material.SULPHUR.name();
+    public static int syncTaskBudgetMillis = 10;
+    public static int permissionCacheMillis = 5000;
 
     @ConfigValue(hidden = true)
     public static String metricsConf = "PluginMetrics/config.yml";
@@ -30,8 +30,8 @@ import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
 import com.voxelplugineering.voxelsniper.entity.AbstractPlayer;
 import com.voxelplugineering.voxelsniper.entity.EntityType;
 import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
-import com.voxelplugineering.voxelsniper.service.text.TextFormat;
 import com.voxelplugineering.voxelsniper.service.text.TextFormatParser;
+import com.voxelplugineering.voxelsniper.service.text.TextTokenFormatter;
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.math.Vector3d;
 import com.voxelplugineering.voxelsniper.world.World;
@@ -45,7 +45,7 @@ public class BukkitPlayer extends AbstractPlayer<org.bukkit.entity.Player>
 {
 
     private final WorldRegistry<org.bukkit.World> worldReg;
-    private final TextFormatParser textFormat;
+    private final TextTokenFormatter formatter;
 
     /**
      * Creates a new {@link BukkitPlayer}.
@@ -57,36 +57,13 @@ public class BukkitPlayer extends AbstractPlayer<org.bukkit.entity.Player>
     {
         super(player, bm, context);
         this.worldReg = context.getRequired(WorldRegistry.class);
-        this.textFormat = context.getRequired(TextFormatParser.class);
+        this.formatter = TextTokenFormatter.of(context.getRequired(TextFormatParser.class));
     }
 
     @Override
     public void sendMessage(String msg)
     {
-        if (msg.indexOf('\n') != -1)
-        {
-            for (String message : msg.split("\n"))
-            {
-                sendMessage(message);
-            }
-            return;
-        }
-        if (msg.length() > BukkitConfiguration.maxMessageSize)
-        {
-            sendMessage(msg.substring(0, BukkitConfiguration.maxMessageSize));
-            sendMessage(msg.substring(BukkitConfiguration.maxMessageSize));
-            return;
-        }
-        getThis().sendMessage(formatMessage(msg));
-    }
-
-    private String formatMessage(String msg)
-    {
-        for (TextFormat format : TextFormat.values())
-        {
-            msg = msg.replaceAll(format.toString(), this.textFormat.getFormat(format));
-        }
-        return msg;
+        this.formatter.formatLines(msg, BukkitConfiguration.maxMessageSize, getThis()::sendMessage);
     }
 
     @Override
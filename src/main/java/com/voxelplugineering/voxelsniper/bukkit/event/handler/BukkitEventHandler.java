@@ -23,19 +23,28 @@
  */
 package com.voxelplugineering.voxelsniper.bukkit.event.handler;
 
+import com.google.common.collect.Maps;
 import com.voxelplugineering.voxelsniper.GunsmithLogger;
 import com.voxelplugineering.voxelsniper.brush.BrushAction;
 import com.voxelplugineering.voxelsniper.bukkit.config.BukkitConfiguration;
+import com.voxelplugineering.voxelsniper.bukkit.world.BukkitWorld;
 import com.voxelplugineering.voxelsniper.entity.Player;
 import com.voxelplugineering.voxelsniper.event.SnipeEvent;
 import com.voxelplugineering.voxelsniper.event.SniperEvent;
 import com.voxelplugineering.voxelsniper.event.SniperEvent.SniperDestroyEvent;
 import com.voxelplugineering.voxelsniper.service.eventbus.EventBus;
+import com.voxelplugineering.voxelsniper.service.registry.HandleIndex;
 import com.voxelplugineering.voxelsniper.service.registry.PlayerRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
 import com.voxelplugineering.voxelsniper.util.Context;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
 import org.bukkit.Material;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An event handler for bukkit's events to post the events to Gunsmith from.
@@ -45,15 +54,78 @@ public class BukkitEventHandler implements org.bukkit.event.Listener
 
     private final PlayerRegistry<org.bukkit.entity.Player> pr;
     private final EventBus bus;
+    private final WorldRegistry<org.bukkit.World> worlds;
+    private final HandleIndex<org.bukkit.entity.Player> players;
+    private final Material primary;
+    private final Material alternate;
+    private final Map<UUID, CachedPermission> permissions = Maps.newHashMap();
 
     /**
      * Creates a new {@link BukkitEventHandler}.
+     * 
+     * @param context The context
+     * @param players The index of online players to maintain
      */
     @SuppressWarnings({ "unchecked" })
-    public BukkitEventHandler(Context context)
+    public BukkitEventHandler(Context context, HandleIndex<org.bukkit.entity.Player> players)
     {
+        this.players = players;
         this.pr = context.getRequired(PlayerRegistry.class);
         this.bus = context.getRequired(EventBus.class);
+        this.worlds = context.getRequired(WorldRegistry.class);
+        this.primary = resolveMaterial(BukkitConfiguration.primaryMaterial, Material.ARROW);
+        this.alternate = resolveMaterial(BukkitConfiguration.altMaterial, Material.SULPHUR);
+    }
+
+    private static Material resolveMaterial(String name, Material def)
+    {
+        Material material = Material.matchMaterial(name);
+        if (material == null)
+        {
+            GunsmithLogger.getLogger().warn("Unknown trigger material " + name + ", using " + def.name());
+            return def;
+        }
+        return material;
+    }
+
+    /**
+     * Gets whether the given player may snipe. Results are cached per player for
+     * {@link BukkitConfiguration#permissionCacheMillis} as bukkit provides no event for permission
+     * changes, the cache entry is also discarded when the player quits or changes world.
+     * 
+     * @param player The player
+     * @return Has the sniper permission
+     */
+    private boolean canSnipe(org.bukkit.entity.Player player)
+    {
+        long now = System.nanoTime();
+        CachedPermission cached = this.permissions.get(player.getUniqueId());
+        if (cached == null || now - cached.expires >= 0)
+        {
+            cached = new CachedPermission(player.hasPermission("voxelsniper.sniper"),
+                    now + TimeUnit.MILLISECONDS.toNanos(BukkitConfiguration.permissionCacheMillis));
+            this.permissions.put(player.getUniqueId(), cached);
+        }
+        return cached.allowed;
+    }
+
+    /**
+     * Discards the cached sniper permission of the given player, the next interaction will check
+     * the permission again.
+     * 
+     * @param player The player's unique id
+     */
+    public void invalidatePermission(UUID player)
+    {
+        this.permissions.remove(player);
+    }
+
+    /**
+     * Discards all cached sniper permissions.
+     */
+    public void invalidatePermissions()
+    {
+        this.permissions.clear();
     }
 
     /**
@@ -64,7 +136,8 @@ public class BukkitEventHandler implements org.bukkit.event.Listener
     @org.bukkit.event.EventHandler
     public void onPlayerJoin(org.bukkit.event.player.PlayerJoinEvent event)
     {
-        if (!event.getPlayer().hasPermission("voxelsniper.sniper"))
+        this.players.add(event.getPlayer().getName(), event.getPlayer().getUniqueId(), event.getPlayer());
+        if (!canSnipe(event.getPlayer()))
         {
             return;
         }
@@ -84,16 +157,29 @@ public class BukkitEventHandler implements org.bukkit.event.Listener
     @org.bukkit.event.EventHandler
     public void onPlayerLeave(org.bukkit.event.player.PlayerQuitEvent event)
     {
-        if (!event.getPlayer().hasPermission("voxelsniper.sniper"))
+        if (event.getPlayer().hasPermission("voxelsniper.sniper"))
         {
-            return;
-        }
-        Optional<Player> s = this.pr.getPlayer(event.getPlayer());
-        if (s.isPresent())
-        {
-            SniperEvent.SniperDestroyEvent sde = new SniperEvent.SniperDestroyEvent(s.get());
-            this.bus.post(sde);
+            Optional<Player> s = this.pr.getPlayer(event.getPlayer());
+            if (s.isPresent())
+            {
+                SniperEvent.SniperDestroyEvent sde = new SniperEvent.SniperDestroyEvent(s.get());
+                this.bus.post(sde);
+            }
         }
+        this.players.remove(event.getPlayer().getName(), event.getPlayer().getUniqueId(), event.getPlayer());
+        this.permissions.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * An event handler for world change events, permissions may be world specific so the cached
+     * sniper permission of the player is discarded.
+     * 
+     * @param event The event
+     */
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.MONITOR)
+    public void onPlayerChangedWorld(org.bukkit.event.player.PlayerChangedWorldEvent event)
+    {
+        this.permissions.remove(event.getPlayer().getUniqueId());
     }
 
     /**
@@ -104,25 +190,27 @@ public class BukkitEventHandler implements org.bukkit.event.Listener
     @org.bukkit.event.EventHandler
     public void onPlayerInteractEvent(org.bukkit.event.player.PlayerInteractEvent event)
     {
-        if (!event.getPlayer().hasPermission("voxelsniper.sniper"))
-        {
-            return;
-        }
-        org.bukkit.entity.Player p = event.getPlayer();
         if (event.getAction() == org.bukkit.event.block.Action.RIGHT_CLICK_AIR
                 || event.getAction() == org.bukkit.event.block.Action.RIGHT_CLICK_BLOCK)
         {
+            // the item check is far cheaper than the permission check and rules out most events
+            Material held = event.getMaterial();
             BrushAction action = null;
-            if (p.getItemInHand().getType().equals(Material.valueOf(BukkitConfiguration.primaryMaterial)))
+            if (held == this.primary)
             {
                 action = BrushAction.PRIMARY;
-            } else if (p.getItemInHand().getType().equals(Material.valueOf(BukkitConfiguration.altMaterial)))
+            } else if (held == this.alternate)
             {
                 action = BrushAction.ALTERNATE;
             } else
             {
                 return;
             }
+            org.bukkit.entity.Player p = event.getPlayer();
+            if (!canSnipe(p))
+            {
+                return;
+            }
 
             Optional<Player> s = this.pr.getPlayer(event.getPlayer());
             if (s.isPresent())
@@ -141,4 +229,67 @@ public class BukkitEventHandler implements org.bukkit.event.Listener
             }
         }
     }
+
+    /**
+     * An event handler for chunk load events, records the chunk as loaded in its world.
+     * 
+     * @param event The event
+     */
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.MONITOR)
+    public void onChunkLoad(org.bukkit.event.world.ChunkLoadEvent event)
+    {
+        Optional<World> world = this.worlds.getWorld(event.getWorld().getName());
+        if (world.isPresent())
+        {
+            ((BukkitWorld) world.get()).onChunkLoad(event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    /**
+     * An event handler for chunk unload events, records the chunk as no longer loaded in its world.
+     * 
+     * @param event The event
+     */
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkUnload(org.bukkit.event.world.ChunkUnloadEvent event)
+    {
+        Optional<World> world = this.worlds.getWorld(event.getWorld().getName());
+        if (world.isPresent())
+        {
+            ((BukkitWorld) world.get()).onChunkUnload(event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    /**
+     * An event handler for world unload events, removes the metrics of the world from reporting.
+     * 
+     * @param event The event
+     */
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(org.bukkit.event.world.WorldUnloadEvent event)
+    {
+        Optional<World> world = this.worlds.getWorld(event.getWorld().getName());
+        if (world.isPresent())
+        {
+            WorldMetrics.remove(((BukkitWorld) world.get()).getMetrics());
+        }
+    }
+
+    /**
+     * A cached permission check result.
+     */
+    private static final class CachedPermission
+    {
+
+        final boolean allowed;
+        final long expires;
+
+        CachedPermission(boolean allowed, long expires)
+        {
+            this.allowed = allowed;
+            this.expires = expires;
+        }
+
+    }
+
 }
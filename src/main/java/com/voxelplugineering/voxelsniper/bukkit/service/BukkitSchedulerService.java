@@ -26,24 +26,32 @@ package com.voxelplugineering.voxelsniper.bukkit.service;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.Lists;
+import com.voxelplugineering.voxelsniper.bukkit.service.scheduler.BukkitSyncDispatcher;
+import com.voxelplugineering.voxelsniper.bukkit.service.scheduler.BukkitSyncTask;
 import com.voxelplugineering.voxelsniper.bukkit.service.scheduler.BukkitTask;
 import com.voxelplugineering.voxelsniper.service.AbstractService;
 import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
 import com.voxelplugineering.voxelsniper.util.Context;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 /**
- * A proxy for Bukkit's {@link org.bukkit.scheduler.BukkitScheduler}.
+ * A proxy for Bukkit's {@link org.bukkit.scheduler.BukkitScheduler}. Synchronous tasks are not
+ * registered with bukkit individually but are all run from a single {@link BukkitSyncDispatcher}.
  */
 public class BukkitSchedulerService extends AbstractService implements Scheduler
 {
 
-    private List<BukkitTask> tasks;
+    private static final int MILLISECONDS_PER_TICK = 50;
+
+    private List<Task> tasks;
     private final org.bukkit.plugin.Plugin plugin;
     private final org.bukkit.scheduler.BukkitScheduler scheduler;
+    private BukkitSyncDispatcher dispatcher;
+    private org.bukkit.scheduler.BukkitTask dispatcherTask;
+    private long sequence;
 
     /**
      * Creates a new {@link BukkitSchedulerService}.
@@ -60,47 +68,97 @@ public class BukkitSchedulerService extends AbstractService implements Scheduler
     @Override
     public void _init()
     {
-        this.tasks = Lists.newArrayList();
+        this.tasks = Lists.newCopyOnWriteArrayList();
+        this.dispatcher = new BukkitSyncDispatcher();
+        this.dispatcherTask = this.scheduler.runTaskTimer(this.plugin, this.dispatcher, 0, 1);
     }
 
     @Override
     protected void _shutdown()
     {
         stopAllTasks();
+        this.dispatcherTask.cancel();
+        this.dispatcherTask = null;
+        this.dispatcher = null;
         this.tasks = null;
     }
 
+    /**
+     * Converts the given interval in milliseconds to the nearest whole number of ticks, with a
+     * minimum of one tick.
+     * 
+     * @param interval The interval, in milliseconds
+     * @return The interval, in ticks
+     */
+    public static int toTicks(int interval)
+    {
+        return Math.max(1, (interval + MILLISECONDS_PER_TICK / 2) / MILLISECONDS_PER_TICK);
+    }
+
     @Override
-    public Optional<BukkitTask> startSynchronousTask(Runnable runnable, int interval)
+    public Optional<BukkitSyncTask> startSynchronousTask(Runnable runnable, int interval)
     {
-        org.bukkit.scheduler.BukkitTask task = this.scheduler.runTaskTimer(this.plugin, runnable, 0, interval / 50);
-        BukkitTask newTask = new BukkitTask(runnable, interval, task);
-        this.tasks.add(newTask);
-        return Optional.of(newTask);
+        return startSynchronousTask(runnable, interval, 0);
+    }
+
+    /**
+     * Starts a new synchronous task with the given priority. When several tasks are due on the same
+     * tick those with a higher priority are run first.
+     * 
+     * @param runnable The runnable
+     * @param interval The interval, in milliseconds
+     * @param priority The priority
+     * @return The task
+     */
+    public synchronized Optional<BukkitSyncTask> startSynchronousTask(Runnable runnable, int interval, int priority)
+    {
+        BukkitSyncTask task = new BukkitSyncTask(this, runnable, interval, toTicks(interval), priority, this.sequence++);
+        this.dispatcher.add(task);
+        this.tasks.add(task);
+        return Optional.of(task);
     }
 
     @Override
     public Optional<BukkitTask> startAsynchronousTask(Runnable runnable, int interval)
     {
-        org.bukkit.scheduler.BukkitTask task = this.scheduler.runTaskTimerAsynchronously(this.plugin, runnable, 0, interval / 50);
+        org.bukkit.scheduler.BukkitTask task = this.scheduler.runTaskTimerAsynchronously(this.plugin, runnable, 0, toTicks(interval));
         BukkitTask newTask = new BukkitTask(runnable, interval, task);
         this.tasks.add(newTask);
         return Optional.of(newTask);
     }
 
+    /**
+     * Removes the given task from this scheduler, this is called by synchronous tasks when they are
+     * cancelled.
+     * 
+     * @param task The task
+     */
+    public void cancel(Task task)
+    {
+        List<Task> tasks = this.tasks;
+        if (tasks != null)
+        {
+            tasks.remove(task);
+        }
+        BukkitSyncDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null && task instanceof BukkitSyncTask)
+        {
+            dispatcher.remove((BukkitSyncTask) task);
+        }
+    }
+
     @Override
     public void stopAllTasks()
     {
-        for (Iterator<BukkitTask> iter = this.tasks.iterator(); iter.hasNext();)
+        for (Task task : this.tasks)
         {
-            BukkitTask task = iter.next();
             task.cancel();
-            iter.remove();
         }
+        this.tasks.clear();
     }
 
     @Override
-    public List<BukkitTask> getAllTasks()
+    public List<Task> getAllTasks()
     {
         return this.tasks;
     }
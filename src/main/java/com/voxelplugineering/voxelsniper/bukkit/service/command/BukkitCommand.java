@@ -62,7 +62,7 @@ public class BukkitCommand extends org.bukkit.command.Command
     {
         if (cs instanceof org.bukkit.entity.Player)
         {
-            Player sender = this.pr.getPlayer(cs.getName()).get();
+            Player sender = this.pr.getPlayer((org.bukkit.entity.Player) cs).get();
             boolean allowed = false;
             for (String s : this.cmd.getPermissions())
             {
@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.service.scheduler;
+
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.bukkit.config.BukkitConfiguration;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs all {@link BukkitSyncTask}s from a single bukkit task which is executed every tick. Tasks
+ * which are due are run in priority order until the per tick budget (see
+ * {@link BukkitConfiguration#syncTaskBudgetMillis}) is spent, any due tasks which did not fit are
+ * run first on the following tick.
+ */
+public class BukkitSyncDispatcher implements Runnable
+{
+
+    private static final Comparator<BukkitSyncTask> BY_DUE_TICK = (a, b) ->
+    {
+        int c = Long.compare(a.getNextTick(), b.getNextTick());
+        return c != 0 ? c : Long.compare(a.getSequence(), b.getSequence());
+    };
+    private static final Comparator<BukkitSyncTask> BY_PRIORITY = (a, b) ->
+    {
+        int c = Integer.compare(b.getPriority(), a.getPriority());
+        return c != 0 ? c : BY_DUE_TICK.compare(a, b);
+    };
+
+    private final Queue<BukkitSyncTask> incoming;
+    private final Queue<BukkitSyncTask> removed;
+    private final PriorityQueue<BukkitSyncTask> waiting;
+    private final PriorityQueue<BukkitSyncTask> due;
+    private long tick;
+
+    /**
+     * Creates a new {@link BukkitSyncDispatcher}.
+     */
+    public BukkitSyncDispatcher()
+    {
+        this.incoming = new ConcurrentLinkedQueue<BukkitSyncTask>();
+        this.removed = new ConcurrentLinkedQueue<BukkitSyncTask>();
+        this.waiting = new PriorityQueue<BukkitSyncTask>(BY_DUE_TICK);
+        this.due = new PriorityQueue<BukkitSyncTask>(BY_PRIORITY);
+    }
+
+    /**
+     * Adds a task to this dispatcher, it will first be run on the next tick. This may be called
+     * from any thread.
+     * 
+     * @param task The task
+     */
+    public void add(BukkitSyncTask task)
+    {
+        this.incoming.add(task);
+    }
+
+    /**
+     * Removes a cancelled task from this dispatcher, it is dropped at the start of the next tick.
+     * This may be called from any thread.
+     * 
+     * @param task The task
+     */
+    public void remove(BukkitSyncTask task)
+    {
+        this.removed.add(task);
+    }
+
+    /**
+     * Gets the number of tasks which were due but deferred to a later tick because the budget had
+     * been spent.
+     * 
+     * @return The number of deferred tasks
+     */
+    public int getDeferredCount()
+    {
+        return this.due.size();
+    }
+
+    @Override
+    public void run()
+    {
+        this.tick++;
+        for (BukkitSyncTask task = this.incoming.poll(); task != null; task = this.incoming.poll())
+        {
+            task.setNextTick(this.tick);
+            this.waiting.add(task);
+        }
+        for (BukkitSyncTask task = this.removed.poll(); task != null; task = this.removed.poll())
+        {
+            this.waiting.remove(task);
+            this.due.remove(task);
+        }
+        while (!this.waiting.isEmpty() && this.waiting.peek().getNextTick() <= this.tick)
+        {
+            this.due.add(this.waiting.poll());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BukkitConfiguration.syncTaskBudgetMillis);
+        boolean ran = false;
+        while (!this.due.isEmpty())
+        {
+            // always run at least one task per tick so that a small budget cannot stall everything
+            if (ran && System.nanoTime() >= deadline)
+            {
+                break;
+            }
+            BukkitSyncTask task = this.due.poll();
+            if (task.isCancelled())
+            {
+                continue;
+            }
+            try
+            {
+                task.getRunnable().run();
+            } catch (Exception e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error executing synchronous task");
+            }
+            ran = true;
+            if (!task.isCancelled())
+            {
+                task.setNextTick(this.tick + task.getPeriod());
+                this.waiting.add(task);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.service.scheduler;
+
+import com.voxelplugineering.voxelsniper.bukkit.service.BukkitSchedulerService;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+
+/**
+ * A synchronous task which is run by a {@link BukkitSyncDispatcher} rather than being registered
+ * with bukkit's scheduler individually.
+ */
+public class BukkitSyncTask extends Task
+{
+
+    private final BukkitSchedulerService scheduler;
+    private final int period;
+    private final int priority;
+    private final long sequence;
+    private long nextTick;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a new {@link BukkitSyncTask}.
+     * 
+     * @param scheduler The scheduler which owns this task
+     * @param runnable The runnable
+     * @param interval The interval, in milliseconds
+     * @param period The interval, in ticks
+     * @param priority The priority, higher priority tasks run first when several are due
+     * @param sequence The registration order of this task, used to break ties
+     */
+    public BukkitSyncTask(BukkitSchedulerService scheduler, Runnable runnable, int interval, int period, int priority, long sequence)
+    {
+        super(runnable, interval);
+        this.scheduler = scheduler;
+        this.period = period;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void cancel()
+    {
+        this.cancelled = true;
+        this.scheduler.cancel(this);
+    }
+
+    /**
+     * Gets whether this task has been cancelled.
+     * 
+     * @return Is cancelled
+     */
+    public boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+
+    /**
+     * Gets the interval of this task in ticks.
+     * 
+     * @return The period
+     */
+    public int getPeriod()
+    {
+        return this.period;
+    }
+
+    /**
+     * Gets the priority of this task.
+     * 
+     * @return The priority
+     */
+    public int getPriority()
+    {
+        return this.priority;
+    }
+
+    /**
+     * Gets the registration order of this task.
+     * 
+     * @return The sequence number
+     */
+    public long getSequence()
+    {
+        return this.sequence;
+    }
+
+    /**
+     * Gets the tick on which this task is next due.
+     * 
+     * @return The next tick
+     */
+    public long getNextTick()
+    {
+        return this.nextTick;
+    }
+
+    /**
+     * Sets the tick on which this task is next due.
+     * 
+     * @param tick The next tick
+     */
+    public void setNextTick(long tick)
+    {
+        this.nextTick = tick;
+    }
+
+}
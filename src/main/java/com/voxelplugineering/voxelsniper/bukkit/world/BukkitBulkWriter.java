@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeRecorder;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.util.Arrays;
+
+/**
+ * A {@link BulkWriter} for bukkit worlds. Changes are written without physics updates and the
+ * touched chunks are recorded with the world's {@link BukkitDirtyChunkTracker}. The server sends the
+ * changes to players itself.
+ */
+public class BukkitBulkWriter implements BulkWriter
+{
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final BukkitWorld world;
+    private int[] changes;
+    private int size;
+    private ChangeRecorder recorder;
+
+    /**
+     * Creates a new {@link BukkitBulkWriter}.
+     * 
+     * @param world The world to write to
+     */
+    public BukkitBulkWriter(BukkitWorld world)
+    {
+        this.world = checkNotNull(world);
+        this.changes = new int[INITIAL_CAPACITY * 4];
+    }
+
+    @Override
+    public void setBlock(MaterialState material, int x, int y, int z)
+    {
+        checkNotNull(material);
+        if (y < 0 || y >= 256 || !(material instanceof BukkitMaterialState))
+        {
+            return;
+        }
+        int i = this.size * 4;
+        if (i == this.changes.length)
+        {
+            this.changes = Arrays.copyOf(this.changes, this.changes.length * 2);
+        }
+        this.changes[i] = x;
+        this.changes[i + 1] = y;
+        this.changes[i + 2] = z;
+        this.changes[i + 3] = ((BukkitMaterialState) material).getStateId();
+        this.size++;
+    }
+
+    @Override
+    public int getPendingCount()
+    {
+        return this.size;
+    }
+
+    @Override
+    public void setRecorder(ChangeRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void apply()
+    {
+        org.bukkit.World handle = this.world.getThis();
+        BukkitDirtyChunkTracker tracker = this.world.getDirtyChunkTracker();
+        // applied in order, so a later change to a position replaces an earlier one
+        for (int n = 0, i = 0; n < this.size; n++, i += 4)
+        {
+            int x = this.changes[i];
+            int y = this.changes[i + 1];
+            int z = this.changes[i + 2];
+            int stateId = this.changes[i + 3];
+            org.bukkit.block.Block block = handle.getBlockAt(x, y, z);
+            if (this.recorder != null)
+            {
+                record(BukkitMaterialState.getStateId(block.getTypeId(), block.getData()), stateId, x, y, z);
+            }
+            block.setTypeIdAndData(stateId >> 4, (byte) (stateId & 15), false);
+            tracker.mark(x, y, z);
+        }
+        this.world.getMetrics().recordWrite(this.size);
+        this.size = 0;
+        tracker.flush();
+    }
+
+    private void record(int previousId, int nextId, int x, int y, int z)
+    {
+        if (previousId == nextId)
+        {
+            return;
+        }
+        MaterialState previous = this.world.getStateTable().get(previousId);
+        MaterialState next = this.world.getStateTable().get(nextId);
+        if (previous != null && next != null)
+        {
+            this.recorder.record(previous, next, x, y, z);
+        }
+    }
+
+}
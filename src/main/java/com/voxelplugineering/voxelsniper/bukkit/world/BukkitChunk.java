@@ -26,8 +26,6 @@ package com.voxelplugineering.voxelsniper.bukkit.world;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.Lists;
-import com.voxelplugineering.voxelsniper.bukkit.entity.BukkitEntity;
-import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterial;
 import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
 import com.voxelplugineering.voxelsniper.entity.Entity;
 import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
@@ -37,11 +35,9 @@ import com.voxelplugineering.voxelsniper.world.Block;
 import com.voxelplugineering.voxelsniper.world.CommonBlock;
 import com.voxelplugineering.voxelsniper.world.CommonLocation;
 import com.voxelplugineering.voxelsniper.world.World;
-import com.voxelplugineering.voxelsniper.world.material.Material;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -88,12 +84,11 @@ public class BukkitChunk extends AbstractChunk<org.bukkit.Chunk>
             return Optional.empty();
         }
         org.bukkit.block.Block b = getThis().getBlock(x, y, z);
-        Optional<Material> m = this.getWorld().getMaterialRegistry().getMaterial(b.getType().name());
-        if (!m.isPresent())
+        MaterialState ms = this.world.getStateTable().get(BukkitMaterialState.getStateId(b.getTypeId(), b.getData()));
+        if (ms == null)
         {
             return Optional.empty();
         }
-        MaterialState ms = ((BukkitMaterial) m.get()).getState(b.getData());
         CommonLocation l = new CommonLocation(this.getWorld(), b.getX(), b.getY(), b.getZ());
         return Optional.<Block>of(new CommonBlock(l, ms));
     }
@@ -108,9 +103,8 @@ public class BukkitChunk extends AbstractChunk<org.bukkit.Chunk>
         }
         if (material instanceof BukkitMaterialState)
         {
-            BukkitMaterialState bukkitMaterial = (BukkitMaterialState) material;
-            getThis().getBlock(x, y, z).setTypeIdAndData(((BukkitMaterial) bukkitMaterial.getType()).getThis().getId(), bukkitMaterial.getState(),
-                    update);
+            int stateId = ((BukkitMaterialState) material).getStateId();
+            getThis().getBlock(x, y, z).setTypeIdAndData(stateId >> 4, (byte) (stateId & 15), update);
         }
     }
 
@@ -118,18 +112,9 @@ public class BukkitChunk extends AbstractChunk<org.bukkit.Chunk>
     public Iterable<Entity> getLoadedEntities()
     {
         List<Entity> entities = Lists.newArrayList();
-        Map<org.bukkit.entity.Entity, Entity> cache = this.world.getEntityCache();
         for (org.bukkit.entity.Entity e : getThis().getEntities())
         {
-            if (cache.containsKey(e))
-            {
-                entities.add(cache.get(e));
-            } else
-            {
-                Entity ent = new BukkitEntity(e, this.worldReg);
-                cache.put(e, ent);
-                entities.add(ent);
-            }
+            entities.add(this.world.wrap(e));
         }
         return entities;
     }
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records the chunks, and the sections within them, which have been changed in a world during a
+ * tick and reports the number of changed sections to the world's {@link WorldMetrics} when the
+ * record is flushed.
+ * 
+ * <p>Nothing is resent to players. The server already sends the changes of every chunk itself
+ * each tick, as a single multi block change below 64 changes and as the changed sections above
+ * it, and the bukkit api can only resend a chunk whole, which would cost more than either.</p>
+ * 
+ * <p>Changes are recorded from the world thread, access is synchronized so that a stray write from
+ * another thread cannot corrupt the record.</p>
+ */
+public class BukkitDirtyChunkTracker
+{
+
+    private static final int COUNT = 0;
+    private static final int SECTIONS = 1;
+
+    private final WorldMetrics metrics;
+    private final Scheduler scheduler;
+    private final Map<Long, int[]> dirty;
+    private Optional<? extends Task> task;
+
+    /**
+     * Creates a new {@link BukkitDirtyChunkTracker}.
+     * 
+     * @param metrics The metrics of the world
+     * @param scheduler The scheduler used to flush changes made outside of a bulk write at the end
+     *            of the tick
+     */
+    public BukkitDirtyChunkTracker(WorldMetrics metrics, Scheduler scheduler)
+    {
+        this.metrics = checkNotNull(metrics);
+        this.scheduler = scheduler;
+        this.dirty = Maps.newHashMap();
+        this.task = Optional.empty();
+    }
+
+    /**
+     * Records a change to the block at the given position.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public synchronized void mark(int x, int y, int z)
+    {
+        Long key = ChunkKeys.toKeyFromBlock(x, z);
+        int[] entry = this.dirty.get(key);
+        if (entry == null)
+        {
+            entry = new int[2];
+            this.dirty.put(key, entry);
+        }
+        entry[COUNT]++;
+        entry[SECTIONS] |= 1 << (y >> 4);
+    }
+
+    /**
+     * Records a change to the block at the given position and ensures that the changes will be
+     * flushed on the next tick.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public synchronized void markAndSchedule(int x, int y, int z)
+    {
+        mark(x, y, z);
+        if (!this.task.isPresent() && this.scheduler != null)
+        {
+            this.task = this.scheduler.startSynchronousTask(this::tick, 0);
+        }
+    }
+
+    private synchronized void tick()
+    {
+        if (this.dirty.isEmpty())
+        {
+            if (this.task.isPresent())
+            {
+                this.task.get().cancel();
+                this.task = Optional.empty();
+            }
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Gets the number of chunks with unflushed changes.
+     * 
+     * @return The dirty chunk count
+     */
+    public synchronized int getDirtyCount()
+    {
+        return this.dirty.size();
+    }
+
+    /**
+     * Gets the bitmask of 16 block high sections which have been changed within the given chunk.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The section mask, zero if the chunk is not dirty
+     */
+    public synchronized int getSectionMask(int cx, int cz)
+    {
+        int[] entry = this.dirty.get(ChunkKeys.toKey(cx, cz));
+        return entry == null ? 0 : entry[SECTIONS];
+    }
+
+    /**
+     * Gets the number of changes recorded within the given chunk.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The change count, zero if the chunk is not dirty
+     */
+    public synchronized int getChangeCount(int cx, int cz)
+    {
+        int[] entry = this.dirty.get(ChunkKeys.toKey(cx, cz));
+        return entry == null ? 0 : entry[COUNT];
+    }
+
+    /**
+     * Records the number of changed sections of every dirty chunk with the world's metrics and
+     * clears all recorded changes.
+     * 
+     * @return The number of chunks which were dirty
+     */
+    public synchronized int flush()
+    {
+        long sections = 0;
+        for (int[] entry : this.dirty.values())
+        {
+            sections += Integer.bitCount(entry[SECTIONS]);
+        }
+        this.metrics.recordSectionsChanged(sections);
+        int chunks = this.dirty.size();
+        this.dirty.clear();
+        return chunks;
+    }
+
+}
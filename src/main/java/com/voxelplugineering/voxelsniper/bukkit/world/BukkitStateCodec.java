@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.schematic.StateCodec;
+
+import java.util.Optional;
+
+/**
+ * A {@link StateCodec} for bukkit worlds, naming each state by its material name and data value,
+ * for example {@code STONE:1}.
+ */
+public class BukkitStateCodec implements StateCodec
+{
+
+    private final BukkitWorld world;
+
+    /**
+     * Creates a new {@link BukkitStateCodec}.
+     * 
+     * @param world The world to resolve states in
+     */
+    public BukkitStateCodec(BukkitWorld world)
+    {
+        this.world = checkNotNull(world);
+    }
+
+    @Override
+    public Optional<String> encode(MaterialState state)
+    {
+        if (!(state instanceof BukkitMaterialState))
+        {
+            return Optional.empty();
+        }
+        BukkitMaterialState bukkitState = (BukkitMaterialState) state;
+        return Optional.of(bukkitState.getType().getName() + ":" + (bukkitState.getState() & 15));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Optional<MaterialState> decode(String name)
+    {
+        int split = name.lastIndexOf(':');
+        if (split < 0)
+        {
+            return Optional.empty();
+        }
+        org.bukkit.Material type = org.bukkit.Material.getMaterial(name.substring(0, split));
+        if (type == null || !type.isBlock())
+        {
+            return Optional.empty();
+        }
+        int data;
+        try
+        {
+            data = Integer.parseInt(name.substring(split + 1));
+        } catch (NumberFormatException e)
+        {
+            return Optional.empty();
+        }
+        return Optional.<MaterialState>ofNullable(this.world.getStateTable().get(BukkitMaterialState.getStateId(type.getId(), data)));
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.bukkit.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
+import org.bukkit.ChunkSnapshot;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link VolumeSource} for bukkit worlds backed by one {@link ChunkSnapshot} per loaded chunk
+ * overlapping the volume.
+ */
+public class BukkitVolumeSnapshot implements VolumeSource
+{
+
+    private final BukkitWorld world;
+    private final Vector3i min;
+    private final Vector3i max;
+    private final Map<Long, ChunkSnapshot> chunks;
+
+    /**
+     * Creates a new {@link BukkitVolumeSnapshot}, taking a snapshot of every loaded chunk
+     * overlapping the given volume. This must be called from the world thread.
+     * 
+     * @param world The world
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     */
+    public BukkitVolumeSnapshot(BukkitWorld world, Vector3i min, Vector3i max)
+    {
+        this.world = checkNotNull(world);
+        this.min = checkNotNull(min);
+        this.max = checkNotNull(max);
+        this.chunks = Maps.newHashMap();
+        org.bukkit.World handle = world.getThis();
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                if (handle.isChunkLoaded(cx, cz))
+                {
+                    this.chunks.put(ChunkKeys.toKey(cx, cz), handle.getChunkAt(cx, cz).getChunkSnapshot(false, false, false));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Vector3i getMin()
+    {
+        return this.min;
+    }
+
+    @Override
+    public Vector3i getMax()
+    {
+        return this.max;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Optional<MaterialState> getState(int x, int y, int z)
+    {
+        if (x < this.min.getX() || x > this.max.getX() || z < this.min.getZ() || z > this.max.getZ() || y < Math.max(this.min.getY(), 0)
+                || y > Math.min(this.max.getY(), BukkitChunk.CHUNK_SIZE.getY() - 1))
+        {
+            return Optional.empty();
+        }
+        ChunkSnapshot chunk = this.chunks.get(ChunkKeys.toKeyFromBlock(x, z));
+        if (chunk == null)
+        {
+            return Optional.empty();
+        }
+        int lx = x & 15;
+        int lz = z & 15;
+        return Optional.<MaterialState>ofNullable(
+                this.world.getStateTable().get(BukkitMaterialState.getStateId(chunk.getBlockTypeId(lx, y, lz), chunk.getBlockData(lx, y, lz))));
+    }
+
+}
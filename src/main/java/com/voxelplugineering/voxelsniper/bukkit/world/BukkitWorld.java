@@ -24,18 +24,24 @@
 package com.voxelplugineering.voxelsniper.bukkit.world;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 import com.voxelplugineering.voxelsniper.bukkit.entity.BukkitEntity;
 import com.voxelplugineering.voxelsniper.bukkit.world.biome.BukkitBiome;
-import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterial;
 import com.voxelplugineering.voxelsniper.bukkit.world.material.BukkitMaterialState;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
 import com.voxelplugineering.voxelsniper.entity.Entity;
 import com.voxelplugineering.voxelsniper.entity.Player;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.math.Vector3i;
 import com.voxelplugineering.voxelsniper.world.AbstractWorld;
@@ -44,46 +50,162 @@ import com.voxelplugineering.voxelsniper.world.Chunk;
 import com.voxelplugineering.voxelsniper.world.CommonBlock;
 import com.voxelplugineering.voxelsniper.world.CommonLocation;
 import com.voxelplugineering.voxelsniper.world.biome.Biome;
-import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.buffer.StateIdBuffer;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWritable;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloadable;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkWrapperCache;
+import com.voxelplugineering.voxelsniper.world.chunk.LoadedChunkSet;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockCursor;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitable;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitor;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
 import com.voxelplugineering.voxelsniper.bukkit.entity.BukkitEntityType;
 import com.voxelplugineering.voxelsniper.entity.EntityType;
 import com.voxelplugineering.voxelsniper.util.math.Vector3d;
+import com.voxelplugineering.voxelsniper.world.query.EntityQueryable;
+import com.voxelplugineering.voxelsniper.world.metrics.Instrumented;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+import com.voxelplugineering.voxelsniper.world.volume.Snapshottable;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
 import org.bukkit.Location;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A wrapper for bukkit's {@link org.bukkit.World}s.
  */
-public class BukkitWorld extends AbstractWorld<org.bukkit.World>
+public class BukkitWorld extends AbstractWorld<org.bukkit.World> implements BlockVisitable, EntityQueryable, BulkWritable, Snapshottable,
+        Instrumented, ChunkPreloadable
 {
 
+    /**
+     * The maximum time to wait for the world thread to take chunk snapshots for a read from another
+     * thread.
+     */
+    private static final long SNAPSHOT_TIMEOUT_MILLIS = 5000;
+
     private final MaterialRegistry<org.bukkit.Material> materials;
-    private final Map<org.bukkit.Chunk, Chunk> chunks;
+    private final ChunkWrapperCache<BukkitChunk> chunks;
     private final Map<org.bukkit.entity.Entity, Entity> entitiesCache;
     private final Thread worldThread;
     private final WorldRegistry<org.bukkit.World> worldReg;
     private final BiomeRegistry<org.bukkit.block.Biome> biomes;
+    private final MaterialStateTable<BukkitMaterialState> states;
+    private final LoadedChunkSet loadedChunks;
+    private volatile boolean loadedChunksSeeded;
+    private final BukkitDirtyChunkTracker dirtyChunks;
+    private final WorldMetrics metrics;
+    private final Scheduler scheduler;
 
     /**
      * Creates a new {@link BukkitWorld}.
      * 
      * @param world The world
      * @param thread The world Thread
+     * @param states The table of state ids
      */
     @SuppressWarnings("unchecked")
-    public BukkitWorld(Context context, org.bukkit.World world, Thread thread)
+    public BukkitWorld(Context context, org.bukkit.World world, Thread thread, MaterialStateTable<BukkitMaterialState> states)
     {
         super(context, world);
         this.materials = context.getRequired(MaterialRegistry.class);
         this.worldReg = context.getRequired(WorldRegistry.class);
         this.biomes = context.getRequired(BiomeRegistry.class);
-        this.chunks = new MapMaker().weakKeys().makeMap();
+        this.chunks = new ChunkWrapperCache<BukkitChunk>();
         this.entitiesCache = new MapMaker().weakKeys().makeMap();
         this.worldThread = thread;
+        this.states = checkNotNull(states);
+        this.loadedChunks = new LoadedChunkSet();
+        this.scheduler = context.get(Scheduler.class).orElse(null);
+        this.metrics = WorldMetrics.create(world.getName());
+        this.dirtyChunks = new BukkitDirtyChunkTracker(this.metrics, this.scheduler);
+        if (Thread.currentThread() == this.worldThread)
+        {
+            seedLoadedChunks();
+        }
+    }
+
+    private void seedLoadedChunks()
+    {
+        for (org.bukkit.Chunk chunk : getThis().getLoadedChunks())
+        {
+            this.loadedChunks.add(chunk.getX(), chunk.getZ());
+        }
+        this.loadedChunksSeeded = true;
+    }
+
+    /**
+     * Records that the chunk at the given chunk coordinates has been loaded. This must be called
+     * from the world thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void onChunkLoad(int cx, int cz)
+    {
+        if (!this.loadedChunksSeeded)
+        {
+            seedLoadedChunks();
+        }
+        this.loadedChunks.add(cx, cz);
+        this.metrics.recordChunkLoad();
+    }
+
+    /**
+     * Records that the chunk at the given chunk coordinates has been unloaded. This must be called
+     * from the world thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void onChunkUnload(int cx, int cz)
+    {
+        if (!this.loadedChunksSeeded)
+        {
+            seedLoadedChunks();
+        }
+        this.loadedChunks.remove(cx, cz);
+        this.chunks.remove(cx, cz);
+    }
+
+    /**
+     * Gets whether the chunk at the given chunk coordinates is loaded. Once the set of loaded
+     * chunks has been captured on the world thread this is a lookup into that set and does not
+     * query the server.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return Is the chunk loaded
+     */
+    @Override
+    public boolean isChunkLoaded(int cx, int cz)
+    {
+        if (this.loadedChunksSeeded)
+        {
+            return this.loadedChunks.contains(cx, cz);
+        }
+        return getThis().isChunkLoaded(cx, cz);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Bukkit has no asynchronous chunk loading, the chunk is loaded or generated before this
+     * returns.</p>
+     */
+    @Override
+    public void requestChunkLoad(int cx, int cz)
+    {
+        getThis().loadChunk(cx, cz, true);
     }
 
     @Override
@@ -99,30 +221,26 @@ public class BukkitWorld extends AbstractWorld<org.bukkit.World>
         {
             return Optional.empty();
         }
+        BukkitChunk cached = this.chunks.get(x, z);
+        if (cached != null)
+        {
+            this.metrics.recordChunkLookup(true);
+            return Optional.<Chunk>of(cached);
+        }
+        this.metrics.recordChunkLookup(false);
         org.bukkit.Chunk chunk = getThis().getChunkAt(x, z);
         if (chunk == null)
         {
             return Optional.empty();
         }
-        if (this.chunks.containsKey(chunk))
-        {
-            return Optional.of(this.chunks.get(chunk));
-        }
         BukkitChunk newChunk = new BukkitChunk(chunk, this, this.worldReg);
-        this.chunks.put(chunk, newChunk);
+        this.chunks.put(x, z, newChunk);
         return Optional.<Chunk>of(newChunk);
     }
 
     private boolean checkAsyncChunkAccess(int x, int y, int z)
     {
-        if (Thread.currentThread() != this.worldThread)
-        {
-            if (!getThis().isChunkLoaded(x, z))
-            {
-                return false;
-            }
-        }
-        return true;
+        return (PerformanceConfiguration.loadChunksOnRead && Thread.currentThread() == this.worldThread) || isChunkLoaded(x, z);
     }
 
     @SuppressWarnings("deprecation")
@@ -133,29 +251,231 @@ public class BukkitWorld extends AbstractWorld<org.bukkit.World>
         {
             return Optional.empty();
         }
+        this.metrics.recordRead(1);
         org.bukkit.block.Block b = getThis().getBlockAt(x, y, z);
-        Optional<Material> m = this.materials.getMaterial(b.getType().name());
-        if (!m.isPresent())
+        MaterialState ms = this.states.get(BukkitMaterialState.getStateId(b.getTypeId(), b.getData()));
+        if (ms == null)
         {
             return Optional.empty();
         }
-        MaterialState ms = ((BukkitMaterial) m.get()).getState(b.getData());
-        CommonLocation l = new CommonLocation(this, b.getX(), b.getY(), b.getZ());
+        CommonLocation l = new CommonLocation(this, x, y, z);
         return Optional.<Block>of(new CommonBlock(l, ms));
     }
 
     private boolean checkAsyncBlockAccess(int x, int y, int z)
     {
-        if (Thread.currentThread() != this.worldThread)
+        return (PerformanceConfiguration.loadChunksOnRead && Thread.currentThread() == this.worldThread) || isChunkLoaded(x >> 4, z >> 4);
+    }
+
+    /**
+     * Reads the given cuboid into a {@link StateIdBuffer} of bukkit state ids (see
+     * {@link BukkitMaterialState#getStateId(int, int)}) in a single pass, taking one {@link org.bukkit.ChunkSnapshot}
+     * per touched chunk rather than looking up each block individually.
+     * 
+     * <p>When called from a thread other than the world thread the snapshots are taken on the world
+     * thread (see {@link #takeChunkSnapshots(Vector3i, Vector3i)}), only chunks which are already
+     * loaded are read and positions within any other chunk are left as
+     * {@link StateIdBuffer#UNKNOWN}. On the world thread unloaded chunks are also left unknown
+     * unless {@link PerformanceConfiguration#loadChunksOnRead} is enabled. Positions outside of the
+     * world height are never read.</p>
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @return The filled buffer
+     * @throws UncheckedTimeoutException If called from another thread and the world thread did not
+     *             take the snapshots in time
+     */
+    @SuppressWarnings("deprecation")
+    public StateIdBuffer readVolume(Vector3i min, Vector3i max)
+    {
+        StateIdBuffer buffer = new StateIdBuffer(min, max);
+        int minY = Math.max(min.getY(), 0);
+        int maxY = Math.min(max.getY(), BukkitChunk.CHUNK_SIZE.getY() - 1);
+        if (minY > maxY)
         {
-            int cx = x < 0 ? (x / getChunkSize().getX() - 1) : x / 16;
-            int cz = z < 0 ? (z / getChunkSize().getZ() - 1) : z / 16;
-            if (!getThis().isChunkLoaded(cx, cz))
+            return buffer;
+        }
+        Map<Long, org.bukkit.ChunkSnapshot> snapshots = takeChunkSnapshots(min, max);
+        int[] data = buffer.getRawData();
+        long read = 0;
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
             {
-                return false;
+                org.bukkit.ChunkSnapshot snapshot = snapshots.get(ChunkKeys.toKey(cx, cz));
+                if (snapshot == null)
+                {
+                    continue;
+                }
+                int bx = cx << 4;
+                int bz = cz << 4;
+                int x0 = Math.max(min.getX(), bx);
+                int x1 = Math.min(max.getX(), bx + 15);
+                int z0 = Math.max(min.getZ(), bz);
+                int z1 = Math.min(max.getZ(), bz + 15);
+                read += (long) (x1 - x0 + 1) * (z1 - z0 + 1) * (maxY - minY + 1);
+                for (int y = minY; y <= maxY; y++)
+                {
+                    for (int z = z0; z <= z1; z++)
+                    {
+                        int index = buffer.getIndex(x0, y, z);
+                        for (int x = x0; x <= x1; x++)
+                        {
+                            data[index++] = BukkitMaterialState.getStateId(snapshot.getBlockTypeId(x - bx, y, z - bz),
+                                    snapshot.getBlockData(x - bx, y, z - bz));
+                        }
+                    }
+                }
             }
         }
-        return true;
+        this.metrics.recordRead(read);
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>As with {@link #readVolume(Vector3i, Vector3i)} each chunk is read from a single
+     * {@link org.bukkit.ChunkSnapshot} taken on the world thread, and only loaded chunks are
+     * visited when called from a thread other than the world thread. An
+     * {@link UncheckedTimeoutException} is thrown if the world thread does not take the snapshots in
+     * time, rather than visiting nothing.</p>
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public void visitBlocks(Vector3i min, Vector3i max, BlockVisitor visitor)
+    {
+        int minY = Math.max(min.getY(), 0);
+        int maxY = Math.min(max.getY(), BukkitChunk.CHUNK_SIZE.getY() - 1);
+        Map<Long, org.bukkit.ChunkSnapshot> snapshots = takeChunkSnapshots(min, max);
+        BlockCursor cursor = new BlockCursor(this);
+        long read = 0;
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                org.bukkit.ChunkSnapshot snapshot = snapshots.get(ChunkKeys.toKey(cx, cz));
+                if (snapshot == null)
+                {
+                    continue;
+                }
+                int bx = cx << 4;
+                int bz = cz << 4;
+                int x1 = Math.min(max.getX(), bx + 15);
+                int z1 = Math.min(max.getZ(), bz + 15);
+                for (int y = minY; y <= maxY; y++)
+                {
+                    for (int z = Math.max(min.getZ(), bz); z <= z1; z++)
+                    {
+                        for (int x = Math.max(min.getX(), bx); x <= x1; x++)
+                        {
+                            read++;
+                            int id = BukkitMaterialState.getStateId(snapshot.getBlockTypeId(x - bx, y, z - bz),
+                                    snapshot.getBlockData(x - bx, y, z - bz));
+                            MaterialState state = this.states.get(id);
+                            if (state == null)
+                            {
+                                continue;
+                            }
+                            cursor.set(x, y, z, id, state);
+                            if (!visitor.visit(cursor))
+                            {
+                                this.metrics.recordRead(read);
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        this.metrics.recordRead(read);
+    }
+
+    /**
+     * Takes a {@link org.bukkit.ChunkSnapshot} of each chunk overlapping the given volume, keyed by
+     * {@link ChunkKeys#toKey(int, int)}. On the world thread chunks are loaded as needed if
+     * {@link PerformanceConfiguration#loadChunksOnRead} is enabled. From any other thread the
+     * snapshots of the already loaded chunks are taken in a single synchronous task on the world
+     * thread, as checking whether a chunk is loaded and then fetching it off the world thread could
+     * race with an unload and load the chunk synchronously.
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @return The snapshots
+     * @throws UncheckedTimeoutException If the world thread did not take the snapshots within
+     *             {@link #SNAPSHOT_TIMEOUT_MILLIS}
+     * @throws UncheckedExecutionException If taking the snapshots failed
+     * @throws IllegalStateException If there is no scheduler or the thread was interrupted
+     */
+    private Map<Long, org.bukkit.ChunkSnapshot> takeChunkSnapshots(final Vector3i min, final Vector3i max)
+    {
+        if (Thread.currentThread() == this.worldThread)
+        {
+            return takeChunkSnapshots(min, max, PerformanceConfiguration.loadChunksOnRead);
+        }
+        checkState(this.scheduler != null, "Reading off the world thread requires a scheduler");
+        FutureTask<Map<Long, org.bukkit.ChunkSnapshot>> snapshot = new FutureTask<Map<Long, org.bukkit.ChunkSnapshot>>(
+                () -> takeChunkSnapshots(min, max, false));
+        // the task repeats each tick until cancelled, once done further runs of the future do nothing
+        Optional<? extends Task> task = this.scheduler.startSynchronousTask(snapshot, 0);
+        checkState(task.isPresent(), "Failed to schedule the chunk snapshots of " + getName());
+        try
+        {
+            return snapshot.get(SNAPSHOT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e)
+        {
+            snapshot.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while taking the chunk snapshots of " + getName(), e);
+        } catch (ExecutionException e)
+        {
+            throw new UncheckedExecutionException(e.getCause());
+        } catch (TimeoutException e)
+        {
+            snapshot.cancel(false);
+            throw new UncheckedTimeoutException("The chunk snapshots of " + getName() + " were not taken in time");
+        } finally
+        {
+            task.get().cancel();
+        }
+    }
+
+    private Map<Long, org.bukkit.ChunkSnapshot> takeChunkSnapshots(Vector3i min, Vector3i max, boolean load)
+    {
+        Map<Long, org.bukkit.ChunkSnapshot> snapshots = Maps.newHashMap();
+        org.bukkit.World handle = getThis();
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                if (load || handle.isChunkLoaded(cx, cz))
+                {
+                    snapshots.put(ChunkKeys.toKey(cx, cz), handle.getChunkAt(cx, cz).getChunkSnapshot(false, false, false));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Gets the {@link MaterialState} for a state id as read by {@link #readVolume(Vector3i, Vector3i)}.
+     * 
+     * @param stateId The state id
+     * @return The material state, if the id is known
+     */
+    public Optional<MaterialState> getMaterialState(int stateId)
+    {
+        return Optional.ofNullable(this.states.get(stateId));
+    }
+
+    /**
+     * Gets the table of state ids used by this world.
+     * 
+     * @return The state id table
+     */
+    public MaterialStateTable<BukkitMaterialState> getStateTable()
+    {
+        return this.states;
     }
 
     @SuppressWarnings("deprecation")
@@ -169,12 +489,41 @@ public class BukkitWorld extends AbstractWorld<org.bukkit.World>
         }
         if (material instanceof BukkitMaterialState)
         {
-            BukkitMaterialState bukkitMaterial = (BukkitMaterialState) material;
-            getThis().getBlockAt(x, y, z).setTypeIdAndData(((BukkitMaterial) bukkitMaterial.getType()).getThis().getId(), bukkitMaterial.getState(),
-                    update);
+            int stateId = ((BukkitMaterialState) material).getStateId();
+            getThis().getBlockAt(x, y, z).setTypeIdAndData(stateId >> 4, (byte) (stateId & 15), update);
+            this.dirtyChunks.markAndSchedule(x, y, z);
+            this.metrics.recordWrite(1);
         }
     }
 
+    @Override
+    public BulkWriter createBulkWriter()
+    {
+        return new BukkitBulkWriter(this);
+    }
+
+    @Override
+    public VolumeSource createSnapshot(Vector3i min, Vector3i max)
+    {
+        return new BukkitVolumeSnapshot(this, min, max);
+    }
+
+    @Override
+    public WorldMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Gets the tracker of the chunks which have been changed during the current tick.
+     * 
+     * @return The dirty chunk tracker
+     */
+    public BukkitDirtyChunkTracker getDirtyChunkTracker()
+    {
+        return this.dirtyChunks;
+    }
+
     @Override
     public Optional<Biome> getBiome(int x, int y, int z)
     {
@@ -205,33 +554,98 @@ public class BukkitWorld extends AbstractWorld<org.bukkit.World>
         List<Entity> entities = Lists.newArrayList();
         for (org.bukkit.entity.Entity e : getThis().getEntities())
         {
-            if (this.entitiesCache.containsKey(e))
-            {
-                entities.add(this.entitiesCache.get(e));
-            } else
-            {
-                Entity ent = new BukkitEntity(e, this.worldReg);
-                this.entitiesCache.put(e, ent);
-                entities.add(ent);
-            }
+            entities.add(wrap(e));
         }
         return entities;
     }
 
+    /**
+     * Gets the wrapper for the given bukkit entity, creating and caching it if one does not exist
+     * yet.
+     * 
+     * @param entity The bukkit entity
+     * @return The wrapped entity
+     */
+    public Entity wrap(org.bukkit.entity.Entity entity)
+    {
+        Entity ent = this.entitiesCache.get(entity);
+        if (ent == null)
+        {
+            ent = new BukkitEntity(entity, this.worldReg);
+            this.entitiesCache.put(entity, ent);
+        }
+        return ent;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Only the entity lists of the chunks overlapping the box are visited. This must be called
+     * from the world thread.</p>
+     */
     @Override
-    public Vector3i getChunkSize()
+    public List<Entity> getEntitiesWithin(Vector3d min, Vector3d max)
     {
-        return BukkitChunk.CHUNK_SIZE;
+        return queryEntities(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), null, 0);
     }
 
     /**
-     * Gets a live copy of the entities cache.
+     * {@inheritDoc}
      * 
-     * @return The entities cache
+     * <p>Only the entity lists of the chunks overlapping the sphere are visited. This must be called
+     * from the world thread.</p>
      */
-    protected Map<org.bukkit.entity.Entity, Entity> getEntityCache()
+    @Override
+    public List<Entity> getEntitiesNear(Vector3d center, double radius)
+    {
+        return queryEntities(center.getX() - radius, center.getY() - radius, center.getZ() - radius, center.getX() + radius,
+                center.getY() + radius, center.getZ() + radius, center, radius * radius);
+    }
+
+    private List<Entity> queryEntities(double x0, double y0, double z0, double x1, double y1, double z1, Vector3d center,
+            double radiusSquared)
     {
-        return this.entitiesCache;
+        List<Entity> entities = Lists.newArrayList();
+        Location loc = new Location(getThis(), 0, 0, 0);
+        for (int cx = (int) Math.floor(x0) >> 4; cx <= (int) Math.floor(x1) >> 4; cx++)
+        {
+            for (int cz = (int) Math.floor(z0) >> 4; cz <= (int) Math.floor(z1) >> 4; cz++)
+            {
+                if (!isChunkLoaded(cx, cz))
+                {
+                    continue;
+                }
+                for (org.bukkit.entity.Entity e : getThis().getChunkAt(cx, cz).getEntities())
+                {
+                    e.getLocation(loc);
+                    double x = loc.getX();
+                    double y = loc.getY();
+                    double z = loc.getZ();
+                    if (x < x0 || x > x1 || y < y0 || y > y1 || z < z0 || z > z1)
+                    {
+                        continue;
+                    }
+                    if (center != null)
+                    {
+                        double dx = x - center.getX();
+                        double dy = y - center.getY();
+                        double dz = z - center.getZ();
+                        if (dx * dx + dy * dy + dz * dz > radiusSquared)
+                        {
+                            continue;
+                        }
+                    }
+                    entities.add(wrap(e));
+                }
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    public Vector3i getChunkSize()
+    {
+        return BukkitChunk.CHUNK_SIZE;
     }
 
     @Override
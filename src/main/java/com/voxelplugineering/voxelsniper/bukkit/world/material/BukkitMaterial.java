@@ -27,6 +27,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 import com.voxelplugineering.voxelsniper.registry.WeakWrapper;
+import com.voxelplugineering.voxelsniper.world.material.MaterialProperties;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
 
@@ -104,7 +105,10 @@ public class BukkitMaterial extends WeakWrapper<org.bukkit.Material>implements c
 
     }
 
+    private static final int DATA_VALUES = 256;
+
     private final MaterialStateCache<Byte, BukkitMaterialState> cache;
+    private final int properties;
 
     /**
      * Creates a new {@link BukkitMaterial}.
@@ -114,7 +118,13 @@ public class BukkitMaterial extends WeakWrapper<org.bukkit.Material>implements c
     public BukkitMaterial(org.bukkit.Material value)
     {
         super(value);
-        this.cache = new MaterialStateCache<Byte, BukkitMaterialState>(new MaterialStateBuilder(this));
+        this.cache = new MaterialStateCache<Byte, BukkitMaterialState>(new MaterialStateBuilder(this), DATA_VALUES, (data) -> data & 0xFF,
+                (index) -> (byte) index);
+        this.properties = MaterialProperties.flag(MaterialProperties.GRAVITY, value.hasGravity())
+                | MaterialProperties.flag(MaterialProperties.SOLID, value.isSolid())
+                | MaterialProperties.flag(MaterialProperties.LIQUID, LIQUIDS.contains(value))
+                | MaterialProperties.flag(MaterialProperties.RELIANT_ON_ENVIRONMENT, FALLOFF_MATERIALS.contains(value))
+                | MaterialProperties.flag(MaterialProperties.FLAMMABLE, value.isFlammable());
     }
 
     @Override
@@ -132,31 +142,31 @@ public class BukkitMaterial extends WeakWrapper<org.bukkit.Material>implements c
     @Override
     public boolean isAffectedByGravity()
     {
-        return getThis().hasGravity();
+        return MaterialProperties.has(this.properties, MaterialProperties.GRAVITY);
     }
 
     @Override
     public boolean isSolid()
     {
-        return getThis().isSolid();
+        return MaterialProperties.has(this.properties, MaterialProperties.SOLID);
     }
 
     @Override
     public boolean isLiquid()
     {
-        return LIQUIDS.contains(getThis());
+        return MaterialProperties.has(this.properties, MaterialProperties.LIQUID);
     }
 
     @Override
     public boolean isReliantOnEnvironment()
     {
-        return FALLOFF_MATERIALS.contains(getThis());
+        return MaterialProperties.has(this.properties, MaterialProperties.RELIANT_ON_ENVIRONMENT);
     }
 
     @Override
     public boolean isFlammable()
     {
-        return getThis().isFlammable();
+        return MaterialProperties.has(this.properties, MaterialProperties.FLAMMABLE);
     }
 
     @Override
@@ -168,7 +178,7 @@ public class BukkitMaterial extends WeakWrapper<org.bukkit.Material>implements c
     @Override
     public MaterialState getDefaultState()
     {
-        return this.cache.get((byte) 0);
+        return this.cache.get(0);
     }
 
     /**
@@ -179,7 +189,7 @@ public class BukkitMaterial extends WeakWrapper<org.bukkit.Material>implements c
      */
     public MaterialState getState(byte data)
     {
-        return this.cache.get(data);
+        return this.cache.get(data & 0xFF);
     }
 
     @Override
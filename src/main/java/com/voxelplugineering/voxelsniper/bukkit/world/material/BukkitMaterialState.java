@@ -29,11 +29,13 @@ import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 /**
  * A {@link MaterialState} wrapping a byte data value.
  */
+@SuppressWarnings("deprecation")
 public class BukkitMaterialState implements MaterialState
 {
 
     private final byte state;
     private final Material type;
+    private final int stateId;
 
     /**
      * Creates a new {@link BukkitMaterialState}.
@@ -45,6 +47,7 @@ public class BukkitMaterialState implements MaterialState
     {
         this.type = type;
         this.state = state;
+        this.stateId = type instanceof BukkitMaterial ? getStateId(((BukkitMaterial) type).getThis().getId(), state) : -1;
     }
 
     @Override
@@ -63,6 +66,28 @@ public class BukkitMaterialState implements MaterialState
         return this.state;
     }
 
+    /**
+     * Gets the packed state id of this state, see {@link #getStateId(int, int)}.
+     * 
+     * @return The state id
+     */
+    public int getStateId()
+    {
+        return this.stateId;
+    }
+
+    /**
+     * Packs a block type id and data value into a single state id.
+     * 
+     * @param type The block type id
+     * @param data The data value
+     * @return The state id
+     */
+    public static int getStateId(int type, int data)
+    {
+        return type << 4 | (data & 15);
+    }
+
     @Override
     public boolean equals(Object o)
     {
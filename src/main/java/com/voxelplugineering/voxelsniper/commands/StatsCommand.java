@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.commands;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.service.command.CommandSender;
+import com.voxelplugineering.voxelsniper.util.Context;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A command for displaying the world operation metrics and the state of the change queue, used to
+ * find out whether a lag spike was caused by an edit and which source it came from.
+ */
+public class StatsCommand extends Command
+{
+
+    private static final int TOP_SOURCES = 5;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final BudgetedChangeApplier changes;
+
+    /**
+     * Creates a new {@link StatsCommand}.
+     * 
+     * @param context The context
+     * @param changes The change applier of the platform
+     */
+    public StatsCommand(Context context, BudgetedChangeApplier changes)
+    {
+        super("vsstats", "Shows world edit metrics: /vsstats [reset]", context);
+        setPermissions("voxelsniper.command.stats");
+        this.changes = checkNotNull(changes);
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args)
+    {
+        if (args.length > 0)
+        {
+            if (!"reset".equalsIgnoreCase(args[0]))
+            {
+                return false;
+            }
+            for (WorldMetrics metrics : WorldMetrics.getAll())
+            {
+                metrics.reset();
+            }
+            this.changes.resetMaxTickNanos();
+            sender.sendMessage("VoxelSniper metrics reset.");
+            return true;
+        }
+        sender.sendMessage("Change queue: %d pending, %d applied last tick in %.2fms (max %.2fms), draining %.0f blocks/s",
+                this.changes.getQueueDepth(), this.changes.getLastTickApplied(), this.changes.getLastTickNanos() / NANOS_PER_MILLI,
+                this.changes.getMaxTickNanos() / NANOS_PER_MILLI, this.changes.getDrainRate());
+        Map<String, long[]> sources = Maps.newHashMap();
+        for (WorldMetrics metrics : WorldMetrics.getAll())
+        {
+            long lookups = metrics.getChunkCacheHits() + metrics.getChunkCacheMisses();
+            sender.sendMessage("%s: %d read, %d written, %d chunk loads, chunk cache %d%% of %d, %.2fms applying", metrics.getWorldName(),
+                    metrics.getBlocksRead(), metrics.getBlocksWritten(), metrics.getChunkLoads(),
+                    lookups == 0 ? 0 : metrics.getChunkCacheHits() * 100 / lookups, lookups, metrics.getApplyNanos() / NANOS_PER_MILLI);
+            Map<String, Long> blocks = metrics.getSourceBlocks();
+            for (Map.Entry<String, Long> e : metrics.getSourceNanos().entrySet())
+            {
+                long[] totals = sources.get(e.getKey());
+                if (totals == null)
+                {
+                    totals = new long[2];
+                    sources.put(e.getKey(), totals);
+                }
+                totals[0] += e.getValue();
+                Long count = blocks.get(e.getKey());
+                totals[1] += count == null ? 0 : count;
+            }
+        }
+        if (sources.isEmpty())
+        {
+            return true;
+        }
+        List<Map.Entry<String, long[]>> sorted = Lists.newArrayList(sources.entrySet());
+        Collections.sort(sorted, (a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        sender.sendMessage("Main thread time by source:");
+        for (int i = 0; i < sorted.size() && i < TOP_SOURCES; i++)
+        {
+            Map.Entry<String, long[]> e = sorted.get(i);
+            sender.sendMessage("  %s: %.2fms, %d blocks", e.getKey(), e.getValue()[0] / NANOS_PER_MILLI, e.getValue()[1]);
+        }
+        return true;
+    }
+
+}
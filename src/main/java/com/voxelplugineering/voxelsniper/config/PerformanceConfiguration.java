@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.config;
+
+import com.voxelplugineering.voxelsniper.service.config.ConfigurationContainer;
+
+/**
+ * Configuration for the tuning of world edits across all platforms.
+ */
+@SuppressWarnings("javadoc")
+@ConfigurationContainer(name = "performance")
+public class PerformanceConfiguration
+{
+
+    /**
+     * The time in milliseconds which queued block changes may take to apply on the main thread each
+     * tick, any remaining changes are carried over to the next tick.
+     */
+    public static int changeBudgetMillis = 5;
+
+    /**
+     * The number of formatted chat messages to keep cached, zero disables the cache.
+     */
+    public static int messageCacheSize = 256;
+
+    /**
+     * The number of threads used to evaluate large edits in parallel, zero uses one thread per
+     * available processor.
+     */
+    public static int evaluationThreads = 0;
+
+    /**
+     * The memory in megabytes the undo history of each player may hold before older operations are
+     * spilled to disk.
+     */
+    public static int historyMemoryMegabytes = 32;
+
+    /**
+     * The number of operations kept in the undo history of each player.
+     */
+    public static int historyMaxRecords = 32;
+
+    /**
+     * Whether world and change queue metrics are published as JMX beans.
+     */
+    public static boolean metricsJmx = true;
+
+    /**
+     * The maximum number of chunks the region of a single operation may cover to be preloaded,
+     * larger operations are refused.
+     */
+    public static int preloadMaxChunks = 1024;
+
+    /**
+     * The number of chunk loads which may be requested each tick while preloading operations.
+     */
+    public static int preloadChunksPerTick = 8;
+
+    /**
+     * The time in milliseconds which may be spent requesting chunk loads each tick while
+     * preloading operations. On platforms without asynchronous chunk loading this bounds the time
+     * spent loading and generating chunks on the main thread.
+     */
+    public static int preloadMillisPerTick = 10;
+
+    /**
+     * The time in milliseconds an operation may wait for its chunks to be preloaded before it is
+     * abandoned.
+     */
+    public static int preloadTimeoutMillis = 30000;
+
+    /**
+     * Whether reading a block or chunk on the main thread may load or generate the chunk. When
+     * disabled reads of unloaded chunks return nothing on every thread, and operations should be
+     * preloaded with a {@link com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloader}.
+     */
+    public static boolean loadChunksOnRead = true;
+
+}
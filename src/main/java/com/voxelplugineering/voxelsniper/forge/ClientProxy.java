@@ -106,7 +106,7 @@ public class ClientProxy extends CommonProxy
             {
                 return Optional.empty();
             }
-            return Optional.of(new Pair<net.minecraft.world.World, World>(w, new ForgeWorld(this.context, w)));
+            return Optional.of(new Pair<net.minecraft.world.World, World>(w, new ForgeWorld(this.context, w, getStateTable())));
         }
 
     }
@@ -27,6 +27,7 @@ import static net.minecraftforge.fml.common.registry.EntityRegistry.*;
 
 import com.google.common.base.Function;
 import com.google.common.collect.BiMap;
+import com.voxelplugineering.voxelsniper.commands.StatsCommand;
 import com.voxelplugineering.voxelsniper.config.BaseConfiguration;
 import com.voxelplugineering.voxelsniper.config.VoxelSniperConfiguration;
 import com.voxelplugineering.voxelsniper.forge.entity.ForgeEntityType;
@@ -55,21 +56,29 @@ import com.voxelplugineering.voxelsniper.service.platform.PlatformProxy;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistryService;
 import com.voxelplugineering.voxelsniper.service.registry.EntityRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.HandleIndex;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistryService;
 import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
 import com.voxelplugineering.voxelsniper.service.text.TextFormatParser;
 import com.voxelplugineering.voxelsniper.util.Context;
-import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloader;
+import com.voxelplugineering.voxelsniper.world.history.HistoryStore;
 import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import com.voxelplugineering.voxelsniper.world.volume.ParallelVolumeEvaluator;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.registry.EntityRegistry.EntityRegistration;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.Optional;
@@ -81,6 +90,19 @@ import java.util.Optional;
 public abstract class CommonProxy
 {
 
+    private static final int MAX_STATE_ID = 4096 << 4;
+
+    private final MaterialStateTable<ForgeMaterialState> states = new MaterialStateTable<ForgeMaterialState>(() -> MAX_STATE_ID,
+            this::resolveState, ForgeMaterialState::getStateId);
+    private MaterialRegistry<net.minecraft.block.Block> materials;
+    private MaterialStateCache<IBlockState, ForgeMaterialState> cache;
+    private final BudgetedChangeApplier changes = new BudgetedChangeApplier();
+    private final ChunkPreloader preloader = new ChunkPreloader();
+    private final ParallelVolumeEvaluator evaluator = new ParallelVolumeEvaluator();
+    private HistoryStore history;
+    private final HandleIndex<EntityPlayer> players = new HandleIndex<EntityPlayer>();
+    private final HandleIndex<WorldServer> worlds = new HandleIndex<WorldServer>();
+
     @InitHook(target = AnnotationScanner.class)
     public void registerScannerExclusions(Context context, AnnotationScanner scanner)
     {
@@ -119,14 +141,54 @@ public abstract class CommonProxy
     public void registerMaterials(Context context, MaterialRegistry<net.minecraft.block.Block> reg)
     {
         MaterialStateBuilder builder = new MaterialStateBuilder(reg);
-        MaterialStateCache<IBlockState, ForgeMaterialState> cache = new MaterialStateCache<IBlockState, ForgeMaterialState>(builder);
+        // index states by the same id the chunk section storage uses
+        this.cache = new MaterialStateCache<IBlockState, ForgeMaterialState>(builder, MAX_STATE_ID, (state) -> Block.BLOCK_STATE_IDS.get(state),
+                (id) -> Block.BLOCK_STATE_IDS.getByValue(id));
+        this.materials = reg;
+        rebuildStateTable();
+    }
+
+    /**
+     * Registers any blocks which do not yet have a material and rebuilds the table of state ids.
+     * This should be called again whenever block ids may have changed.
+     */
+    public void rebuildStateTable()
+    {
+        if (this.materials == null)
+        {
+            return;
+        }
+        // the dense index of the cache is keyed by state id, so is stale after a remap
+        this.cache.clear();
         for (ResourceLocation rs : Block.blockRegistry.getKeys())
         {
-            Block block = Block.blockRegistry.getObject(rs);
-            Material material = new ForgeMaterial(block, cache);
-            reg.registerMaterial((!rs.getResourceDomain().equals("minecraft") ? rs.getResourceDomain() + ":" : "") + rs.getResourcePath(), block,
-                    material);
+            String name = (!rs.getResourceDomain().equals("minecraft") ? rs.getResourceDomain() + ":" : "") + rs.getResourcePath();
+            if (!this.materials.getMaterial(name).isPresent())
+            {
+                Block block = Block.blockRegistry.getObject(rs);
+                this.materials.registerMaterial(name, block, new ForgeMaterial(block, this.cache));
+            }
+        }
+        this.states.rebuild();
+    }
+
+    private ForgeMaterialState resolveState(int id)
+    {
+        if (this.cache == null || Block.BLOCK_STATE_IDS.getByValue(id) == null)
+        {
+            return null;
         }
+        return this.cache.get(id);
+    }
+
+    /**
+     * Gets the table of state ids shared by all worlds.
+     * 
+     * @return The state id table
+     */
+    protected MaterialStateTable<ForgeMaterialState> getStateTable()
+    {
+        return this.states;
     }
 
     @Builder(target = PermissionProxy.class,
@@ -139,14 +201,35 @@ public abstract class CommonProxy
     @InitHook(target = EventBus.class)
     public void registerEventProxies(Context context, EventBus service)
     {
-        ForgeEventProxy events = new ForgeEventProxy(context);
+        ForgeEventProxy events = new ForgeEventProxy(context, this.players, this.worlds);
         MinecraftForge.EVENT_BUS.register(events);
     }
 
+    /**
+     * Gets the index of online players, maintained from login and logout events.
+     * 
+     * @return The player index
+     */
+    public HandleIndex<EntityPlayer> getPlayerIndex()
+    {
+        return this.players;
+    }
+
+    /**
+     * Gets the index of loaded worlds by world name, maintained from world load and unload events.
+     * 
+     * @return The world index
+     */
+    public HandleIndex<WorldServer> getWorldIndex()
+    {
+        return this.worlds;
+    }
+
     @InitHook(target = CommandHandler.class)
     public void registerCommands(Context context, CommandHandler cmd)
     {
         cmd.setRegistrar(new ForgeCommandRegistrar(context));
+        cmd.registerCommand(new StatsCommand(context, this.changes));
     }
 
     @Builder(target = Scheduler.class,
@@ -156,6 +239,65 @@ public abstract class CommonProxy
         return new ForgeSchedulerService(context);
     }
 
+    @InitHook(target = Scheduler.class)
+    public void startChangeApplier(Context context, Scheduler service)
+    {
+        this.changes.start(service);
+    }
+
+    /**
+     * Gets the applier which writes queued block changes on the main thread each tick.
+     * 
+     * @return The change applier
+     */
+    public BudgetedChangeApplier getChangeApplier()
+    {
+        return this.changes;
+    }
+
+    @InitHook(target = Scheduler.class)
+    public void startChunkPreloader(Context context, Scheduler service)
+    {
+        this.preloader.start(service);
+    }
+
+    /**
+     * Gets the preloader which loads the chunks of operations before they are started.
+     * 
+     * @return The chunk preloader
+     */
+    public ChunkPreloader getChunkPreloader()
+    {
+        return this.preloader;
+    }
+
+    /**
+     * Gets the evaluator which computes the changes of operations over world snapshots on worker
+     * threads. Its threads are stopped when the plugin is disabled.
+     * 
+     * @return The volume evaluator
+     */
+    public ParallelVolumeEvaluator getVolumeEvaluator()
+    {
+        return this.evaluator;
+    }
+
+    @InitHook(target = PlatformProxy.class)
+    public void createHistoryStore(Context context, PlatformProxy proxy)
+    {
+        this.history = new HistoryStore(new File(proxy.getRoot(), "history"), this.changes);
+    }
+
+    /**
+     * Gets the store which holds the undo history of each player.
+     * 
+     * @return The history store
+     */
+    public HistoryStore getHistoryStore()
+    {
+        return this.history;
+    }
+
     @Builder(target = BiomeRegistry.class,
             priority = ServicePriorities.BIOME_REGISTRY_PRIORITY)
     public BiomeRegistry<?> getBiomeRegistry(Context context)
@@ -94,20 +94,25 @@ public class ServerProxy extends CommonProxy
         @Override
         public Optional<Pair<net.minecraft.world.World, World>> get(String name)
         {
-            net.minecraft.world.WorldServer w = null;
-            for (net.minecraft.world.WorldServer ws : MinecraftServer.getServer().worldServers)
+            net.minecraft.world.WorldServer w = getWorldIndex().get(name).orElse(null);
+            if (w == null)
             {
-                if (ws.getWorldInfo().getWorldName().equals(name))
+                // worlds loaded before the event handlers were registered are indexed on first use
+                for (net.minecraft.world.WorldServer ws : MinecraftServer.getServer().worldServers)
                 {
-                    w = ws;
-                    break;
+                    if (ws.getWorldInfo().getWorldName().equals(name))
+                    {
+                        w = ws;
+                        getWorldIndex().add(name, null, ws);
+                        break;
+                    }
                 }
             }
             if (w == null)
             {
                 return Optional.empty();
             }
-            return Optional.of(new Pair<net.minecraft.world.World, World>(w, new ForgeWorld(this.context, w)));
+            return Optional.of(new Pair<net.minecraft.world.World, World>(w, new ForgeWorld(this.context, w, getStateTable())));
         }
     }
 
@@ -127,14 +132,19 @@ public class ServerProxy extends CommonProxy
         @Override
         public Optional<Pair<net.minecraft.entity.player.EntityPlayer, Player>> get(String name)
         {
-            net.minecraft.entity.player.EntityPlayer player = null;
-            for (Object e : MinecraftServer.getServer().getConfigurationManager().playerEntityList)
+            net.minecraft.entity.player.EntityPlayer player = getPlayerIndex().get(name).orElse(null);
+            if (player == null)
             {
-                net.minecraft.entity.player.EntityPlayer entity = (net.minecraft.entity.player.EntityPlayer) e;
-                if (entity.getName().equals(name))
+                // players who joined before the event handlers were registered are indexed on first use
+                for (Object e : MinecraftServer.getServer().getConfigurationManager().playerEntityList)
                 {
-                    player = entity;
-                    break;
+                    net.minecraft.entity.player.EntityPlayer entity = (net.minecraft.entity.player.EntityPlayer) e;
+                    if (entity.getName().equals(name))
+                    {
+                        player = entity;
+                        getPlayerIndex().add(name, entity.getUniqueID(), entity);
+                        break;
+                    }
                 }
             }
             if (player == null)
@@ -37,6 +37,7 @@ import net.minecraftforge.fml.common.Mod.Instance;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLModDisabledEvent;
+import net.minecraftforge.fml.common.event.FMLModIdMappingEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLServerAboutToStartEvent;
 import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
@@ -138,6 +139,20 @@ public class VoxelSniperForge
         }
     }
 
+    /**
+     * Block ids have been remapped, rebuilds the table of state ids.
+     * 
+     * @param event The event
+     */
+    @EventHandler
+    public void onIdMapping(FMLModIdMappingEvent event)
+    {
+        if (Gunsmith.getServiceManager().isRunning() && !SpongeDetector.isSponge())
+        {
+            proxy.rebuildStateTable();
+        }
+    }
+
     /**
      * If sniper is disabled perform shutdown sequences.
      * 
@@ -150,6 +165,10 @@ public class VoxelSniperForge
         {
             Gunsmith.getServiceManager().shutdown();
         }
+        if (proxy != null)
+        {
+            proxy.getVolumeEvaluator().shutdown();
+        }
     }
 
     /**
@@ -164,6 +183,10 @@ public class VoxelSniperForge
         {
             Gunsmith.getServiceManager().shutdown();
         }
+        if (proxy != null)
+        {
+            proxy.getVolumeEvaluator().shutdown();
+        }
     }
 
     /**
@@ -38,6 +38,7 @@ public class ForgeConfiguration
 
     public static int primaryMaterial = Item.getIdFromItem(Items.arrow);
     public static int altMaterial = Item.getIdFromItem(Items.gunpowder);
+    public static int asyncThreads = 4;
 
     @ConfigValue(hidden = true)
     public static String metricsConf = "PluginMetrics/config.yml";
@@ -23,6 +23,8 @@
  */
 package com.voxelplugineering.voxelsniper.forge.event.handler;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.voxelplugineering.voxelsniper.brush.BrushAction;
 import com.voxelplugineering.voxelsniper.entity.Player;
 import com.voxelplugineering.voxelsniper.event.SnipeEvent;
@@ -30,12 +32,22 @@ import com.voxelplugineering.voxelsniper.event.SniperEvent.SniperCreateEvent;
 import com.voxelplugineering.voxelsniper.event.SniperEvent.SniperDestroyEvent;
 import com.voxelplugineering.voxelsniper.forge.config.ForgeConfiguration;
 import com.voxelplugineering.voxelsniper.forge.service.ForgeSchedulerService;
+import com.voxelplugineering.voxelsniper.forge.world.ForgeWorld;
 import com.voxelplugineering.voxelsniper.service.eventbus.EventBus;
+import com.voxelplugineering.voxelsniper.service.registry.HandleIndex;
 import com.voxelplugineering.voxelsniper.service.registry.PlayerRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
 import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
 import com.voxelplugineering.voxelsniper.util.Context;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.Item;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.storage.DerivedWorldInfo;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
@@ -51,18 +63,26 @@ public class ForgeEventProxy
     private final PlayerRegistry<net.minecraft.entity.player.EntityPlayer> pr;
     private final EventBus bus;
     private final ForgeSchedulerService sched;
+    private final HandleIndex<EntityPlayer> players;
+    private final WorldRegistry<net.minecraft.world.World> worldRegistry;
+    private final HandleIndex<WorldServer> worlds;
 
     /**
      * Creates a new {@link ForgeEventProxy}.
      * 
      * @param context The context
+     * @param players The index of online players to maintain
+     * @param worlds The index of loaded worlds to maintain
      */
     @SuppressWarnings({ "unchecked" })
-    public ForgeEventProxy(Context context)
+    public ForgeEventProxy(Context context, HandleIndex<EntityPlayer> players, HandleIndex<WorldServer> worlds)
     {
+        this.players = checkNotNull(players);
+        this.worlds = checkNotNull(worlds);
         this.pr = context.getRequired(PlayerRegistry.class);
         this.bus = context.getRequired(EventBus.class);
         this.sched = (ForgeSchedulerService) context.getRequired(Scheduler.class);
+        this.worldRegistry = context.getRequired(WorldRegistry.class);
     }
 
     /**
@@ -73,6 +93,7 @@ public class ForgeEventProxy
     @SubscribeEvent
     public void onSpawn(PlayerEvent.PlayerLoggedInEvent event)
     {
+        this.players.add(event.player.getName(), event.player.getUniqueID(), event.player);
         Optional<Player> s = this.pr.getPlayer(event.player.getName());
         if (s.isPresent())
         {
@@ -95,6 +116,116 @@ public class ForgeEventProxy
             SniperDestroyEvent sde = new SniperDestroyEvent(s.get());
             this.bus.post(sde);
         }
+        // removed by key as the entity may have been replaced since it was indexed
+        this.players.remove(event.player.getName(), event.player.getUniqueID());
+    }
+
+    /**
+     * The player respawn event, indexes the new entity which replaces the player's old one.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onRespawn(PlayerEvent.PlayerRespawnEvent event)
+    {
+        this.players.add(event.player.getName(), event.player.getUniqueID(), event.player);
+    }
+
+    /**
+     * The player changed dimension event, indexes the player's entity in case it was replaced.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onChangeDimension(PlayerEvent.PlayerChangedDimensionEvent event)
+    {
+        this.players.add(event.player.getName(), event.player.getUniqueID(), event.player);
+    }
+
+    /**
+     * The world load event, adds the world to the world index. Dimensions which share the world
+     * info of another world also share its name, the name is left to the world which owns it.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event)
+    {
+        if (event.world instanceof WorldServer && !(event.world.getWorldInfo() instanceof DerivedWorldInfo))
+        {
+            this.worlds.add(event.world.getWorldInfo().getWorldName(), null, (WorldServer) event.world);
+        }
+    }
+
+    /**
+     * The world unload event, removes the world from the world index and its metrics from
+     * reporting.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event)
+    {
+        Optional<ForgeWorld> world = getWorld(event.world);
+        if (world.isPresent())
+        {
+            WorldMetrics.remove(world.get().getMetrics());
+        }
+        if (event.world instanceof WorldServer)
+        {
+            this.worlds.remove(event.world.getWorldInfo().getWorldName(), null, (WorldServer) event.world);
+        }
+    }
+
+    /**
+     * The chunk load event, records the load in the metrics of the world.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event)
+    {
+        Optional<ForgeWorld> world = getWorld(event.world);
+        if (world.isPresent())
+        {
+            world.get().getMetrics().recordChunkLoad();
+        }
+    }
+
+    /**
+     * The chunk unload event, releases the wrapper of the chunk held by the world.
+     * 
+     * @param event The event
+     */
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event)
+    {
+        Optional<ForgeWorld> world = getWorld(event.world);
+        if (world.isPresent())
+        {
+            world.get().onChunkUnload(event.getChunk().xPosition, event.getChunk().zPosition);
+        }
+    }
+
+    /**
+     * Gets the registered world wrapping the given handle. Every dimension shares the name of the
+     * world info it derives from, so the world found by name is checked to wrap this handle.
+     * 
+     * @param handle The world handle
+     * @return The world, if registered
+     */
+    private Optional<ForgeWorld> getWorld(net.minecraft.world.World handle)
+    {
+        if (!(handle instanceof WorldServer))
+        {
+            return Optional.empty();
+        }
+        Optional<World> world = this.worldRegistry.getWorld(handle.getWorldInfo().getWorldName());
+        if (world.isPresent() && world.get() instanceof ForgeWorld && ((ForgeWorld) world.get()).getThis() == handle)
+        {
+            return Optional.of((ForgeWorld) world.get());
+        }
+        return Optional.empty();
     }
 
     /**
@@ -24,6 +24,8 @@
 package com.voxelplugineering.voxelsniper.forge.service;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.voxelplugineering.voxelsniper.forge.config.ForgeConfiguration;
 import com.voxelplugineering.voxelsniper.forge.service.scheduler.ForgeTask;
 import com.voxelplugineering.voxelsniper.forge.service.scheduler.ForgeTaskAsync;
 import com.voxelplugineering.voxelsniper.service.AbstractService;
@@ -31,20 +33,21 @@ import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
 import com.voxelplugineering.voxelsniper.service.scheduler.Task;
 import com.voxelplugineering.voxelsniper.util.Context;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A scheduler proxy for forge, works off the Tick Event from forge.
+ * A scheduler proxy for forge, synchronous tasks work off the Tick Event from forge while
+ * asynchronous tasks are run at a fixed rate on a shared pool of daemon threads.
  */
 public class ForgeSchedulerService extends AbstractService implements Scheduler
 {
 
     private List<ForgeTask> tasks;
     private List<ForgeTaskAsync> asyncTasks;
-    private ExecutorService exec;
+    private ScheduledThreadPoolExecutor exec;
 
     /**
      * Creates a new {@link ForgeSchedulerService}.
@@ -52,20 +55,24 @@ public class ForgeSchedulerService extends AbstractService implements Scheduler
     public ForgeSchedulerService(Context context)
     {
         super(context);
-        this.exec = java.util.concurrent.Executors.newCachedThreadPool();
     }
 
     @Override
     public void _init()
     {
-        this.tasks = Lists.newArrayList();
-        this.asyncTasks = Lists.newArrayList();
+        this.tasks = Lists.newCopyOnWriteArrayList();
+        this.asyncTasks = Lists.newCopyOnWriteArrayList();
+        this.exec = new ScheduledThreadPoolExecutor(Math.max(1, ForgeConfiguration.asyncThreads),
+                new ThreadFactoryBuilder().setNameFormat("VoxelSniper-Async-%d").setDaemon(true).build());
+        this.exec.setRemoveOnCancelPolicy(true);
     }
 
     @Override
     protected void _shutdown()
     {
         stopAllTasks();
+        this.exec.shutdownNow();
+        this.exec = null;
         this.tasks = null;
         this.asyncTasks = null;
     }
@@ -82,8 +89,8 @@ public class ForgeSchedulerService extends AbstractService implements Scheduler
     public Optional<ForgeTaskAsync> startAsynchronousTask(Runnable runnable, int interval)
     {
         ForgeTaskAsync task = new ForgeTaskAsync(runnable, interval, this);
-        this.exec.execute(task);
         this.asyncTasks.add(task);
+        task.setFuture(this.exec.scheduleAtFixedRate(task, 0, Math.max(1, interval), TimeUnit.MILLISECONDS));
         return Optional.of(task);
     }
 
@@ -91,9 +98,8 @@ public class ForgeSchedulerService extends AbstractService implements Scheduler
     public void stopAllTasks()
     {
         this.tasks.clear();
-        for (Iterator<ForgeTaskAsync> it = this.asyncTasks.iterator(); it.hasNext();)
+        for (ForgeTaskAsync task : this.asyncTasks)
         {
-            ForgeTaskAsync task = it.next();
             task.cancel();
         }
     }
@@ -119,12 +125,11 @@ public class ForgeSchedulerService extends AbstractService implements Scheduler
         {
             task.tick();
         }
-        for (Iterator<ForgeTaskAsync> it = this.asyncTasks.iterator(); it.hasNext();)
+        for (ForgeTaskAsync task : this.asyncTasks)
         {
-            ForgeTaskAsync task = it.next();
             if (!task.isRunning())
             {
-                it.remove();
+                this.asyncTasks.remove(task);
             }
         }
     }
@@ -63,12 +63,12 @@ public class ForgeTask extends Task
      */
     public boolean shouldTick()
     {
-        return this.ticks * MILLISECONDS_PER_TICK > this.getInterval();
+        return this.ticks * MILLISECONDS_PER_TICK >= this.getInterval();
     }
 
     /**
-     * Executes this task if the number of elapsed ticks is greater than the interval number of
-     * times. Please note that this will not attempt to stack multiple ticks in the event of server
+     * Executes this task once the elapsed ticks cover the interval, so a task with a 50ms interval
+     * runs every tick. Please note that this will not attempt to stack multiple ticks in the event of server
      * lag causing a larger effective delta time as this would only compound any lag experienced.
      */
     public void tick()
@@ -27,14 +27,24 @@ import com.voxelplugineering.voxelsniper.GunsmithLogger;
 import com.voxelplugineering.voxelsniper.forge.service.ForgeSchedulerService;
 import com.voxelplugineering.voxelsniper.service.scheduler.Task;
 
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * An asynchronous task.
  */
 public class ForgeTaskAsync extends Task implements Runnable
 {
 
-    private boolean running;
-    private ForgeSchedulerService scheduler;
+    private final ForgeSchedulerService scheduler;
+    private final LongAdder runs;
+    private final LongAdder overruns;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+    private volatile ScheduledFuture<?> future;
+    private volatile boolean running;
 
     /**
      * Creates a new {@link ForgeTaskAsync}.
@@ -46,36 +56,67 @@ public class ForgeTaskAsync extends Task implements Runnable
     public ForgeTaskAsync(Runnable runnable, int interval, ForgeSchedulerService scheduler)
     {
         super(runnable, interval);
+        this.scheduler = scheduler;
+        this.runs = new LongAdder();
+        this.overruns = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new AtomicLong();
         this.running = true;
     }
 
+    /**
+     * Sets the future of this task's scheduled execution, used to cancel it.
+     * 
+     * @param future The future
+     */
+    public void setFuture(ScheduledFuture<?> future)
+    {
+        this.future = future;
+        if (!this.running)
+        {
+            future.cancel(false);
+        }
+    }
+
     @Override
     public void cancel()
     {
         this.running = false;
+        ScheduledFuture<?> f = this.future;
+        if (f != null)
+        {
+            f.cancel(false);
+        }
         this.scheduler.cancel(this);
     }
 
     /**
-     * Starts the task executing on the current thread, recommend call from a spawned thread.
+     * Executes a single run of this task, recording its execution time. A run which takes longer
+     * than the task's interval is counted as an overrun.
      */
     @Override
     public void run()
     {
-        long start = 0;
-        long delta = 0;
-        while (this.running)
+        if (!this.running)
+        {
+            return;
+        }
+        long start = System.nanoTime();
+        try
         {
-            start = System.currentTimeMillis();
             this.getRunnable().run();
-            delta = System.currentTimeMillis() - start;
-            try
-            {
-                Thread.sleep(this.getInterval() - delta);
-            } catch (InterruptedException e)
+        } catch (Exception e)
+        {
+            GunsmithLogger.getLogger().error(e, "Error executing asynchronous task");
+        } finally
+        {
+            long delta = System.nanoTime() - start;
+            this.runs.increment();
+            this.totalNanos.add(delta);
+            this.maxNanos.accumulateAndGet(delta, Math::max);
+            if (delta > TimeUnit.MILLISECONDS.toNanos(this.getInterval()))
             {
-                GunsmithLogger.getLogger().warn("Asynchronous task interrupted, stopping.");
-                this.running = false;
+                this.overruns.increment();
             }
         }
     }
@@ -90,4 +131,44 @@ public class ForgeTaskAsync extends Task implements Runnable
         return this.running;
     }
 
+    /**
+     * Gets the number of times this task has executed.
+     * 
+     * @return The run count
+     */
+    public long getRunCount()
+    {
+        return this.runs.sum();
+    }
+
+    /**
+     * Gets the number of executions of this task which took longer than its interval.
+     * 
+     * @return The overrun count
+     */
+    public long getOverrunCount()
+    {
+        return this.overruns.sum();
+    }
+
+    /**
+     * Gets the total time spent executing this task.
+     * 
+     * @return The total execution time, in nanoseconds
+     */
+    public long getTotalExecutionNanos()
+    {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * Gets the longest single execution of this task.
+     * 
+     * @return The maximum execution time, in nanoseconds
+     */
+    public long getMaxExecutionNanos()
+    {
+        return this.maxNanos.get();
+    }
+
 }
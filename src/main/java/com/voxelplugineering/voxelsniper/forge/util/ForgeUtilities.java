@@ -26,6 +26,13 @@ package com.voxelplugineering.voxelsniper.forge.util;
 import com.google.common.collect.MapMaker;
 import com.voxelplugineering.voxelsniper.entity.EntityType;
 import com.voxelplugineering.voxelsniper.forge.entity.ForgeEntityType;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
 
 import java.util.Map;
 
@@ -54,4 +61,41 @@ public class ForgeUtilities
         return type;
     }
 
+    /**
+     * Sends the full contents of the given chunk, including its tile entities, to every player
+     * which currently has it loaded.
+     * 
+     * @param world The world containing the chunk
+     * @param chunk The chunk to send
+     */
+    public static void resendChunk(WorldServer world, Chunk chunk)
+    {
+        Packet<?> packet = null;
+        for (EntityPlayer e : world.playerEntities)
+        {
+            if (!(e instanceof EntityPlayerMP))
+            {
+                continue;
+            }
+            EntityPlayerMP player = (EntityPlayerMP) e;
+            if (!world.getPlayerManager().isPlayerWatchingChunk(player, chunk.xPosition, chunk.zPosition))
+            {
+                continue;
+            }
+            if (packet == null)
+            {
+                packet = new S21PacketChunkData(chunk, true, 65535);
+            }
+            player.playerNetServerHandler.sendPacket(packet);
+            for (TileEntity tile : chunk.getTileEntityMap().values())
+            {
+                Packet<?> description = tile.getDescriptionPacket();
+                if (description != null)
+                {
+                    player.playerNetServerHandler.sendPacket(description);
+                }
+            }
+        }
+    }
+
 }
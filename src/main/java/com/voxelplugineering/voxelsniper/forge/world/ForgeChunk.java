@@ -25,8 +25,7 @@ package com.voxelplugineering.voxelsniper.forge.world;
 
 import com.google.common.collect.Lists;
 import com.voxelplugineering.voxelsniper.entity.Entity;
-import com.voxelplugineering.voxelsniper.forge.entity.ForgeEntity;
-import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterial;
+import com.voxelplugineering.voxelsniper.forge.util.ForgeUtilities;
 import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.math.Vector3i;
@@ -34,12 +33,10 @@ import com.voxelplugineering.voxelsniper.world.AbstractChunk;
 import com.voxelplugineering.voxelsniper.world.CommonBlock;
 import com.voxelplugineering.voxelsniper.world.CommonLocation;
 import com.voxelplugineering.voxelsniper.world.World;
-import com.voxelplugineering.voxelsniper.world.material.Material;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.BlockPos;
-import net.minecraft.util.ResourceLocation;
 
 import java.util.Iterator;
 import java.util.List;
@@ -79,14 +76,11 @@ public class ForgeChunk extends AbstractChunk<net.minecraft.world.chunk.Chunk>
             return Optional.empty();
         }
         IBlockState b = getThis().getBlockState(new BlockPos(x, y, z));
-        ResourceLocation rs = Block.blockRegistry.getNameForObject(b.getBlock());
-        Optional<Material> m = this.getWorld().getMaterialRegistry()
-                .getMaterial((!rs.getResourceDomain().equals("minecraft") ? rs.getResourceDomain() + ":" : "") + rs.getResourcePath());
-        if (!m.isPresent())
+        MaterialState ms = ((ForgeWorld) this.getWorld()).getStateTable().get(Block.BLOCK_STATE_IDS.get(b));
+        if (ms == null)
         {
             return Optional.empty();
         }
-        MaterialState ms = ((ForgeMaterial) m.get()).getState(b);
         CommonLocation l = new CommonLocation(this.getWorld(), x + getThis().xPosition * 16, y, z + getThis().zPosition * 16);
         return Optional.<com.voxelplugineering.voxelsniper.world.Block>of(new CommonBlock(l, ms));
     }
@@ -110,16 +104,7 @@ public class ForgeChunk extends AbstractChunk<net.minecraft.world.chunk.Chunk>
         {
             for (Iterator<?> it = entityLists[i].iterator(); it.hasNext();)
             {
-                net.minecraft.entity.Entity e = (net.minecraft.entity.Entity) it.next();
-                if (((ForgeWorld) this.getWorld()).entitiesCache.containsKey(e))
-                {
-                    entities.add(((ForgeWorld) this.getWorld()).entitiesCache.get(e));
-                } else
-                {
-                    Entity ent = new ForgeEntity(e, this.context);
-                    ((ForgeWorld) this.getWorld()).entitiesCache.put(e, ent);
-                    entities.add(ent);
-                }
+                entities.add(((ForgeWorld) this.getWorld()).wrap((net.minecraft.entity.Entity) it.next()));
             }
         }
         return entities;
@@ -128,20 +113,15 @@ public class ForgeChunk extends AbstractChunk<net.minecraft.world.chunk.Chunk>
     /**
      * {@inheritDoc}
      * 
-     * <p> Note: this refresh method is the bukkit method for refreshing chunks. </p>
+     * <p> Note: this sends the whole chunk to every player watching it. </p>
      */
     @Override
     public void refreshChunk()
     {
-        int px = getThis().xPosition << 4;
-        int pz = getThis().zPosition << 4;
-
-        int height = 16;
-        for (int idx = 0; idx < 64; idx++)
-        {
-            ((ForgeWorld) this.getWorld()).getThis().notifyLightSet(new net.minecraft.util.BlockPos(px + idx / height, idx % height * 16, pz));
-        }
-        ((ForgeWorld) this.getWorld()).getThis().notifyLightSet(new net.minecraft.util.BlockPos(px + 15, height * 16 - 1, pz + 15));
+        ForgeWorld world = (ForgeWorld) this.getWorld();
+        // apply any deferred lighting so that the resent chunk is lit correctly
+        world.getLightingEngine().flush();
+        ForgeUtilities.resendChunk(world.getThis(), getThis());
     }
 
     @Override
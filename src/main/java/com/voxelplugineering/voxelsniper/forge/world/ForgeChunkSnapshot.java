@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.forge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * An immutable copy of the block state ids, biomes and height map of a single forge chunk. The
+ * copy must be taken on the server thread but may then be read freely from any thread.
+ */
+public class ForgeChunkSnapshot
+{
+
+    private static final int SECTIONS = 16;
+
+    private final int x;
+    private final int z;
+    private final char[][] sections;
+    private final byte[] biomes;
+    private final int[] heightMap;
+
+    /**
+     * Creates a new {@link ForgeChunkSnapshot} copying the current contents of the given chunk.
+     * This must be called from the server thread.
+     * 
+     * @param chunk The chunk to copy
+     */
+    public ForgeChunkSnapshot(Chunk chunk)
+    {
+        checkNotNull(chunk);
+        this.x = chunk.xPosition;
+        this.z = chunk.zPosition;
+        this.sections = new char[SECTIONS][];
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        for (int i = 0; i < SECTIONS; i++)
+        {
+            // sections which are missing or entirely air are left null
+            if (storage[i] != null && !storage[i].isEmpty())
+            {
+                this.sections[i] = storage[i].getData().clone();
+            }
+        }
+        this.biomes = chunk.getBiomeArray().clone();
+        this.heightMap = chunk.getHeightMap().clone();
+    }
+
+    /**
+     * Gets the x coordinate of the copied chunk.
+     * 
+     * @return The chunk x coordinate
+     */
+    public int getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * Gets the z coordinate of the copied chunk.
+     * 
+     * @return The chunk z coordinate
+     */
+    public int getZ()
+    {
+        return this.z;
+    }
+
+    /**
+     * Gets the state id at the given position relative to the chunk, as used by
+     * {@link ForgeWorld#getStateTable()}. Positions outside of the world height are air.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param y The y position
+     * @param z The z position, from 0 to 15
+     * @return The state id
+     */
+    public int getStateId(int x, int y, int z)
+    {
+        if (y < 0 || y >= SECTIONS << 4)
+        {
+            return 0;
+        }
+        char[] data = this.sections[y >> 4];
+        return data == null ? 0 : data[(y & 15) << 8 | (z & 15) << 4 | (x & 15)];
+    }
+
+    /**
+     * Gets whether the section with the given index contained no blocks other than air.
+     * 
+     * @param section The section index, from 0 to 15
+     * @return Is the section empty
+     */
+    public boolean isSectionEmpty(int section)
+    {
+        return this.sections[section] == null;
+    }
+
+    /**
+     * Gets the biome id of the given column relative to the chunk.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param z The z position, from 0 to 15
+     * @return The biome id, or 255 if the biome had not been generated
+     */
+    public int getBiomeId(int x, int z)
+    {
+        return this.biomes[(z & 15) << 4 | (x & 15)] & 255;
+    }
+
+    /**
+     * Gets the height map value of the given column relative to the chunk, which is the lowest y
+     * position at which the column is fully lit by the sky.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param z The z position, from 0 to 15
+     * @return The height
+     */
+    public int getHeight(int x, int z)
+    {
+        return this.heightMap[(z & 15) << 4 | (x & 15)];
+    }
+
+}
@@ -0,0 +1,473 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.forge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.forge.util.ForgeUtilities;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Defers the lighting work for blocks written directly into chunk section storage and performs it
+ * once for a whole batch of changes.
+ * 
+ * <p>When flushed the height of each edited column is recomputed once and the sky light of the
+ * part of the column which moved into or out of the sky is written directly, as the chunk itself
+ * does when relighting a column. Light is then only flood filled from the boundary of the edited
+ * region: from the changed range of the columns on the edge of the set of columns whose height
+ * changed, and from each edited position which is not surrounded by other edited positions.
+ * Positions inside the region are reached by the flood fills spreading in from its boundary, and
+ * positions whose light is already correct without a flood fill, such as dark positions which
+ * became opaque, are skipped. Finally every touched chunk is resent to the players watching it.
+ * </p>
+ * 
+ * <p>This is not thread safe and must only be used from the server thread.</p>
+ */
+public class ForgeLightingEngine
+{
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int FULL_OPACITY = 15;
+    private static final int UNKNOWN_PRECIPITATION_HEIGHT = -999;
+    private static final Field PRECIPITATION_HEIGHT_MAP = findPrecipitationHeightMap();
+
+    private final ForgeWorld world;
+    private final Scheduler scheduler;
+    private final boolean sky;
+    private final Map<Long, DirtyChunk> dirty;
+    private long[] skyChecks;
+    private int skyCount;
+    private long[] blockChecks;
+    private int blockCount;
+    private Optional<? extends Task> task;
+
+    /**
+     * Creates a new {@link ForgeLightingEngine}.
+     * 
+     * @param world The world
+     * @param scheduler The scheduler used to flush changes at the end of the tick, may be null
+     */
+    public ForgeLightingEngine(ForgeWorld world, Scheduler scheduler)
+    {
+        this(checkNotNull(world), scheduler, !world.getThis().provider.getHasNoSky());
+    }
+
+    /**
+     * Creates a new {@link ForgeLightingEngine} which is not attached to any world. Only the work
+     * done on the chunks themselves, see {@link #updateHeights()}, can be performed by it and it
+     * can never be flushed.
+     * 
+     * @param sky Whether the chunks it is used with have sky light
+     */
+    public ForgeLightingEngine(boolean sky)
+    {
+        this(null, null, sky);
+    }
+
+    private ForgeLightingEngine(ForgeWorld world, Scheduler scheduler, boolean sky)
+    {
+        this.world = world;
+        this.scheduler = scheduler;
+        this.sky = sky;
+        this.dirty = Maps.newHashMap();
+        this.skyChecks = new long[INITIAL_CAPACITY];
+        this.blockChecks = new long[INITIAL_CAPACITY];
+        this.task = Optional.empty();
+    }
+
+    private static Field findPrecipitationHeightMap()
+    {
+        try
+        {
+            return ReflectionHelper.findField(Chunk.class, "precipitationHeightMap", "field_76638_b");
+        } catch (ReflectionHelper.UnableToFindFieldException e)
+        {
+            GunsmithLogger.getLogger().warn("Could not find the chunk precipitation height map, rain and snow may use stale heights after edits");
+            return null;
+        }
+    }
+
+    /**
+     * Records that the block at the given position was changed without any lighting updates.
+     * 
+     * @param chunk The chunk containing the position
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param old The previous block state
+     * @param state The new block state
+     */
+    public void markChange(Chunk chunk, int x, int y, int z, IBlockState old, IBlockState state)
+    {
+        Long key = ChunkKeys.toKey(chunk.xPosition, chunk.zPosition);
+        DirtyChunk entry = this.dirty.get(key);
+        if (entry == null)
+        {
+            entry = new DirtyChunk(chunk);
+            this.dirty.put(key, entry);
+        }
+        int column = (z & 15) << 4 | (x & 15);
+        entry.columns[column >> 6] |= 1L << column;
+        boolean opacity = old.getBlock().getLightOpacity() != state.getBlock().getLightOpacity();
+        if (opacity || old.getBlock().getLightValue() != state.getBlock().getLightValue())
+        {
+            long pos = new BlockPos(x, y, z).toLong();
+            this.blockChecks = append(this.blockChecks, this.blockCount++, pos);
+            if (opacity && this.sky)
+            {
+                this.skyChecks = append(this.skyChecks, this.skyCount++, pos);
+            }
+        }
+    }
+
+    /**
+     * Ensures that pending changes will be flushed on the next tick, or immediately if there is no
+     * scheduler available.
+     */
+    public void scheduleFlush()
+    {
+        if (this.scheduler == null)
+        {
+            flush();
+            return;
+        }
+        if (!this.task.isPresent())
+        {
+            this.task = this.scheduler.startSynchronousTask(this::tick, 0);
+        }
+    }
+
+    private void tick()
+    {
+        if (this.dirty.isEmpty())
+        {
+            if (this.task.isPresent())
+            {
+                this.task.get().cancel();
+                this.task = Optional.empty();
+            }
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Gets the number of chunks with pending lighting work.
+     * 
+     * @return The dirty chunk count
+     */
+    public int getDirtyCount()
+    {
+        return this.dirty.size();
+    }
+
+    /**
+     * Recomputes the height maps of all edited columns, rechecks sky and block light from the
+     * boundary of the edited region and resends every touched chunk.
+     */
+    public void flush()
+    {
+        if (this.dirty.isEmpty())
+        {
+            return;
+        }
+        checkState(this.world != null, "Cannot flush a lighting engine which is not attached to a world");
+        WorldServer handle = this.world.getThis();
+        updateHeights();
+        if (this.sky)
+        {
+            for (DirtyChunk entry : this.dirty.values())
+            {
+                queueBoundaryColumns(entry);
+            }
+            check(handle, EnumSkyBlock.SKY, this.skyChecks, dedupe(this.skyChecks, this.skyCount));
+        }
+        check(handle, EnumSkyBlock.BLOCK, this.blockChecks, dedupe(this.blockChecks, this.blockCount));
+        for (DirtyChunk entry : this.dirty.values())
+        {
+            entry.chunk.setChunkModified();
+            ForgeUtilities.resendChunk(handle, entry.chunk);
+        }
+        clear();
+    }
+
+    /**
+     * Recomputes the height of each edited column and writes the sky light of the part of each
+     * column which moved into or out of the sky. This is the part of {@link #flush()} which only
+     * works on the chunks themselves, pending light checks are left in place.
+     */
+    public void updateHeights()
+    {
+        for (DirtyChunk entry : this.dirty.values())
+        {
+            updateColumns(entry, this.sky);
+        }
+    }
+
+    /**
+     * Discards all pending lighting work without performing it.
+     */
+    public void clear()
+    {
+        this.dirty.clear();
+        this.skyCount = 0;
+        this.blockCount = 0;
+    }
+
+    /**
+     * Recomputes the height of each edited column in the given chunk and resets its precipitation
+     * height, which the chunk recomputes when next needed. Where a column's height changed the sky
+     * light of the range between the old and new height is written directly, full light where the
+     * column was opened to the sky and none where it was covered.
+     */
+    private static void updateColumns(DirtyChunk entry, boolean sky)
+    {
+        Chunk chunk = entry.chunk;
+        int[] heightMap = chunk.getHeightMap();
+        int[] precipitation = getPrecipitationHeightMap(chunk);
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        int top = chunk.getTopFilledSegment() + 16;
+        for (int column = 0; column < 256; column++)
+        {
+            if ((entry.columns[column >> 6] & (1L << column)) == 0)
+            {
+                continue;
+            }
+            if (precipitation != null)
+            {
+                precipitation[column] = UNKNOWN_PRECIPITATION_HEIGHT;
+            }
+            int x = column & 15;
+            int z = column >> 4;
+            int height = 0;
+            for (int y = top - 1; y >= 0; y--)
+            {
+                ExtendedBlockStorage section = storage[y >> 4];
+                if (section == null)
+                {
+                    y &= ~15;
+                    continue;
+                }
+                if (section.get(x, y & 15, z).getBlock().getLightOpacity() != 0)
+                {
+                    height = y + 1;
+                    break;
+                }
+            }
+            int old = heightMap[column];
+            if (old == height)
+            {
+                continue;
+            }
+            heightMap[column] = height;
+            if (sky)
+            {
+                int from = Math.min(old, height);
+                int to = Math.max(old, height);
+                int light = height < old ? EnumSkyBlock.SKY.defaultLightValue : 0;
+                for (int y = from; y < to; y++)
+                {
+                    // missing sections take their sky light from the height map
+                    ExtendedBlockStorage section = storage[y >> 4];
+                    if (section != null)
+                    {
+                        section.setExtSkylightValue(x, y & 15, z, light);
+                    }
+                }
+                entry.markHeightChange(column, from, to);
+            }
+        }
+    }
+
+    /**
+     * Queues sky light checks for the changed range of each column whose height changed and which
+     * borders a column whose height did not, light spreads from these into the columns within.
+     * Columns on the edge of the chunk are always treated as on the boundary.
+     */
+    private void queueBoundaryColumns(DirtyChunk entry)
+    {
+        if (entry.heightFrom == null)
+        {
+            return;
+        }
+        for (int column = 0; column < 256; column++)
+        {
+            if (!entry.isHeightChanged(column))
+            {
+                continue;
+            }
+            int x = column & 15;
+            int z = column >> 4;
+            if (x != 0 && x != 15 && z != 0 && z != 15 && entry.isHeightChanged(column - 1) && entry.isHeightChanged(column + 1)
+                    && entry.isHeightChanged(column - 16) && entry.isHeightChanged(column + 16))
+            {
+                continue;
+            }
+            int wx = entry.chunk.xPosition << 4 | x;
+            int wz = entry.chunk.zPosition << 4 | z;
+            for (int y = entry.heightFrom[column]; y < entry.heightTo[column]; y++)
+            {
+                this.skyChecks = append(this.skyChecks, this.skyCount++, new BlockPos(wx, y, wz).toLong());
+            }
+        }
+    }
+
+    /**
+     * Flood fills light of the given type from each of the given distinct, sorted positions,
+     * skipping positions which are dark, do not emit light and are either opaque, where the fill
+     * would not change anything, or surrounded by other positions, which the fills from the
+     * boundary will reach.
+     */
+    private static void check(WorldServer handle, EnumSkyBlock type, long[] positions, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            BlockPos pos = BlockPos.fromLong(positions[i]);
+            if (handle.getLightFor(type, pos) == 0)
+            {
+                Block block = handle.getBlockState(pos).getBlock();
+                if (block.getLightValue() == 0 && (block.getLightOpacity() >= FULL_OPACITY || isInterior(positions, count, pos)))
+                {
+                    continue;
+                }
+            }
+            handle.checkLightFor(type, pos);
+        }
+    }
+
+    private static boolean isInterior(long[] positions, int count, BlockPos pos)
+    {
+        for (EnumFacing facing : EnumFacing.values())
+        {
+            if (Arrays.binarySearch(positions, 0, count, pos.offset(facing).toLong()) < 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] getPrecipitationHeightMap(Chunk chunk)
+    {
+        if (PRECIPITATION_HEIGHT_MAP == null)
+        {
+            return null;
+        }
+        try
+        {
+            return (int[]) PRECIPITATION_HEIGHT_MAP.get(chunk);
+        } catch (IllegalAccessException e)
+        {
+            return null;
+        }
+    }
+
+    private static long[] append(long[] array, int index, long value)
+    {
+        if (index == array.length)
+        {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Sorts the first count values of the given array and removes duplicates.
+     * 
+     * @return The number of distinct values
+     */
+    private static int dedupe(long[] array, int count)
+    {
+        if (count < 2)
+        {
+            return count;
+        }
+        Arrays.sort(array, 0, count);
+        int n = 1;
+        for (int i = 1; i < count; i++)
+        {
+            if (array[i] != array[n - 1])
+            {
+                array[n++] = array[i];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * A chunk with pending lighting work, along with a bitset of its edited columns and the range
+     * of heights of each column whose height changed.
+     */
+    private static class DirtyChunk
+    {
+
+        private final Chunk chunk;
+        private final long[] columns = new long[4];
+        private int[] heightFrom;
+        private int[] heightTo;
+
+        private DirtyChunk(Chunk chunk)
+        {
+            this.chunk = chunk;
+        }
+
+        private void markHeightChange(int column, int from, int to)
+        {
+            if (this.heightFrom == null)
+            {
+                this.heightFrom = new int[256];
+                this.heightTo = new int[256];
+            }
+            this.heightFrom[column] = from;
+            this.heightTo[column] = to;
+        }
+
+        private boolean isHeightChanged(int column)
+        {
+            return this.heightFrom != null && this.heightTo[column] > this.heightFrom[column];
+        }
+
+    }
+
+}
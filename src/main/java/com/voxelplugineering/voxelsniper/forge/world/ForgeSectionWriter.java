@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.forge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeRecorder;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.Map;
+
+/**
+ * A {@link BulkWriter} for forge which groups changes by chunk and section and writes them
+ * straight into the section storage arrays, bypassing the neighbour updates, relighting and
+ * packets which {@link WorldServer#setBlockState(BlockPos, IBlockState, int)} performs per block.
+ * Lighting and resending of the touched chunks is done once per tick for all changes by the world's
+ * {@link ForgeLightingEngine}, so a large edit applied in several slices within a tick relights
+ * and resends each chunk only once.
+ */
+public class ForgeSectionWriter implements BulkWriter
+{
+
+    private static final int SECTION_COUNT = 16;
+    private static final int SECTION_VOLUME = 4096;
+
+    private final ForgeWorld world;
+    private final Map<Long, PendingChunk> pending = Maps.newHashMap();
+    private int count = 0;
+    private ChangeRecorder recorder;
+
+    /**
+     * Creates a new {@link ForgeSectionWriter}.
+     * 
+     * @param world The world to write to
+     */
+    public ForgeSectionWriter(ForgeWorld world)
+    {
+        this.world = checkNotNull(world);
+    }
+
+    @Override
+    public void setBlock(MaterialState material, int x, int y, int z)
+    {
+        if (!(material instanceof ForgeMaterialState) || y < 0 || y >= ForgeChunk.CHUNK_SIZE.getY())
+        {
+            return;
+        }
+        int cx = x >> 4;
+        int cz = z >> 4;
+        Long key = ChunkKeys.toKey(cx, cz);
+        PendingChunk chunk = this.pending.get(key);
+        if (chunk == null)
+        {
+            chunk = new PendingChunk(cx, cz);
+            this.pending.put(key, chunk);
+        }
+        IBlockState[] section = chunk.sections[y >> 4];
+        if (section == null)
+        {
+            section = new IBlockState[SECTION_VOLUME];
+            chunk.sections[y >> 4] = section;
+        }
+        int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        if (section[index] == null)
+        {
+            this.count++;
+        }
+        section[index] = ((ForgeMaterialState) material).getState();
+    }
+
+    @Override
+    public int getPendingCount()
+    {
+        return this.count;
+    }
+
+    @Override
+    public void setRecorder(ChangeRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void apply()
+    {
+        WorldServer handle = this.world.getThis();
+        ForgeLightingEngine lighting = this.world.getLightingEngine();
+        for (PendingChunk pending : this.pending.values())
+        {
+            write(handle, handle.getChunkFromChunkCoords(pending.x, pending.z), pending, lighting);
+        }
+        this.pending.clear();
+        this.world.getMetrics().recordWrite(this.count);
+        this.count = 0;
+        lighting.scheduleFlush();
+    }
+
+    private void write(WorldServer handle, Chunk chunk, PendingChunk pending, ForgeLightingEngine lighting)
+    {
+        for (int sy = 0; sy < SECTION_COUNT; sy++)
+        {
+            IBlockState[] changes = pending.sections[sy];
+            if (changes == null)
+            {
+                continue;
+            }
+            ExtendedBlockStorage section = getSection(handle, chunk, sy);
+            for (int i = 0; i < SECTION_VOLUME; i++)
+            {
+                IBlockState state = changes[i];
+                if (state == null)
+                {
+                    continue;
+                }
+                IBlockState old = this.recorder == null ? null : section.get(i & 15, i >> 8, (i >> 4) & 15);
+                if (writeBlock(chunk, section, i & 15, sy << 4 | i >> 8, (i >> 4) & 15, state, lighting) && old != null)
+                {
+                    record(old, state, chunk.xPosition << 4 | (i & 15), sy << 4 | i >> 8, chunk.zPosition << 4 | ((i >> 4) & 15));
+                }
+            }
+        }
+    }
+
+    private void record(IBlockState old, IBlockState state, int x, int y, int z)
+    {
+        MaterialState previous = this.world.getStateTable().get(Block.BLOCK_STATE_IDS.get(old));
+        MaterialState next = this.world.getStateTable().get(Block.BLOCK_STATE_IDS.get(state));
+        if (previous != null && next != null)
+        {
+            this.recorder.record(previous, next, x, y, z);
+        }
+    }
+
+    /**
+     * Gets the section storage at the given section index of a chunk, creating it if it does not
+     * exist yet.
+     * 
+     * @param handle The world
+     * @param chunk The chunk
+     * @param sy The section index
+     * @return The section storage
+     */
+    static ExtendedBlockStorage getSection(WorldServer handle, Chunk chunk, int sy)
+    {
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        ExtendedBlockStorage section = storage[sy];
+        if (section == null)
+        {
+            section = new ExtendedBlockStorage(sy << 4, !handle.provider.getHasNoSky());
+            storage[sy] = section;
+        }
+        return section;
+    }
+
+    /**
+     * Writes a single block straight into section storage, replacing any tile entity and recording
+     * the change with the given lighting engine.
+     * 
+     * @param chunk The chunk
+     * @param section The section storage containing the position
+     * @param x The x position within the chunk
+     * @param y The y position
+     * @param z The z position within the chunk
+     * @param state The new block state
+     * @param lighting The lighting engine
+     * @return Whether the block was changed
+     */
+    public static boolean writeBlock(Chunk chunk, ExtendedBlockStorage section, int x, int y, int z, IBlockState state,
+            ForgeLightingEngine lighting)
+    {
+        IBlockState old = section.get(x, y & 15, z);
+        if (old == state)
+        {
+            return false;
+        }
+        int wx = chunk.xPosition << 4 | x;
+        int wz = chunk.zPosition << 4 | z;
+        BlockPos pos = null;
+        if (old.getBlock().hasTileEntity(old))
+        {
+            pos = new BlockPos(wx, y, wz);
+            chunk.removeTileEntity(pos);
+        }
+        section.set(x, y & 15, z, state);
+        if (state.getBlock().hasTileEntity(state))
+        {
+            if (pos == null)
+            {
+                pos = new BlockPos(wx, y, wz);
+            }
+            chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.IMMEDIATE);
+        }
+        lighting.markChange(chunk, wx, y, wz, old, state);
+        return true;
+    }
+
+    /**
+     * The pending changes for a single chunk, one array per section which is only allocated once a
+     * change is made within it.
+     */
+    private static class PendingChunk
+    {
+
+        private final int x;
+        private final int z;
+        private final IBlockState[][] sections = new IBlockState[SECTION_COUNT][];
+
+        private PendingChunk(int x, int z)
+        {
+            this.x = x;
+            this.z = z;
+        }
+
+    }
+
+}
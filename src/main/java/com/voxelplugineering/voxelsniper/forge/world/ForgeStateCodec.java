@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.forge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.schematic.StateCodec;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Optional;
+
+/**
+ * A {@link StateCodec} for forge worlds, naming each state by its block registry name and
+ * metadata, for example {@code minecraft:stone:1}.
+ */
+public class ForgeStateCodec implements StateCodec
+{
+
+    private final ForgeWorld world;
+
+    /**
+     * Creates a new {@link ForgeStateCodec}.
+     * 
+     * @param world The world to resolve states in
+     */
+    public ForgeStateCodec(ForgeWorld world)
+    {
+        this.world = checkNotNull(world);
+    }
+
+    @Override
+    public Optional<String> encode(MaterialState state)
+    {
+        if (!(state instanceof ForgeMaterialState))
+        {
+            return Optional.empty();
+        }
+        IBlockState blockState = ((ForgeMaterialState) state).getState();
+        Block block = blockState.getBlock();
+        ResourceLocation name = Block.blockRegistry.getNameForObject(block);
+        if (name == null)
+        {
+            return Optional.empty();
+        }
+        return Optional.of(name + ":" + block.getMetaFromState(blockState));
+    }
+
+    @Override
+    public Optional<MaterialState> decode(String name)
+    {
+        int split = name.lastIndexOf(':');
+        if (split < 0)
+        {
+            return Optional.empty();
+        }
+        Block block = Block.getBlockFromName(name.substring(0, split));
+        if (block == null)
+        {
+            return Optional.empty();
+        }
+        int meta;
+        try
+        {
+            meta = Integer.parseInt(name.substring(split + 1));
+        } catch (NumberFormatException e)
+        {
+            return Optional.empty();
+        }
+        IBlockState state = block.getStateFromMeta(meta);
+        return Optional.<MaterialState>ofNullable(this.world.getStateTable().get(Block.BLOCK_STATE_IDS.get(state)));
+    }
+
+}
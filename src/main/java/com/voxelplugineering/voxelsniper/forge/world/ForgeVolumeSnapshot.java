@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.forge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.buffer.StateIdBuffer;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A set of {@link ForgeChunkSnapshot}s covering a cuboid volume of a world, taken together on the
+ * server thread so that asynchronous brush workers may read a consistent view of the volume
+ * without touching the live world.
+ */
+public class ForgeVolumeSnapshot implements VolumeSource
+{
+
+    private final Vector3i min;
+    private final Vector3i max;
+    private final Map<Long, ForgeChunkSnapshot> chunks;
+    private final MaterialStateTable<ForgeMaterialState> states;
+
+    /**
+     * Creates a new {@link ForgeVolumeSnapshot}.
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @param chunks The snapshots of the loaded chunks within the volume, keyed by
+     *            {@link ChunkKeys#toKey(int, int)}
+     * @param states The table of state ids of the world
+     */
+    public ForgeVolumeSnapshot(Vector3i min, Vector3i max, Map<Long, ForgeChunkSnapshot> chunks,
+            MaterialStateTable<ForgeMaterialState> states)
+    {
+        this.min = checkNotNull(min);
+        this.max = checkNotNull(max);
+        this.chunks = checkNotNull(chunks);
+        this.states = checkNotNull(states);
+    }
+
+    @Override
+    public Vector3i getMin()
+    {
+        return this.min;
+    }
+
+    @Override
+    public Vector3i getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * Gets the snapshot of the chunk at the given chunk coordinates, if it was loaded when this
+     * snapshot was taken.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The chunk snapshot, if available
+     */
+    public Optional<ForgeChunkSnapshot> getChunk(int cx, int cz)
+    {
+        return Optional.ofNullable(this.chunks.get(ChunkKeys.toKey(cx, cz)));
+    }
+
+    /**
+     * Gets the state id at the given world position.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The state id, or {@link StateIdBuffer#UNKNOWN} if the containing chunk was not
+     *         loaded
+     */
+    public int getStateId(int x, int y, int z)
+    {
+        ForgeChunkSnapshot chunk = this.chunks.get(ChunkKeys.toKeyFromBlock(x, z));
+        if (chunk == null)
+        {
+            return StateIdBuffer.UNKNOWN;
+        }
+        return chunk.getStateId(x & 15, y, z & 15);
+    }
+
+    @Override
+    public Optional<MaterialState> getState(int x, int y, int z)
+    {
+        if (x < this.min.getX() || x > this.max.getX() || y < this.min.getY() || y > this.max.getY() || z < this.min.getZ() || z > this.max.getZ())
+        {
+            return Optional.empty();
+        }
+        int id = getStateId(x, y, z);
+        if (id == StateIdBuffer.UNKNOWN)
+        {
+            return Optional.empty();
+        }
+        return Optional.<MaterialState>ofNullable(this.states.get(id));
+    }
+
+    /**
+     * Copies the state ids within the bounds of the given buffer into it. Positions within chunks
+     * which were not loaded are left untouched.
+     * 
+     * @param buffer The buffer to fill
+     */
+    public void copyTo(StateIdBuffer buffer)
+    {
+        Vector3i bmin = buffer.getMin();
+        Vector3i bmax = buffer.getMax();
+        int minY = Math.max(bmin.getY(), 0);
+        int maxY = Math.min(bmax.getY(), ForgeChunk.CHUNK_SIZE.getY() - 1);
+        int[] data = buffer.getRawData();
+        for (int cx = bmin.getX() >> 4; cx <= bmax.getX() >> 4; cx++)
+        {
+            for (int cz = bmin.getZ() >> 4; cz <= bmax.getZ() >> 4; cz++)
+            {
+                ForgeChunkSnapshot chunk = this.chunks.get(ChunkKeys.toKey(cx, cz));
+                if (chunk == null)
+                {
+                    continue;
+                }
+                int bx = cx << 4;
+                int bz = cz << 4;
+                int x0 = Math.max(bmin.getX(), bx);
+                int x1 = Math.min(bmax.getX(), bx + 15);
+                int z0 = Math.max(bmin.getZ(), bz);
+                int z1 = Math.min(bmax.getZ(), bz + 15);
+                for (int y = minY; y <= maxY; y++)
+                {
+                    for (int z = z0; z <= z1; z++)
+                    {
+                        int index = buffer.getIndex(x0, y, z);
+                        for (int x = x0; x <= x1; x++)
+                        {
+                            data[index++] = chunk.getStateId(x & 15, y, z & 15);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -23,18 +23,23 @@
  */
 package com.voxelplugineering.voxelsniper.forge.world;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
 import com.voxelplugineering.voxelsniper.entity.Entity;
 import com.voxelplugineering.voxelsniper.entity.EntityType;
 import com.voxelplugineering.voxelsniper.entity.Player;
 import com.voxelplugineering.voxelsniper.forge.entity.ForgeEntity;
 import com.voxelplugineering.voxelsniper.forge.entity.ForgeEntityType;
 import com.voxelplugineering.voxelsniper.forge.world.biome.ForgeBiome;
-import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterial;
 import com.voxelplugineering.voxelsniper.forge.world.material.ForgeMaterialState;
 import com.voxelplugineering.voxelsniper.service.registry.BiomeRegistry;
 import com.voxelplugineering.voxelsniper.service.registry.MaterialRegistry;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
 import com.voxelplugineering.voxelsniper.sponge.entity.SpongeEntityType;
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.math.Vector3d;
@@ -46,47 +51,83 @@ import com.voxelplugineering.voxelsniper.world.CommonLocation;
 import com.voxelplugineering.voxelsniper.world.Location;
 import com.voxelplugineering.voxelsniper.world.World;
 import com.voxelplugineering.voxelsniper.world.biome.Biome;
-import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.buffer.StateIdBuffer;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWritable;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloadable;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkWrapperCache;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockCursor;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitable;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitor;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialStateTable;
+import com.voxelplugineering.voxelsniper.world.metrics.Instrumented;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+import com.voxelplugineering.voxelsniper.world.query.EntityQueryable;
+import com.voxelplugineering.voxelsniper.world.volume.Snapshottable;
 import net.minecraft.block.Block;
-import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.effect.EntityLightningBolt;
-import net.minecraft.util.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A wrapper for forge's {@link World}.
  */
-public class ForgeWorld extends AbstractWorld<WorldServer>
+public class ForgeWorld extends AbstractWorld<WorldServer> implements BulkWritable, BlockVisitable, EntityQueryable, Snapshottable,
+        Instrumented, ChunkPreloadable
 {
 
+    /**
+     * Forge only loads a chunk asynchronously when given a callback to run once it has loaded.
+     */
+    private static final Runnable NO_CALLBACK = new Runnable()
+    {
+
+        @Override
+        public void run()
+        {
+        }
+    };
+
     private final MaterialRegistry<net.minecraft.block.Block> materials;
     private final BiomeRegistry<net.minecraft.world.biome.BiomeGenBase> biomes;
     private final Context context;
+    private final MaterialStateTable<ForgeMaterialState> states;
+    private final ForgeLightingEngine lighting;
+    private final WorldMetrics metrics;
 
-    private final Map<net.minecraft.world.chunk.Chunk, Chunk> chunks;
+    private final ChunkWrapperCache<ForgeChunk> chunks;
     protected final Map<net.minecraft.entity.Entity, Entity> entitiesCache;
 
     /**
      * Creates a new {@link ForgeWorld}.
      * 
      * @param world The world to wrap
+     * @param states The table of state ids
      */
     @SuppressWarnings("unchecked")
-    public ForgeWorld(Context context, WorldServer world)
+    public ForgeWorld(Context context, WorldServer world, MaterialStateTable<ForgeMaterialState> states)
     {
         super(context, world);
         this.context = context;
+        this.states = states;
+        this.lighting = new ForgeLightingEngine(this, context.get(Scheduler.class).orElse(null));
         this.biomes = context.getRequired(BiomeRegistry.class);
         this.materials = context.getRequired(MaterialRegistry.class);
-        this.chunks = new MapMaker().weakKeys().makeMap();
+        this.chunks = new ChunkWrapperCache<ForgeChunk>();
         this.entitiesCache = new MapMaker().weakKeys().makeMap();
+        this.metrics = WorldMetrics.create(getName());
     }
 
     @Override
@@ -95,36 +136,279 @@ public class ForgeWorld extends AbstractWorld<WorldServer>
         return getThis().getWorldInfo().getWorldName();
     }
 
+    /**
+     * Records that the chunk at the given chunk coordinates has been unloaded, releasing its
+     * wrapper.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void onChunkUnload(int cx, int cz)
+    {
+        this.chunks.remove(cx, cz);
+    }
+
+    @Override
+    public boolean isChunkLoaded(int cx, int cz)
+    {
+        return getThis().getChunkProvider().chunkExists(cx, cz);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Chunks which have been saved are read from disk on forge's chunk io threads, chunks which
+     * have not yet been generated are generated before this returns.</p>
+     */
+    @Override
+    public void requestChunkLoad(int cx, int cz)
+    {
+        getThis().theChunkProviderServer.loadChunk(cx, cz, NO_CALLBACK);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>When called from a thread other than the server thread the block is read from a snapshot
+     * taken on the server thread with {@link #snapshotVolume(Vector3i, Vector3i)}, so only loaded
+     * chunks are read and the live chunk storage is never touched. This waits for the server thread
+     * and copies the whole containing chunk, reads of many blocks should take a single snapshot of
+     * their volume instead.</p>
+     */
     @Override
     public Optional<com.voxelplugineering.voxelsniper.world.Block> getBlock(int x, int y, int z)
     {
-        if (!getThis().getChunkProvider().chunkExists(x < 0 ? x / 16 - 1 : x / 16, z < 0 ? z / 16 - 1 : z / 16))
+        int id;
+        if (getThis().isCallingFromMinecraftThread())
         {
-            return Optional.empty();
+            if (!getThis().getChunkProvider().chunkExists(x >> 4, z >> 4))
+            {
+                return Optional.empty();
+            }
+            id = Block.BLOCK_STATE_IDS.get(getThis().getBlockState(new net.minecraft.util.BlockPos(x, y, z)));
+        } else
+        {
+            if (y < 0 || y >= ForgeChunk.CHUNK_SIZE.getY())
+            {
+                return Optional.empty();
+            }
+            Vector3i pos = new Vector3i(x, y, z);
+            try
+            {
+                id = snapshotVolume(pos, pos).get().getStateId(x, y, z);
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } catch (ExecutionException e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error taking a snapshot of " + getName() + " for an asynchronous read");
+                return Optional.empty();
+            }
+            if (id == StateIdBuffer.UNKNOWN)
+            {
+                return Optional.empty();
+            }
         }
-        IBlockState state = getThis().getBlockState(new net.minecraft.util.BlockPos(x, y, z));
-        ResourceLocation rs = Block.blockRegistry.getNameForObject(state.getBlock());
-        Optional<Material> mat = this.materials
-                .getMaterial((!rs.getResourceDomain().equals("minecraft") ? rs.getResourceDomain() + ":" : "") + rs.getResourcePath());
-        if (mat.isPresent())
+        this.metrics.recordRead(1);
+        MaterialState ms = this.states.get(id);
+        if (ms == null)
         {
-            MaterialState ms = ((ForgeMaterial) mat.get()).getState(state);
-            Location loc = new CommonLocation(this, x, y, z);
-            return Optional.<com.voxelplugineering.voxelsniper.world.Block>of(new CommonBlock(loc, ms));
+            return Optional.empty();
         }
-        return Optional.empty();
+        Location loc = new CommonLocation(this, x, y, z);
+        return Optional.<com.voxelplugineering.voxelsniper.world.Block>of(new CommonBlock(loc, ms));
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Without updates the block is written straight into the chunk section storage. Tile
+     * entities are still removed and created as the chunk would, and lighting, the height and
+     * precipitation maps and the resend to players are handled by the world's
+     * {@link ForgeLightingEngine} at the end of the tick. The old and new blocks are not notified
+     * of the change, as with any write without physics.</p>
+     */
     @Override
     public void setBlock(MaterialState material, int x, int y, int z, boolean update)
     {
         if (material instanceof ForgeMaterialState)
         {
             ForgeMaterialState forgeMaterial = (ForgeMaterialState) material;
-            getThis().setBlockState(new net.minecraft.util.BlockPos(x, y, z), forgeMaterial.getState(), update ? 3 : 0);
+            if (update)
+            {
+                getThis().setBlockState(new net.minecraft.util.BlockPos(x, y, z), forgeMaterial.getState(), 3);
+                this.metrics.recordWrite(1);
+                return;
+            }
+            if (y < 0 || y >= ForgeChunk.CHUNK_SIZE.getY())
+            {
+                return;
+            }
+            // written directly with lighting and the chunk resend deferred to the end of the tick
+            net.minecraft.world.chunk.Chunk chunk = getThis().getChunkFromChunkCoords(x >> 4, z >> 4);
+            ExtendedBlockStorage section = ForgeSectionWriter.getSection(getThis(), chunk, y >> 4);
+            if (ForgeSectionWriter.writeBlock(chunk, section, x & 15, y, z & 15, forgeMaterial.getState(), this.lighting))
+            {
+                this.lighting.scheduleFlush();
+            }
+            this.metrics.recordWrite(1);
         }
     }
 
+    @Override
+    public WorldMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Gets the engine which performs deferred lighting for blocks written without updates.
+     * 
+     * @return The lighting engine
+     */
+    public ForgeLightingEngine getLightingEngine()
+    {
+        return this.lighting;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The returned writer places blocks directly into the chunk section storage without
+     * neighbour updates, see {@link ForgeSectionWriter}.</p>
+     */
+    @Override
+    public BulkWriter createBulkWriter()
+    {
+        return new ForgeSectionWriter(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Blocks are read straight from the chunk section storage, chunks which are not currently
+     * loaded are skipped. This must be called from the server thread.</p>
+     */
+    @Override
+    public void visitBlocks(Vector3i min, Vector3i max, BlockVisitor visitor)
+    {
+        int minY = Math.max(min.getY(), 0);
+        int maxY = Math.min(max.getY(), ForgeChunk.CHUNK_SIZE.getY() - 1);
+        BlockCursor cursor = new BlockCursor(this);
+        long read = 0;
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                if (!getThis().getChunkProvider().chunkExists(cx, cz))
+                {
+                    continue;
+                }
+                ExtendedBlockStorage[] storage = getThis().getChunkFromChunkCoords(cx, cz).getBlockStorageArray();
+                int bx = cx << 4;
+                int bz = cz << 4;
+                int x1 = Math.min(max.getX(), bx + 15);
+                int z1 = Math.min(max.getZ(), bz + 15);
+                for (int y = minY; y <= maxY; y++)
+                {
+                    ExtendedBlockStorage section = storage[y >> 4];
+                    // missing sections are entirely air, which is state id 0
+                    char[] data = section == null ? null : section.getData();
+                    for (int z = Math.max(min.getZ(), bz); z <= z1; z++)
+                    {
+                        for (int x = Math.max(min.getX(), bx); x <= x1; x++)
+                        {
+                            read++;
+                            int id = data == null ? 0 : data[(y & 15) << 8 | (z & 15) << 4 | (x & 15)];
+                            MaterialState state = this.states.get(id);
+                            if (state == null)
+                            {
+                                continue;
+                            }
+                            cursor.set(x, y, z, id, state);
+                            if (!visitor.visit(cursor))
+                            {
+                                this.metrics.recordRead(read);
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        this.metrics.recordRead(read);
+    }
+
+    /**
+     * Copies the chunk at the given chunk coordinates, if it is loaded. This must be called from
+     * the server thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The chunk snapshot, if the chunk is loaded
+     */
+    public Optional<ForgeChunkSnapshot> snapshotChunk(int cx, int cz)
+    {
+        checkState(getThis().isCallingFromMinecraftThread(), "Chunk snapshots must be taken on the server thread");
+        if (!getThis().getChunkProvider().chunkExists(cx, cz))
+        {
+            return Optional.empty();
+        }
+        return Optional.of(new ForgeChunkSnapshot(getThis().getChunkFromChunkCoords(cx, cz)));
+    }
+
+    /**
+     * Copies every loaded chunk overlapping the given volume. The copy is always taken on the
+     * server thread, immediately if this is called from it and otherwise at the start of the next
+     * tick, after which the returned snapshot may be read from any thread. Chunks which are not
+     * loaded are not loaded and are left out of the snapshot.
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @return A future of the snapshot
+     */
+    public ListenableFuture<ForgeVolumeSnapshot> snapshotVolume(final Vector3i min, final Vector3i max)
+    {
+        return MinecraftServer.getServer().callFromMainThread(new Callable<ForgeVolumeSnapshot>()
+        {
+
+            @Override
+            public ForgeVolumeSnapshot call() throws Exception
+            {
+                return createSnapshot(min, max);
+            }
+        });
+    }
+
+    @Override
+    public ForgeVolumeSnapshot createSnapshot(Vector3i min, Vector3i max)
+    {
+        Map<Long, ForgeChunkSnapshot> snapshots = Maps.newHashMap();
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                Optional<ForgeChunkSnapshot> snapshot = snapshotChunk(cx, cz);
+                if (snapshot.isPresent())
+                {
+                    snapshots.put(ChunkKeys.toKey(cx, cz), snapshot.get());
+                }
+            }
+        }
+        return new ForgeVolumeSnapshot(min, max, snapshots, this.states);
+    }
+
+    /**
+     * Gets the table of state ids used by this world.
+     * 
+     * @return The state id table
+     */
+    public MaterialStateTable<ForgeMaterialState> getStateTable()
+    {
+        return this.states;
+    }
+
     @Override
     public MaterialRegistry<?> getMaterialRegistry()
     {
@@ -137,16 +421,76 @@ public class ForgeWorld extends AbstractWorld<WorldServer>
         List<Entity> entities = Lists.newArrayList();
         for (Object o : getThis().loadedEntityList)
         {
-            net.minecraft.entity.Entity e = (net.minecraft.entity.Entity) o;
-            if (this.entitiesCache.containsKey(e))
+            entities.add(wrap((net.minecraft.entity.Entity) o));
+        }
+        return entities;
+    }
+
+    /**
+     * Gets the wrapper for the given forge entity, creating and caching it if one does not exist
+     * yet.
+     * 
+     * @param entity The forge entity
+     * @return The wrapped entity
+     */
+    public Entity wrap(net.minecraft.entity.Entity entity)
+    {
+        Entity ent = this.entitiesCache.get(entity);
+        if (ent == null)
+        {
+            ent = new ForgeEntity(entity, this.context);
+            this.entitiesCache.put(entity, ent);
+        }
+        return ent;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The search is performed against the entity lists of the chunks overlapping the box. This
+     * must be called from the server thread.</p>
+     */
+    @Override
+    public List<Entity> getEntitiesWithin(Vector3d min, Vector3d max)
+    {
+        return queryEntities(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The search is performed against the entity lists of the chunks overlapping the sphere.
+     * This must be called from the server thread.</p>
+     */
+    @Override
+    public List<Entity> getEntitiesNear(Vector3d center, double radius)
+    {
+        return queryEntities(center.getX() - radius, center.getY() - radius, center.getZ() - radius, center.getX() + radius,
+                center.getY() + radius, center.getZ() + radius, center, radius * radius);
+    }
+
+    private List<Entity> queryEntities(double x0, double y0, double z0, double x1, double y1, double z1, Vector3d center,
+            double radiusSquared)
+    {
+        List<Entity> entities = Lists.newArrayList();
+        AxisAlignedBB box = new AxisAlignedBB(x0, y0, z0, x1, y1, z1);
+        for (net.minecraft.entity.Entity e : getThis().getEntitiesWithinAABBExcludingEntity(null, box))
+        {
+            if (e.posX < x0 || e.posX > x1 || e.posY < y0 || e.posY > y1 || e.posZ < z0 || e.posZ > z1)
             {
-                entities.add(this.entitiesCache.get(e));
-            } else
+                continue;
+            }
+            if (center != null)
             {
-                Entity ent = new ForgeEntity(e, this.context);
-                this.entitiesCache.put(e, ent);
-                entities.add(ent);
+                double dx = e.posX - center.getX();
+                double dy = e.posY - center.getY();
+                double dz = e.posZ - center.getZ();
+                if (dx * dx + dy * dy + dz * dz > radiusSquared)
+                {
+                    continue;
+                }
             }
+            entities.add(wrap(e));
         }
         return entities;
     }
@@ -158,13 +502,16 @@ public class ForgeWorld extends AbstractWorld<WorldServer>
         {
             return Optional.empty();
         }
-        net.minecraft.world.chunk.Chunk chunk = getThis().getChunkFromChunkCoords(x, z);
-        if (this.chunks.containsKey(chunk))
+        ForgeChunk cached = this.chunks.get(x, z);
+        if (cached != null)
         {
-            return Optional.of(this.chunks.get(chunk));
+            this.metrics.recordChunkLookup(true);
+            return Optional.<Chunk>of(cached);
         }
+        this.metrics.recordChunkLookup(false);
+        net.minecraft.world.chunk.Chunk chunk = getThis().getChunkFromChunkCoords(x, z);
         ForgeChunk newChunk = new ForgeChunk(chunk, this, this.context);
-        this.chunks.put(chunk, newChunk);
+        this.chunks.put(x, z, newChunk);
         return Optional.<Chunk>of(newChunk);
     }
 
@@ -26,6 +26,7 @@ package com.voxelplugineering.voxelsniper.forge.world.material;
 import com.google.common.collect.Lists;
 import com.voxelplugineering.voxelsniper.registry.WeakWrapper;
 import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.material.MaterialProperties;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
 import net.minecraft.block.Block;
@@ -101,16 +102,23 @@ public class ForgeMaterial extends WeakWrapper<net.minecraft.block.Block>impleme
     }
 
     private final MaterialStateCache<IBlockState, ForgeMaterialState> cache;
+    private final int properties;
 
     /**
      * Creates a new {@link ForgeMaterial}.
      * 
      * @param block The block to wrap
      */
+    @SuppressWarnings("deprecation")
     public ForgeMaterial(net.minecraft.block.Block block, MaterialStateCache<IBlockState, ForgeMaterialState> cache)
     {
         super(block);
         this.cache = cache;
+        this.properties = MaterialProperties.flag(MaterialProperties.GRAVITY, block instanceof net.minecraft.block.BlockFalling)
+                | MaterialProperties.flag(MaterialProperties.SOLID, block.getMaterial().isSolid())
+                | MaterialProperties.flag(MaterialProperties.LIQUID, block.getMaterial().isLiquid())
+                | MaterialProperties.flag(MaterialProperties.RELIANT_ON_ENVIRONMENT, FALLOFF_MATERIALS.contains(block))
+                | MaterialProperties.flag(MaterialProperties.FLAMMABLE, Blocks.fire.getFlammability(block) > 0);
     }
 
     @Override
@@ -129,32 +137,31 @@ public class ForgeMaterial extends WeakWrapper<net.minecraft.block.Block>impleme
     @Override
     public boolean isAffectedByGravity()
     {
-        return getThis() instanceof net.minecraft.block.BlockFalling;
+        return MaterialProperties.has(this.properties, MaterialProperties.GRAVITY);
     }
 
     @Override
     public boolean isSolid()
     {
-        return getThis().getMaterial().isSolid();
+        return MaterialProperties.has(this.properties, MaterialProperties.SOLID);
     }
 
     @Override
     public boolean isLiquid()
     {
-        return getThis().getMaterial().isLiquid();
+        return MaterialProperties.has(this.properties, MaterialProperties.LIQUID);
     }
 
     @Override
     public boolean isReliantOnEnvironment()
     {
-        return FALLOFF_MATERIALS.contains(getThis());
+        return MaterialProperties.has(this.properties, MaterialProperties.RELIANT_ON_ENVIRONMENT);
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     public boolean isFlammable()
     {
-        return Blocks.fire.getFlammability(getThis()) > 0;
+        return MaterialProperties.has(this.properties, MaterialProperties.FLAMMABLE);
     }
 
     @Override
@@ -64,6 +64,17 @@ public class ForgeMaterialState implements MaterialState
         return this.state;
     }
 
+    /**
+     * Gets the id of this state as used in the chunk section storage. The id is looked up on each
+     * call as it changes whenever forge remaps block ids.
+     * 
+     * @return The state id, or -1 if the state has no id
+     */
+    public int getStateId()
+    {
+        return net.minecraft.block.Block.BLOCK_STATE_IDS.get(this.state);
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.service.registry;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An index of platform handles, such as players or worlds, by case insensitive name and by unique
+ * id. Platforms keep the index up to date from their join, quit and world load and unload events so
+ * that {@link RegistryProvider}s can resolve handles without scanning every online player or
+ * loaded world.
+ * 
+ * @param <T> The handle type
+ */
+public class HandleIndex<T>
+{
+
+    private final ConcurrentMap<String, T> byName;
+    private final ConcurrentMap<UUID, T> byId;
+
+    /**
+     * Creates a new, empty {@link HandleIndex}.
+     */
+    public HandleIndex()
+    {
+        this.byName = new ConcurrentHashMap<String, T>();
+        this.byId = new ConcurrentHashMap<UUID, T>();
+    }
+
+    /**
+     * Adds the given handle to the index, replacing any handle already indexed under the same name
+     * or id. Platforms which replace the handle of a player without a quit and join, such as on
+     * respawn, should add the new handle again.
+     * 
+     * @param name The name of the handle
+     * @param id The unique id of the handle, or null if it has none
+     * @param handle The handle
+     */
+    public void add(String name, UUID id, T handle)
+    {
+        checkNotNull(handle);
+        this.byName.put(toKey(name), handle);
+        if (id != null)
+        {
+            this.byId.put(id, handle);
+        }
+    }
+
+    /**
+     * Removes whichever handles are indexed under the given name and id.
+     * 
+     * @param name The name of the handle
+     * @param id The unique id of the handle, or null if it has none
+     */
+    public void remove(String name, UUID id)
+    {
+        this.byName.remove(toKey(name));
+        if (id != null)
+        {
+            this.byId.remove(id);
+        }
+    }
+
+    /**
+     * Removes the given handle from the index, if it is the handle indexed under the given name
+     * and id.
+     * 
+     * @param name The name of the handle
+     * @param id The unique id of the handle, or null if it has none
+     * @param handle The handle
+     */
+    public void remove(String name, UUID id, T handle)
+    {
+        checkNotNull(handle);
+        this.byName.remove(toKey(name), handle);
+        if (id != null)
+        {
+            this.byId.remove(id, handle);
+        }
+    }
+
+    /**
+     * Gets the handle with the given name, ignoring case.
+     * 
+     * @param name The name
+     * @return The handle, if indexed
+     */
+    public Optional<T> get(String name)
+    {
+        return Optional.ofNullable(this.byName.get(toKey(name)));
+    }
+
+    /**
+     * Gets the handle with the given unique id.
+     * 
+     * @param id The unique id
+     * @return The handle, if indexed
+     */
+    public Optional<T> get(UUID id)
+    {
+        return Optional.ofNullable(this.byId.get(checkNotNull(id)));
+    }
+
+    /**
+     * Removes all handles from the index.
+     */
+    public void clear()
+    {
+        this.byName.clear();
+        this.byId.clear();
+    }
+
+    private static String toKey(String name)
+    {
+        return checkNotNull(name).toLowerCase(Locale.ROOT);
+    }
+
+}
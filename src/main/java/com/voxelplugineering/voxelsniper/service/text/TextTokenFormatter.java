@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.service.text;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Replaces {@link TextFormat} tokens in messages in a single pass. The replacement for each token
+ * is looked up once from the {@link TextFormatParser} when the formatter is created and tokens are
+ * matched literally, grouped by their first character. Recently formatted messages are optionally
+ * cached (see {@link PerformanceConfiguration#messageCacheSize}).
+ */
+public final class TextTokenFormatter
+{
+
+    private static final Map<TextFormatParser, TextTokenFormatter> formatters = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Gets the shared formatter for the given parser, creating it if needed.
+     * 
+     * @param parser The format parser
+     * @return The formatter
+     */
+    public static TextTokenFormatter of(TextFormatParser parser)
+    {
+        TextTokenFormatter formatter = formatters.get(parser);
+        if (formatter == null)
+        {
+            formatter = new TextTokenFormatter(parser, PerformanceConfiguration.messageCacheSize);
+            formatters.put(parser, formatter);
+        }
+        return formatter;
+    }
+
+    private final Map<Character, String[][]> tokens;
+    private final Cache<String, String> cache;
+
+    /**
+     * Creates a new {@link TextTokenFormatter}.
+     * 
+     * @param parser The format parser to take replacements from
+     * @param cacheSize The number of formatted messages to cache, zero to disable caching
+     */
+    public TextTokenFormatter(TextFormatParser parser, int cacheSize)
+    {
+        checkNotNull(parser);
+        Map<Character, String[][]> table = Maps.newHashMap();
+        for (TextFormat format : TextFormat.values())
+        {
+            String token = format.toString();
+            if (token.isEmpty())
+            {
+                continue;
+            }
+            String[] entry = new String[] { token, parser.getFormat(format) };
+            String[][] group = table.get(token.charAt(0));
+            if (group == null)
+            {
+                group = new String[][] { entry };
+            } else
+            {
+                group = Arrays.copyOf(group, group.length + 1);
+                group[group.length - 1] = entry;
+            }
+            table.put(token.charAt(0), group);
+        }
+        // longest tokens first so that a token which prefixes another never shadows it
+        for (String[][] group : table.values())
+        {
+            Arrays.sort(group, Comparator.comparingInt((String[] e) -> e[0].length()).reversed());
+        }
+        this.tokens = table;
+        this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).<String, String> build() : null;
+    }
+
+    /**
+     * Replaces all format tokens in the given message.
+     * 
+     * @param msg The message
+     * @return The formatted message
+     */
+    public String format(String msg)
+    {
+        if (this.cache == null)
+        {
+            return replace(msg);
+        }
+        String formatted = this.cache.getIfPresent(msg);
+        if (formatted == null)
+        {
+            formatted = replace(msg);
+            this.cache.put(msg, formatted);
+        }
+        return formatted;
+    }
+
+    private String replace(String msg)
+    {
+        StringBuilder out = null;
+        int last = 0;
+        int length = msg.length();
+        for (int i = 0; i < length;)
+        {
+            String[][] group = this.tokens.get(msg.charAt(i));
+            String[] match = null;
+            if (group != null)
+            {
+                for (String[] entry : group)
+                {
+                    if (msg.startsWith(entry[0], i))
+                    {
+                        match = entry;
+                        break;
+                    }
+                }
+            }
+            if (match == null)
+            {
+                i++;
+                continue;
+            }
+            if (out == null)
+            {
+                out = new StringBuilder(length + 16);
+            }
+            out.append(msg, last, i).append(match[1]);
+            i += match[0].length();
+            last = i;
+        }
+        if (out == null)
+        {
+            return msg;
+        }
+        return out.append(msg, last, length).toString();
+    }
+
+    /**
+     * Splits the given message into lines and then into parts no longer than the given length,
+     * formatting each part and passing it to the given consumer.
+     * 
+     * @param msg The message
+     * @param maxLength The maximum length of each part before formatting
+     * @param sink The consumer of the formatted parts
+     */
+    public void formatLines(String msg, int maxLength, Consumer<String> sink)
+    {
+        int length = msg.length();
+        if (length == 0)
+        {
+            sink.accept(format(msg));
+            return;
+        }
+        int start = 0;
+        do
+        {
+            int end = msg.indexOf('\n', start);
+            if (end == -1)
+            {
+                end = length;
+            }
+            if (end == start)
+            {
+                if (end < length)
+                {
+                    sink.accept("");
+                }
+            } else
+            {
+                for (int i = start; i < end; i += maxLength)
+                {
+                    sink.accept(format(msg.substring(i, Math.min(end, i + maxLength))));
+                }
+            }
+            start = end + 1;
+        } while (start < length);
+    }
+
+}
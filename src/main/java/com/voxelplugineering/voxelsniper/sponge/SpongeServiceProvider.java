@@ -29,6 +29,7 @@ import java.util.Optional;
 
 import com.google.common.base.Function;
 import com.voxelplugineering.voxelsniper.Gunsmith;
+import com.voxelplugineering.voxelsniper.commands.StatsCommand;
 import com.voxelplugineering.voxelsniper.entity.Player;
 import com.voxelplugineering.voxelsniper.service.Builder;
 import com.voxelplugineering.voxelsniper.service.InitHook;
@@ -70,7 +71,11 @@ import com.voxelplugineering.voxelsniper.sponge.world.material.SpongeMaterialSta
 import com.voxelplugineering.voxelsniper.util.Context;
 import com.voxelplugineering.voxelsniper.util.Pair;
 import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloader;
+import com.voxelplugineering.voxelsniper.world.history.HistoryStore;
 import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
+import com.voxelplugineering.voxelsniper.world.volume.ParallelVolumeEvaluator;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
@@ -90,6 +95,10 @@ public class SpongeServiceProvider
 
     private final PluginContainer plugin;
     private final File root;
+    private final BudgetedChangeApplier changes = new BudgetedChangeApplier();
+    private final ChunkPreloader preloader = new ChunkPreloader();
+    private final ParallelVolumeEvaluator evaluator = new ParallelVolumeEvaluator();
+    private HistoryStore history;
 
     /**
      * Creates a new {@link SpongeServiceProvider}.
@@ -198,6 +207,7 @@ public class SpongeServiceProvider
     {
         CommandHandlerService cmd = (CommandHandlerService) service;
         cmd.setRegistrar(new SpongeCommandRegistrar(context));
+        cmd.registerCommand(new StatsCommand(context, this.changes));
     }
 
     @Builder(target = Scheduler.class, priority = ServicePriorities.SCHEDULER_PRIORITY)
@@ -206,6 +216,65 @@ public class SpongeServiceProvider
         return new SpongeSchedulerService(context, this.plugin);
     }
 
+    @InitHook(target = Scheduler.class)
+    public void startChangeApplier(Context context, Scheduler service)
+    {
+        this.changes.start(service);
+    }
+
+    /**
+     * Gets the applier which writes queued block changes on the main thread each tick.
+     * 
+     * @return The change applier
+     */
+    public BudgetedChangeApplier getChangeApplier()
+    {
+        return this.changes;
+    }
+
+    @InitHook(target = Scheduler.class)
+    public void startChunkPreloader(Context context, Scheduler service)
+    {
+        this.preloader.start(service);
+    }
+
+    /**
+     * Gets the preloader which loads the chunks of operations before they are started.
+     * 
+     * @return The chunk preloader
+     */
+    public ChunkPreloader getChunkPreloader()
+    {
+        return this.preloader;
+    }
+
+    /**
+     * Gets the evaluator which computes the changes of operations over world snapshots on worker
+     * threads. Its threads are stopped when the plugin is disabled.
+     * 
+     * @return The volume evaluator
+     */
+    public ParallelVolumeEvaluator getVolumeEvaluator()
+    {
+        return this.evaluator;
+    }
+
+    @InitHook(target = PlatformProxy.class)
+    public void createHistoryStore(Context context, PlatformProxy proxy)
+    {
+        this.history = new HistoryStore(new File(proxy.getRoot(), "history"), this.changes);
+    }
+
+    /**
+     * Gets the store which holds the undo history of each player.
+     * 
+     * @return The history store
+     */
+    public HistoryStore getHistoryStore()
+    {
+        return this.history;
+    }
+
     @Builder(target = BiomeRegistry.class, priority = ServicePriorities.BIOME_REGISTRY_PRIORITY)
     public BiomeRegistry<?> getBiomeRegistry(Context context)
     {
@@ -53,6 +53,7 @@ public class VoxelSniperSponge
     @Inject private org.slf4j.Logger logger;
     @Inject private PluginContainer plugin;
     @Inject @DefaultConfig(sharedRoot = false) private File defaultConfig;
+    private SpongeServiceProvider provider;
 
     /**
      * Marks the server as having sponge.
@@ -75,7 +76,8 @@ public class VoxelSniperSponge
     {
         instance = this;
         GunsmithLogger.getLogger().registerLogger("sponge", new Slf4jLogger(this.logger));
-        Gunsmith.getServiceManager().register(new SpongeServiceProvider(this.plugin, this.defaultConfig.getParentFile()));
+        this.provider = new SpongeServiceProvider(this.plugin, this.defaultConfig.getParentFile());
+        Gunsmith.getServiceManager().register(this.provider);
         Gunsmith.getServiceManager().start();
     }
 
@@ -91,6 +93,10 @@ public class VoxelSniperSponge
         {
             Gunsmith.getServiceManager().shutdown();
         }
+        if (this.provider != null)
+        {
+            this.provider.getVolumeEvaluator().shutdown();
+        }
     }
 
     /**
@@ -30,12 +30,20 @@ import com.voxelplugineering.voxelsniper.event.SniperEvent;
 import com.voxelplugineering.voxelsniper.event.SniperEvent.SniperDestroyEvent;
 import com.voxelplugineering.voxelsniper.service.eventbus.EventBus;
 import com.voxelplugineering.voxelsniper.service.registry.PlayerRegistry;
+import com.voxelplugineering.voxelsniper.service.registry.WorldRegistry;
 import com.voxelplugineering.voxelsniper.sponge.config.SpongeConfiguration;
+import com.voxelplugineering.voxelsniper.sponge.world.SpongeWorld;
 import com.voxelplugineering.voxelsniper.util.Context;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
 import org.spongepowered.api.event.block.InteractBlockEvent;
 import org.spongepowered.api.event.network.ClientConnectionEvent;
+import org.spongepowered.api.event.world.UnloadWorldEvent;
+import org.spongepowered.api.event.world.chunk.LoadChunkEvent;
+import org.spongepowered.api.event.world.chunk.UnloadChunkEvent;
 import org.spongepowered.api.item.ItemType;
 import org.spongepowered.api.item.ItemTypes;
 
@@ -49,6 +57,7 @@ public class SpongeEventHandler
 
     private final PlayerRegistry<org.spongepowered.api.entity.living.player.Player> players;
     private final EventBus bus;
+    private final WorldRegistry<org.spongepowered.api.world.World> worlds;
     private final ItemType primaryMaterial;
     private final ItemType altMaterial;
 
@@ -62,6 +71,7 @@ public class SpongeEventHandler
     {
         this.players = context.getRequired(PlayerRegistry.class);
         this.bus = context.getRequired(EventBus.class);
+        this.worlds = context.getRequired(WorldRegistry.class);
         this.primaryMaterial = Sponge.getRegistry().getType(ItemType.class, SpongeConfiguration.primaryMaterial)
                 .orElse(ItemTypes.ARROW);
         this.altMaterial = Sponge.getRegistry().getType(ItemType.class, SpongeConfiguration.altMaterial)
@@ -137,4 +147,51 @@ public class SpongeEventHandler
             this.bus.post(se);
         }
     }
+
+    /**
+     * An event handler for chunk load events, records the chunk as loaded in its world.
+     * 
+     * @param event The event
+     */
+    @Listener(order = Order.POST)
+    public void onChunkLoad(LoadChunkEvent event)
+    {
+        org.spongepowered.api.world.Chunk chunk = event.getTargetChunk();
+        Optional<World> world = this.worlds.getWorld(chunk.getWorld().getName());
+        if (world.isPresent())
+        {
+            ((SpongeWorld) world.get()).onChunkLoad(chunk.getPosition().getX(), chunk.getPosition().getZ());
+        }
+    }
+
+    /**
+     * An event handler for chunk unload events, records the chunk as no longer loaded in its world.
+     * 
+     * @param event The event
+     */
+    @Listener(order = Order.POST)
+    public void onChunkUnload(UnloadChunkEvent event)
+    {
+        org.spongepowered.api.world.Chunk chunk = event.getTargetChunk();
+        Optional<World> world = this.worlds.getWorld(chunk.getWorld().getName());
+        if (world.isPresent())
+        {
+            ((SpongeWorld) world.get()).onChunkUnload(chunk.getPosition().getX(), chunk.getPosition().getZ());
+        }
+    }
+
+    /**
+     * An event handler for world unload events, removes the metrics of the world from reporting.
+     * 
+     * @param event The event
+     */
+    @Listener(order = Order.POST)
+    public void onWorldUnload(UnloadWorldEvent event)
+    {
+        Optional<World> world = this.worlds.getWorld(event.getTargetWorld().getName());
+        if (world.isPresent())
+        {
+            WorldMetrics.remove(((SpongeWorld) world.get()).getMetrics());
+        }
+    }
 }
@@ -47,10 +47,24 @@ public class SpongeUtilities
 {
 
     private static final Map<org.spongepowered.api.entity.EntityType, SpongeEntityType> entityTypeCache;
+    private static final boolean canResendChunks;
 
     static
     {
         entityTypeCache = new MapMaker().weakKeys().makeMap();
+        canResendChunks = isClassPresent("net.minecraftforge.common.MinecraftForge");
+    }
+
+    private static boolean isClassPresent(String name)
+    {
+        try
+        {
+            Class.forName(name, false, SpongeUtilities.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e)
+        {
+            return false;
+        }
     }
 
     /**
@@ -157,4 +171,21 @@ public class SpongeUtilities
         return Optional.<Location>of(new CommonLocation(world.get(), position.getX(), position.getY(), position.getZ()));
     }
 
+    /**
+     * Resends the given chunk to every player which has it loaded. The sponge api does not expose
+     * this, so chunks can only be resent when running on forge, where the underlying server chunk
+     * is resent directly. On other implementations nothing is sent.
+     * 
+     * @param chunk The chunk to resend
+     * @return Whether the chunk could be resent
+     */
+    public static boolean resendChunk(org.spongepowered.api.world.Chunk chunk)
+    {
+        if (!canResendChunks)
+        {
+            return false;
+        }
+        return ServerChunkResender.resendChunk(chunk);
+    }
+
 }
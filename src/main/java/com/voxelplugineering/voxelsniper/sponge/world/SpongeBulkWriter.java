@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.sponge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.sponge.world.material.SpongeMaterialState;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeRecorder;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.event.cause.Cause;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link BulkWriter} for sponge worlds. Changes are written through the chunk which contains them
+ * without notifying neighbours and all share a single cause created with the writer.
+ * 
+ * <p>The sponge api has no way to write blocks without the implementation firing its block events
+ * and sending each change to the players in view, so no further resend is made here.</p>
+ */
+public class SpongeBulkWriter implements BulkWriter
+{
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final SpongeWorld world;
+    private final Cause cause;
+    private int[] positions;
+    private BlockState[] states;
+    private int size;
+    private ChangeRecorder recorder;
+
+    /**
+     * Creates a new {@link SpongeBulkWriter}.
+     * 
+     * @param world The world to write to
+     */
+    public SpongeBulkWriter(SpongeWorld world)
+    {
+        this.world = checkNotNull(world);
+        this.cause = world.createCause();
+        this.positions = new int[INITIAL_CAPACITY * 3];
+        this.states = new BlockState[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void setBlock(MaterialState material, int x, int y, int z)
+    {
+        checkNotNull(material);
+        if (y < 0 || y >= 256 || !(material instanceof SpongeMaterialState))
+        {
+            return;
+        }
+        if (this.size == this.states.length)
+        {
+            this.positions = Arrays.copyOf(this.positions, this.positions.length * 2);
+            this.states = Arrays.copyOf(this.states, this.states.length * 2);
+        }
+        int i = this.size * 3;
+        this.positions[i] = x;
+        this.positions[i + 1] = y;
+        this.positions[i + 2] = z;
+        this.states[this.size] = ((SpongeMaterialState) material).getState();
+        this.size++;
+    }
+
+    @Override
+    public int getPendingCount()
+    {
+        return this.size;
+    }
+
+    @Override
+    public void setRecorder(ChangeRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void apply()
+    {
+        org.spongepowered.api.world.World handle = this.world.getThis();
+        Map<Long, org.spongepowered.api.world.Chunk> touched = Maps.newHashMap();
+        long lastKey = 0;
+        org.spongepowered.api.world.Chunk chunk = null;
+        // applied in order, so a later change to a position replaces an earlier one
+        for (int n = 0, i = 0; n < this.size; n++, i += 3)
+        {
+            int x = this.positions[i];
+            int y = this.positions[i + 1];
+            int z = this.positions[i + 2];
+            long key = ChunkKeys.toKeyFromBlock(x, z);
+            if (chunk == null || key != lastKey)
+            {
+                lastKey = key;
+                chunk = touched.get(key);
+                if (chunk == null)
+                {
+                    Optional<org.spongepowered.api.world.Chunk> loaded = handle.loadChunk(x >> 4, 0, z >> 4, false);
+                    if (!loaded.isPresent())
+                    {
+                        continue;
+                    }
+                    chunk = loaded.get();
+                    touched.put(key, chunk);
+                }
+            }
+            if (this.recorder != null)
+            {
+                record(chunk.getBlock(x, y, z), this.states[n], x, y, z);
+            }
+            chunk.setBlock(x, y, z, this.states[n], false, this.cause);
+        }
+        Arrays.fill(this.states, 0, this.size, null);
+        this.world.getMetrics().recordWrite(this.size);
+        this.size = 0;
+    }
+
+    private void record(BlockState old, BlockState state, int x, int y, int z)
+    {
+        if (old.equals(state))
+        {
+            return;
+        }
+        MaterialState previous = this.world.getState(old);
+        MaterialState next = this.world.getState(state);
+        if (previous != null && next != null)
+        {
+            this.recorder.record(previous, next, x, y, z);
+        }
+    }
+
+}
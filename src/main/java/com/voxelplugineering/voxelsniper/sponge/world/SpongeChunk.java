@@ -25,7 +25,7 @@ package com.voxelplugineering.voxelsniper.sponge.world;
 
 import com.google.common.collect.Lists;
 import com.voxelplugineering.voxelsniper.entity.Entity;
-import com.voxelplugineering.voxelsniper.sponge.entity.SpongeEntity;
+import com.voxelplugineering.voxelsniper.sponge.util.SpongeUtilities;
 import com.voxelplugineering.voxelsniper.sponge.world.material.SpongeMaterial;
 import com.voxelplugineering.voxelsniper.sponge.world.material.SpongeMaterialState;
 import com.voxelplugineering.voxelsniper.util.Context;
@@ -108,15 +108,7 @@ public class SpongeChunk extends AbstractChunk<org.spongepowered.api.world.Chunk
         List<Entity> entities = Lists.newArrayList();
         for (org.spongepowered.api.entity.Entity e : getThis().getEntities())
         {
-            if (((SpongeWorld) this.getWorld()).entitiesCache.containsKey(e))
-            {
-                entities.add(((SpongeWorld) this.getWorld()).entitiesCache.get(e));
-            } else
-            {
-                Entity ent = new SpongeEntity(this.context, e);
-                ((SpongeWorld) this.getWorld()).entitiesCache.put(e, ent);
-                entities.add(ent);
-            }
+            entities.add(((SpongeWorld) this.getWorld()).wrap(e));
         }
         return entities;
     }
@@ -124,7 +116,7 @@ public class SpongeChunk extends AbstractChunk<org.spongepowered.api.world.Chunk
     @Override
     public void refreshChunk()
     {
-        // TODO Sponge refreshChunk
+        SpongeUtilities.resendChunk(getThis());
     }
 
     @Override
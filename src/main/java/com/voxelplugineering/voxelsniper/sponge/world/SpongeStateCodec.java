@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.sponge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Splitter;
+import com.voxelplugineering.voxelsniper.sponge.world.material.SpongeMaterialState;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.schematic.StateCodec;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.block.trait.BlockTrait;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link StateCodec} for sponge worlds, naming each state by its block type id followed by the
+ * values of its traits, for example {@code minecraft:stone[variant=granite]}.
+ */
+public class SpongeStateCodec implements StateCodec
+{
+
+    private static final Splitter TRAIT_SPLITTER = Splitter.on(',').omitEmptyStrings();
+
+    private final SpongeWorld world;
+
+    /**
+     * Creates a new {@link SpongeStateCodec}.
+     * 
+     * @param world The world to resolve states in
+     */
+    public SpongeStateCodec(SpongeWorld world)
+    {
+        this.world = checkNotNull(world);
+    }
+
+    @Override
+    public Optional<String> encode(MaterialState state)
+    {
+        if (!(state instanceof SpongeMaterialState))
+        {
+            return Optional.empty();
+        }
+        BlockState blockState = ((SpongeMaterialState) state).getState();
+        StringBuilder name = new StringBuilder(blockState.getType().getId());
+        Map<BlockTrait<?>, ?> traits = blockState.getTraitMap();
+        if (!traits.isEmpty())
+        {
+            name.append('[');
+            boolean first = true;
+            for (Map.Entry<BlockTrait<?>, ?> trait : traits.entrySet())
+            {
+                if (!first)
+                {
+                    name.append(',');
+                }
+                name.append(trait.getKey().getName()).append('=').append(trait.getValue());
+                first = false;
+            }
+            name.append(']');
+        }
+        return Optional.of(name.toString());
+    }
+
+    @Override
+    public Optional<MaterialState> decode(String name)
+    {
+        int open = name.indexOf('[');
+        String typeId = open < 0 ? name : name.substring(0, open);
+        Optional<BlockType> type = Sponge.getRegistry().getType(BlockType.class, typeId);
+        if (!type.isPresent())
+        {
+            return Optional.empty();
+        }
+        BlockState state = type.get().getDefaultState();
+        if (open >= 0 && name.endsWith("]"))
+        {
+            for (String pair : TRAIT_SPLITTER.split(name.substring(open + 1, name.length() - 1)))
+            {
+                int split = pair.indexOf('=');
+                if (split < 0)
+                {
+                    continue;
+                }
+                Optional<BlockTrait<?>> trait = state.getTrait(pair.substring(0, split));
+                if (!trait.isPresent())
+                {
+                    continue;
+                }
+                String value = pair.substring(split + 1);
+                for (Object possible : trait.get().getPossibleValues())
+                {
+                    if (possible.toString().equals(value))
+                    {
+                        state = state.withTrait(trait.get(), possible).orElse(state);
+                        break;
+                    }
+                }
+            }
+        }
+        return Optional.ofNullable(this.world.getState(state));
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.sponge.world;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkKeys;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link VolumeSource} for sponge worlds backed by one {@link ImmutableBlockVolume} copy of the
+ * part of each loaded chunk overlapping the volume.
+ */
+public class SpongeVolumeSnapshot implements VolumeSource
+{
+
+    private final SpongeWorld world;
+    private final Vector3i min;
+    private final Vector3i max;
+    private final Map<Long, ImmutableBlockVolume> chunks;
+
+    /**
+     * Creates a new {@link SpongeVolumeSnapshot}, copying every loaded chunk overlapping the given
+     * volume. This must be called from the world thread.
+     * 
+     * @param world The world
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     */
+    public SpongeVolumeSnapshot(SpongeWorld world, Vector3i min, Vector3i max)
+    {
+        this.world = checkNotNull(world);
+        this.min = checkNotNull(min);
+        this.max = checkNotNull(max);
+        this.chunks = Maps.newHashMap();
+        org.spongepowered.api.world.World handle = world.getThis();
+        int minY = Math.max(min.getY(), handle.getBlockMin().getY());
+        int maxY = Math.min(max.getY(), handle.getBlockMax().getY());
+        if (minY > maxY)
+        {
+            return;
+        }
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                Optional<org.spongepowered.api.world.Chunk> chunk = handle.getChunk(cx, 0, cz);
+                if (!chunk.isPresent())
+                {
+                    continue;
+                }
+                com.flowpowered.math.vector.Vector3i from =
+                        new com.flowpowered.math.vector.Vector3i(Math.max(min.getX(), cx << 4), minY, Math.max(min.getZ(), cz << 4));
+                com.flowpowered.math.vector.Vector3i to =
+                        new com.flowpowered.math.vector.Vector3i(Math.min(max.getX(), (cx << 4) + 15), maxY, Math.min(max.getZ(), (cz << 4) + 15));
+                this.chunks.put(ChunkKeys.toKey(cx, cz), chunk.get().getBlockView(from, to).getImmutableBlockCopy());
+            }
+        }
+    }
+
+    @Override
+    public Vector3i getMin()
+    {
+        return this.min;
+    }
+
+    @Override
+    public Vector3i getMax()
+    {
+        return this.max;
+    }
+
+    @Override
+    public Optional<MaterialState> getState(int x, int y, int z)
+    {
+        ImmutableBlockVolume chunk = this.chunks.get(ChunkKeys.toKeyFromBlock(x, z));
+        if (chunk == null || !chunk.containsBlock(x, y, z))
+        {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(this.world.getState(chunk.getBlock(x, y, z)));
+    }
+
+}
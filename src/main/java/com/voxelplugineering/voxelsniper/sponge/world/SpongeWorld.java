@@ -25,6 +25,7 @@ package com.voxelplugineering.voxelsniper.sponge.world;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
 import com.voxelplugineering.voxelsniper.entity.AbstractPlayer;
 import com.voxelplugineering.voxelsniper.entity.Entity;
 import com.voxelplugineering.voxelsniper.entity.EntityType;
@@ -47,7 +48,21 @@ import com.voxelplugineering.voxelsniper.world.Chunk;
 import com.voxelplugineering.voxelsniper.world.CommonBlock;
 import com.voxelplugineering.voxelsniper.world.CommonLocation;
 import com.voxelplugineering.voxelsniper.world.biome.Biome;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWritable;
+import com.voxelplugineering.voxelsniper.world.bulk.BulkWriter;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkPreloadable;
+import com.voxelplugineering.voxelsniper.world.chunk.ChunkWrapperCache;
+import com.voxelplugineering.voxelsniper.world.chunk.LoadedChunkSet;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockCursor;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitable;
+import com.voxelplugineering.voxelsniper.world.cursor.BlockVisitor;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.metrics.Instrumented;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+import com.voxelplugineering.voxelsniper.world.query.EntityQueryable;
+import com.voxelplugineering.voxelsniper.world.volume.Snapshottable;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
+import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.entity.EntityTypes;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.cause.NamedCause;
@@ -55,19 +70,26 @@ import org.spongepowered.api.event.cause.NamedCause;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A wrapper for Sponge's World.
  */
 public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World>
+        implements BlockVisitable, EntityQueryable, BulkWritable, Snapshottable, Instrumented, ChunkPreloadable
 {
 
     private final Context context;
     private final MaterialRegistry<org.spongepowered.api.block.BlockType> materials;
     private final BiomeRegistry<org.spongepowered.api.world.biome.BiomeType> biomes;
     private final Thread worldThread;
-    private final Map<org.spongepowered.api.world.Chunk, Chunk> chunks;
+    private final ChunkWrapperCache<SpongeChunk> chunks;
     protected final Map<org.spongepowered.api.entity.Entity, Entity> entitiesCache;
+    private final Map<BlockState, MaterialState> stateCache;
+    private final LoadedChunkSet loadedChunks;
+    private volatile boolean loadedChunksSeeded;
+    private final Cause cause;
+    private final WorldMetrics metrics;
 
     /**
      * Creates a new {@link SpongeWorld}.
@@ -83,9 +105,17 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         this.context = context;
         this.biomes = context.getRequired(BiomeRegistry.class);
         this.materials = context.getRequired(MaterialRegistry.class);
-        this.chunks = new MapMaker().weakKeys().makeMap();
+        this.chunks = new ChunkWrapperCache<SpongeChunk>();
         this.entitiesCache = new MapMaker().weakKeys().makeMap();
+        this.stateCache = new ConcurrentHashMap<BlockState, MaterialState>();
         this.worldThread = thread;
+        this.loadedChunks = new LoadedChunkSet();
+        this.cause = createCause();
+        this.metrics = WorldMetrics.create(world.getName());
+        if (Thread.currentThread() == this.worldThread)
+        {
+            seedLoadedChunks();
+        }
     }
 
     @Override
@@ -94,6 +124,80 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         return getThis().getName();
     }
 
+    private void seedLoadedChunks()
+    {
+        for (org.spongepowered.api.world.Chunk chunk : getThis().getLoadedChunks())
+        {
+            this.loadedChunks.add(chunk.getPosition().getX(), chunk.getPosition().getZ());
+        }
+        this.loadedChunksSeeded = true;
+    }
+
+    /**
+     * Records that the chunk at the given chunk coordinates has been loaded. This must be called
+     * from the world thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void onChunkLoad(int cx, int cz)
+    {
+        if (!this.loadedChunksSeeded)
+        {
+            seedLoadedChunks();
+        }
+        this.loadedChunks.add(cx, cz);
+        this.metrics.recordChunkLoad();
+    }
+
+    /**
+     * Records that the chunk at the given chunk coordinates has been unloaded. This must be called
+     * from the world thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void onChunkUnload(int cx, int cz)
+    {
+        if (!this.loadedChunksSeeded)
+        {
+            seedLoadedChunks();
+        }
+        this.loadedChunks.remove(cx, cz);
+        this.chunks.remove(cx, cz);
+    }
+
+    /**
+     * Gets whether the chunk at the given chunk coordinates is loaded. Once the set of loaded
+     * chunks has been captured on the world thread this is a lookup into that set and does not
+     * query the server.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return Is the chunk loaded
+     */
+    @Override
+    public boolean isChunkLoaded(int cx, int cz)
+    {
+        if (this.loadedChunksSeeded)
+        {
+            return this.loadedChunks.contains(cx, cz);
+        }
+        return getThis().getChunk(cx, 0, cz).isPresent();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The sponge api has no asynchronous chunk loading, the chunk is loaded or generated before
+     * this returns.</p>
+     */
+    @Override
+    public void requestChunkLoad(int cx, int cz)
+    {
+        getThis().loadChunk(cx, 0, cz, true);
+    }
+
     @Override
     public Optional<com.voxelplugineering.voxelsniper.world.Block> getBlock(int x, int y, int z)
     {
@@ -107,6 +211,7 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         {
             return Optional.empty();
         }
+        this.metrics.recordRead(1);
         org.spongepowered.api.world.Location<org.spongepowered.api.world.World> b = getThis().getLocation(x, y, z);
         Optional<com.voxelplugineering.voxelsniper.world.material.Material> m = this.materials.getMaterial(b.getBlockType());
         if (!m.isPresent())
@@ -118,18 +223,83 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         return Optional.<com.voxelplugineering.voxelsniper.world.Block>of(new CommonBlock(l, ms));
     }
 
-    private boolean checkAsyncBlockAccess(int x, int y, int z)
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>When called from a thread other than the world thread only loaded chunks are visited.</p>
+     */
+    @Override
+    public void visitBlocks(Vector3i min, Vector3i max, BlockVisitor visitor)
+    {
+        com.flowpowered.math.vector.Vector3i worldMin = getThis().getBlockMin();
+        com.flowpowered.math.vector.Vector3i worldMax = getThis().getBlockMax();
+        int minY = Math.max(min.getY(), worldMin.getY());
+        int maxY = Math.min(max.getY(), worldMax.getY());
+        boolean async = Thread.currentThread() != this.worldThread;
+        BlockCursor cursor = new BlockCursor(this);
+        long read = 0;
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+        {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+            {
+                if (async && !isChunkLoaded(cx, cz))
+                {
+                    continue;
+                }
+                int x1 = Math.min(max.getX(), (cx << 4) + 15);
+                int z1 = Math.min(max.getZ(), (cz << 4) + 15);
+                for (int y = minY; y <= maxY; y++)
+                {
+                    for (int z = Math.max(min.getZ(), cz << 4); z <= z1; z++)
+                    {
+                        for (int x = Math.max(min.getX(), cx << 4); x <= x1; x++)
+                        {
+                            read++;
+                            MaterialState state = getState(getThis().getBlock(x, y, z));
+                            if (state == null)
+                            {
+                                continue;
+                            }
+                            cursor.set(x, y, z, -1, state);
+                            if (!visitor.visit(cursor))
+                            {
+                                this.metrics.recordRead(read);
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        this.metrics.recordRead(read);
+    }
+
+    /**
+     * Gets the {@link MaterialState} for the given sponge block state, memoized so that repeated
+     * lookups do not go through the material registry.
+     * 
+     * @param block The block state
+     * @return The material state, or null if the block type is unknown
+     */
+    MaterialState getState(BlockState block)
     {
-        if (Thread.currentThread() != this.worldThread)
+        MaterialState state = this.stateCache.get(block);
+        if (state == null)
         {
-            int cx = x < 0 ? (x / 16 - 1) : x / 16;
-            int cz = z < 0 ? (z / 16 - 1) : z / 16;
-            if (!getThis().getChunk(new com.flowpowered.math.vector.Vector3i(cx, 0, cz)).isPresent())
+            Optional<com.voxelplugineering.voxelsniper.world.material.Material> m = this.materials.getMaterial(block.getType());
+            if (!m.isPresent())
             {
-                return false;
+                return null;
             }
+            state = ((SpongeMaterial) m.get()).getState(block);
+            this.stateCache.put(block, state);
         }
-        return true;
+        return state;
+    }
+
+    private boolean checkAsyncBlockAccess(int x, int y, int z)
+    {
+        return (PerformanceConfiguration.loadChunksOnRead && Thread.currentThread() == this.worldThread) || isChunkLoaded(x >> 4, z >> 4);
     }
 
     @Override
@@ -143,11 +313,41 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         if (material instanceof SpongeMaterialState)
         {
             SpongeMaterialState spongeMaterial = (SpongeMaterialState) material;
-            // TODO construct the cause with the executor of the brush or queue.
-            getThis().setBlock(x, y, z, spongeMaterial.getState(), update, Cause.of(NamedCause.source(VoxelSniperSponge.instance.getContainer())));
+            getThis().setBlock(x, y, z, spongeMaterial.getState(), update, this.cause);
+            this.metrics.recordWrite(1);
         }
     }
 
+    @Override
+    public WorldMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Creates the cause which is attached to the block changes of a single operation. Changes made
+     * outside of an operation share one cause created with the world.
+     * 
+     * @return The new cause
+     */
+    Cause createCause()
+    {
+        // TODO construct the cause with the executor of the brush or queue.
+        return Cause.of(NamedCause.source(VoxelSniperSponge.instance.getContainer()));
+    }
+
+    @Override
+    public BulkWriter createBulkWriter()
+    {
+        return new SpongeBulkWriter(this);
+    }
+
+    @Override
+    public VolumeSource createSnapshot(Vector3i min, Vector3i max)
+    {
+        return new SpongeVolumeSnapshot(this, min, max);
+    }
+
     @Override
     public MaterialRegistry<org.spongepowered.api.block.BlockType> getMaterialRegistry()
     {
@@ -160,14 +360,88 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         List<Entity> entities = Lists.newArrayList();
         for (org.spongepowered.api.entity.Entity e : getThis().getEntities())
         {
-            if (this.entitiesCache.containsKey(e))
-            {
-                entities.add(this.entitiesCache.get(e));
-            } else
+            entities.add(wrap(e));
+        }
+        return entities;
+    }
+
+    /**
+     * Gets the wrapper for the given sponge entity, creating and caching it if one does not exist
+     * yet.
+     * 
+     * @param entity The sponge entity
+     * @return The wrapped entity
+     */
+    public Entity wrap(org.spongepowered.api.entity.Entity entity)
+    {
+        Entity ent = this.entitiesCache.get(entity);
+        if (ent == null)
+        {
+            ent = new SpongeEntity(this.context, entity);
+            this.entitiesCache.put(entity, ent);
+        }
+        return ent;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Only the entities of the loaded chunks overlapping the box are visited.</p>
+     */
+    @Override
+    public List<Entity> getEntitiesWithin(Vector3d min, Vector3d max)
+    {
+        return queryEntities(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Only the entities of the loaded chunks overlapping the sphere are visited.</p>
+     */
+    @Override
+    public List<Entity> getEntitiesNear(Vector3d center, double radius)
+    {
+        return queryEntities(center.getX() - radius, center.getY() - radius, center.getZ() - radius, center.getX() + radius,
+                center.getY() + radius, center.getZ() + radius, center, radius * radius);
+    }
+
+    private List<Entity> queryEntities(double x0, double y0, double z0, double x1, double y1, double z1, Vector3d center,
+            double radiusSquared)
+    {
+        List<Entity> entities = Lists.newArrayList();
+        for (int cx = (int) Math.floor(x0) >> 4; cx <= (int) Math.floor(x1) >> 4; cx++)
+        {
+            for (int cz = (int) Math.floor(z0) >> 4; cz <= (int) Math.floor(z1) >> 4; cz++)
             {
-                Entity ent = new SpongeEntity(this.context, e);
-                this.entitiesCache.put(e, ent);
-                entities.add(ent);
+                if (!isChunkLoaded(cx, cz))
+                {
+                    continue;
+                }
+                Optional<org.spongepowered.api.world.Chunk> chunk = getThis().getChunk(cx, 0, cz);
+                if (!chunk.isPresent())
+                {
+                    continue;
+                }
+                for (org.spongepowered.api.entity.Entity e : chunk.get().getEntities())
+                {
+                    com.flowpowered.math.vector.Vector3d pos = e.getLocation().getPosition();
+                    if (pos.getX() < x0 || pos.getX() > x1 || pos.getY() < y0 || pos.getY() > y1 || pos.getZ() < z0 || pos.getZ() > z1)
+                    {
+                        continue;
+                    }
+                    if (center != null)
+                    {
+                        double dx = pos.getX() - center.getX();
+                        double dy = pos.getY() - center.getY();
+                        double dz = pos.getZ() - center.getZ();
+                        if (dx * dx + dy * dy + dz * dz > radiusSquared)
+                        {
+                            continue;
+                        }
+                    }
+                    entities.add(wrap(e));
+                }
             }
         }
         return entities;
@@ -180,26 +454,26 @@ public class SpongeWorld extends AbstractWorld<org.spongepowered.api.world.World
         {
             return Optional.empty();
         }
-        org.spongepowered.api.world.Chunk chunk = getThis().getChunk(x, y, z).get();
-        if (this.chunks.containsKey(chunk))
+        SpongeChunk cached = this.chunks.get(x, z);
+        if (cached != null)
         {
-            return Optional.of(this.chunks.get(chunk));
+            this.metrics.recordChunkLookup(true);
+            return Optional.<Chunk>of(cached);
         }
-        SpongeChunk newChunk = new SpongeChunk(this.context, chunk, this);
-        this.chunks.put(chunk, newChunk);
+        this.metrics.recordChunkLookup(false);
+        Optional<org.spongepowered.api.world.Chunk> chunk = getThis().getChunk(x, y, z);
+        if (!chunk.isPresent())
+        {
+            return Optional.empty();
+        }
+        SpongeChunk newChunk = new SpongeChunk(this.context, chunk.get(), this);
+        this.chunks.put(x, z, newChunk);
         return Optional.<Chunk>of(newChunk);
     }
 
     private boolean checkAsyncChunkAccess(int x, int y, int z)
     {
-        if (Thread.currentThread() != this.worldThread)
-        {
-            if (!getThis().getChunk(new com.flowpowered.math.vector.Vector3i(x, y, z)).isPresent())
-            {
-                return false;
-            }
-        }
-        return true;
+        return (PerformanceConfiguration.loadChunksOnRead && Thread.currentThread() == this.worldThread) || isChunkLoaded(x, z);
     }
 
     @Override
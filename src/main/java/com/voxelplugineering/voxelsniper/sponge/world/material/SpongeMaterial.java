@@ -26,11 +26,13 @@ package com.voxelplugineering.voxelsniper.sponge.world.material;
 import com.google.common.collect.Lists;
 import com.voxelplugineering.voxelsniper.registry.WeakWrapper;
 import com.voxelplugineering.voxelsniper.world.material.Material;
+import com.voxelplugineering.voxelsniper.world.material.MaterialProperties;
 import com.voxelplugineering.voxelsniper.world.material.MaterialState;
 import com.voxelplugineering.voxelsniper.world.material.MaterialStateCache;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.data.property.BooleanProperty;
 import org.spongepowered.api.data.property.block.GravityAffectedProperty;
 import org.spongepowered.api.data.property.block.MatterProperty;
 import org.spongepowered.api.data.property.block.MatterProperty.Matter;
@@ -160,6 +162,7 @@ public class SpongeMaterial extends WeakWrapper<BlockType>implements Material
     }
 
     private final MaterialStateCache<BlockState, SpongeMaterialState> cache;
+    private final int properties;
 
     /**
      * Creates {@link SpongeMaterial}.
@@ -170,6 +173,31 @@ public class SpongeMaterial extends WeakWrapper<BlockType>implements Material
     {
         super(type);
         this.cache = cache;
+        this.properties = MaterialProperties.flag(MaterialProperties.GRAVITY, getBooleanProperty(type, GravityAffectedProperty.class))
+                | MaterialProperties.flag(MaterialProperties.SOLID, getBooleanProperty(type, PassableProperty.class))
+                | MaterialProperties.flag(MaterialProperties.LIQUID, isMatter(type, Matter.LIQUID))
+                | MaterialProperties.flag(MaterialProperties.RELIANT_ON_ENVIRONMENT, FALLOFF_MATERIALS.contains(type))
+                | MaterialProperties.flag(MaterialProperties.FLAMMABLE, FLAMMABLE.contains(type));
+    }
+
+    private static boolean getBooleanProperty(BlockType type, Class<? extends BooleanProperty> property)
+    {
+        Optional<? extends BooleanProperty> prop = type.getProperty(property);
+        if (prop.isPresent())
+        {
+            return prop.get().getValue();
+        }
+        return false;
+    }
+
+    private static boolean isMatter(BlockType type, Matter matter)
+    {
+        Optional<MatterProperty> prop = type.getProperty(MatterProperty.class);
+        if (prop.isPresent())
+        {
+            return prop.get().getValue() == matter;
+        }
+        return false;
     }
 
     @Override
@@ -187,46 +215,31 @@ public class SpongeMaterial extends WeakWrapper<BlockType>implements Material
     @Override
     public boolean isAffectedByGravity()
     {
-        Optional<GravityAffectedProperty> prop = getThis().getProperty(GravityAffectedProperty.class);
-        if (prop.isPresent())
-        {
-            return prop.get().getValue();
-        }
-        return false;
+        return MaterialProperties.has(this.properties, MaterialProperties.GRAVITY);
     }
 
     @Override
     public boolean isSolid()
     {
-        Optional<PassableProperty> prop = getThis().getProperty(PassableProperty.class);
-        if (prop.isPresent())
-        {
-            return prop.get().getValue();
-        }
-        return false;
+        return MaterialProperties.has(this.properties, MaterialProperties.SOLID);
     }
 
     @Override
     public boolean isLiquid()
     {
-        Optional<MatterProperty> prop = getThis().getProperty(MatterProperty.class);
-        if (prop.isPresent())
-        {
-            return prop.get().getValue() == Matter.LIQUID;
-        }
-        return false;
+        return MaterialProperties.has(this.properties, MaterialProperties.LIQUID);
     }
 
     @Override
     public boolean isReliantOnEnvironment()
     {
-        return FALLOFF_MATERIALS.contains(getThis());
+        return MaterialProperties.has(this.properties, MaterialProperties.RELIANT_ON_ENVIRONMENT);
     }
 
     @Override
     public boolean isFlammable()
     {
-        return FLAMMABLE.contains(getThis());
+        return MaterialProperties.has(this.properties, MaterialProperties.FLAMMABLE);
     }
 
     @Override
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.buffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+
+import java.util.Arrays;
+
+/**
+ * A cuboid volume of platform specific block state ids, stored in a single primitive array. The
+ * buffer is indexed in world coordinates and laid out with x varying fastest, then z, then y.
+ */
+public class StateIdBuffer
+{
+
+    /**
+     * The id stored for any position which could not be read.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final Vector3i min;
+    private final Vector3i max;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int[] data;
+
+    /**
+     * Creates a new {@link StateIdBuffer} covering the given inclusive bounds, all positions are
+     * initially {@link #UNKNOWN}.
+     *
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @throws IllegalArgumentException If the volume has more positions than an array can hold
+     */
+    public StateIdBuffer(Vector3i min, Vector3i max)
+    {
+        this.min = checkNotNull(min);
+        this.max = checkNotNull(max);
+        checkArgument(min.getX() <= max.getX() && min.getY() <= max.getY() && min.getZ() <= max.getZ(), "Minimum must not exceed maximum");
+        long sizeX = (long) max.getX() - min.getX() + 1;
+        long sizeY = (long) max.getY() - min.getY() + 1;
+        long sizeZ = (long) max.getZ() - min.getZ() + 1;
+        // each factor is bounded before it is multiplied so that the products cannot overflow a long
+        checkArgument(sizeX <= Integer.MAX_VALUE && sizeY <= Integer.MAX_VALUE && sizeZ <= Integer.MAX_VALUE
+                && sizeX * sizeY <= Integer.MAX_VALUE && sizeX * sizeY * sizeZ <= Integer.MAX_VALUE,
+                "Volume of %sx%sx%s is too large for a state id buffer", sizeX, sizeY, sizeZ);
+        this.sizeX = (int) sizeX;
+        this.sizeY = (int) sizeY;
+        this.sizeZ = (int) sizeZ;
+        this.data = new int[this.sizeX * this.sizeY * this.sizeZ];
+        Arrays.fill(this.data, UNKNOWN);
+    }
+
+    /**
+     * Gets the minimum corner of this buffer.
+     *
+     * @return The minimum corner
+     */
+    public Vector3i getMin()
+    {
+        return this.min;
+    }
+
+    /**
+     * Gets the maximum corner of this buffer.
+     *
+     * @return The maximum corner
+     */
+    public Vector3i getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * Gets the total number of positions in this buffer.
+     *
+     * @return The volume
+     */
+    public int getVolume()
+    {
+        return this.data.length;
+    }
+
+    /**
+     * Gets whether the given world position lies within this buffer.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return Is within the buffer
+     */
+    public boolean contains(int x, int y, int z)
+    {
+        return x >= this.min.getX() && x <= this.max.getX() && y >= this.min.getY() && y <= this.max.getY() && z >= this.min.getZ()
+                && z <= this.max.getZ();
+    }
+
+    /**
+     * Gets the index into the raw data array of the given world position. The position is not
+     * bounds checked.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The index
+     */
+    public int getIndex(int x, int y, int z)
+    {
+        return ((y - this.min.getY()) * this.sizeZ + (z - this.min.getZ())) * this.sizeX + (x - this.min.getX());
+    }
+
+    /**
+     * Gets the state id at the given world position.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The state id, or {@link #UNKNOWN} if outside of this buffer or not read
+     */
+    public int get(int x, int y, int z)
+    {
+        if (!contains(x, y, z))
+        {
+            return UNKNOWN;
+        }
+        return this.data[getIndex(x, y, z)];
+    }
+
+    /**
+     * Sets the state id at the given world position.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param id The state id
+     */
+    public void set(int x, int y, int z, int id)
+    {
+        if (!contains(x, y, z))
+        {
+            return;
+        }
+        this.data[getIndex(x, y, z)] = id;
+    }
+
+    /**
+     * Gets the backing array of this buffer, see {@link #getIndex(int, int, int)} for its layout.
+     *
+     * @return The raw data
+     */
+    public int[] getRawData()
+    {
+        return this.data;
+    }
+
+}
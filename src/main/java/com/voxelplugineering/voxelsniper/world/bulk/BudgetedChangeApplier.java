@@ -0,0 +1,380 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.bulk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.metrics.Instrumented;
+import com.voxelplugineering.voxelsniper.world.metrics.MetricsJmx;
+import com.voxelplugineering.voxelsniper.world.metrics.WorldMetrics;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies queued {@link ChangeSet}s on the main thread, running once per tick and stopping each
+ * tick once the configured time budget (see {@link PerformanceConfiguration#changeBudgetMillis})
+ * has been spent. Any remaining changes are carried over to the following tick.
+ * 
+ * <p>Changes to worlds which are {@link BulkWritable} are collected into a {@link BulkWriter} and
+ * applied in slices, otherwise they are set individually without physics updates. Queueing stops
+ * once the measured cost of applying the pending changes would exceed the budget, so the time
+ * spent by the writer is counted against the budget as well.</p>
+ * 
+ * <p>Change sets with a {@link ChangeRecorder} have the previous state of each position recorded
+ * as it is written, and their recorder is completed once the whole set has been written.</p>
+ * 
+ * <p>If writing a change set fails the error is logged and the rest of that set is dropped, so
+ * that a failing set is not retried every tick.</p>
+ * 
+ * <p>The time spent on each change set is attributed to its source in the {@link WorldMetrics}
+ * of worlds which are {@link Instrumented}.</p>
+ */
+public class BudgetedChangeApplier implements Runnable, ChangeApplierMXBean
+{
+
+    private static final String JMX_TYPE = "ChangeApplier";
+    private static final int TICK_INTERVAL = 50;
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+    private static final double DRAIN_RATE_SMOOTHING = 0.1;
+    private static final int APPLY_SLICE = 4096;
+    private static final double INITIAL_APPLY_NANOS = 1000;
+    private static final double APPLY_COST_SMOOTHING = 0.2;
+
+    private final Queue<ChangeSet> queue;
+    private final AtomicLong pending;
+    private final LongAdder applied;
+    private ChangeSet current;
+    private int index;
+    private Optional<? extends Task> task;
+    private long lastRun;
+    private volatile int lastTickApplied;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile double drainRate;
+    private double applyNanosPerBlock = INITIAL_APPLY_NANOS;
+
+    /**
+     * Creates a new {@link BudgetedChangeApplier}.
+     */
+    public BudgetedChangeApplier()
+    {
+        this.queue = new ConcurrentLinkedQueue<ChangeSet>();
+        this.pending = new AtomicLong();
+        this.applied = new LongAdder();
+        this.task = Optional.empty();
+    }
+
+    /**
+     * Starts this applier running every tick on the given scheduler.
+     * 
+     * @param scheduler The scheduler
+     */
+    public void start(Scheduler scheduler)
+    {
+        stop();
+        this.task = scheduler.startSynchronousTask(this, TICK_INTERVAL);
+        MetricsJmx.register(this, JMX_TYPE, null);
+    }
+
+    /**
+     * Stops this applier, any queued changes are kept and will be applied if it is started again.
+     */
+    public void stop()
+    {
+        if (this.task.isPresent())
+        {
+            this.task.get().cancel();
+            this.task = Optional.empty();
+            MetricsJmx.unregister(JMX_TYPE, null);
+        }
+    }
+
+    /**
+     * Queues the given changes to be applied on the main thread. This may be called from any
+     * thread.
+     * 
+     * @param changes The changes
+     */
+    public void submit(ChangeSet changes)
+    {
+        checkNotNull(changes);
+        if (changes.size() == 0)
+        {
+            return;
+        }
+        this.pending.addAndGet(changes.size());
+        this.queue.add(changes);
+    }
+
+    /**
+     * Queues the given changes to be applied on the main thread, attributing them to the given
+     * source. This may be called from any thread.
+     * 
+     * @param changes The changes
+     * @param source The source of the changes, typically the player and brush which produced them
+     */
+    public void submit(ChangeSet changes, String source)
+    {
+        checkNotNull(changes);
+        changes.setSource(source);
+        submit(changes);
+    }
+
+    @Override
+    public long getQueueDepth()
+    {
+        return this.pending.get();
+    }
+
+    @Override
+    public long getAppliedCount()
+    {
+        return this.applied.sum();
+    }
+
+    @Override
+    public int getLastTickApplied()
+    {
+        return this.lastTickApplied;
+    }
+
+    @Override
+    public long getLastTickNanos()
+    {
+        return this.lastTickNanos;
+    }
+
+    @Override
+    public long getMaxTickNanos()
+    {
+        return this.maxTickNanos;
+    }
+
+    @Override
+    public void resetMaxTickNanos()
+    {
+        this.maxTickNanos = 0;
+    }
+
+    @Override
+    public double getDrainRate()
+    {
+        return this.drainRate;
+    }
+
+    @Override
+    public void run()
+    {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(PerformanceConfiguration.changeBudgetMillis);
+        int count = 0;
+        int dropped = 0;
+        World writerWorld = null;
+        BulkWriter writer = null;
+        String writerSource = null;
+        ChangeRecorder writerRecorder = null;
+        long segmentStart = start;
+        while (true)
+        {
+            if (this.current == null || this.index >= this.current.size())
+            {
+                this.current = this.queue.poll();
+                this.index = 0;
+                if (this.current == null)
+                {
+                    break;
+                }
+            }
+            ChangeSet changes = this.current;
+            World world = changes.getWorld();
+            long segmentEnd;
+            boolean completed = false;
+            try
+            {
+                if (world != writerWorld)
+                {
+                    if (writer != null)
+                    {
+                        segmentStart = applyWriter(writerWorld, writer, writerSource, segmentStart);
+                    }
+                    writerWorld = world;
+                    writer = world instanceof BulkWritable ? ((BulkWritable) world).createBulkWriter() : null;
+                    writerRecorder = null;
+                }
+                if (writer != null && changes.getRecorder() != writerRecorder)
+                {
+                    // pending changes are recorded by the recorder which is set when they are written
+                    if (writer.getPendingCount() > 0)
+                    {
+                        segmentStart = applyWriter(writerWorld, writer, writerSource, segmentStart);
+                    }
+                    writerRecorder = changes.getRecorder();
+                    writer.setRecorder(writerRecorder);
+                }
+                writerSource = changes.getSource();
+                int end = Math.min(changes.size(), this.index + CLOCK_CHECK_INTERVAL);
+                for (int i = this.index; i < end; i++)
+                {
+                    if (writer != null)
+                    {
+                        writer.setBlock(changes.getState(i), changes.getX(i), changes.getY(i), changes.getZ(i));
+                    } else
+                    {
+                        world.setBlock(changes.getState(i), changes.getX(i), changes.getY(i), changes.getZ(i), false);
+                    }
+                }
+                count += end - this.index;
+                segmentEnd = System.nanoTime();
+                if (world instanceof Instrumented)
+                {
+                    ((Instrumented) world).getMetrics().recordApply(changes.getSource(), end - this.index, segmentEnd - segmentStart);
+                }
+                segmentStart = segmentEnd;
+                this.index = end;
+                if (this.index >= changes.size() && changes.getRecorder() != null)
+                {
+                    if (writer != null)
+                    {
+                        segmentEnd = applyWriter(writerWorld, writer, writerSource, segmentStart);
+                        segmentStart = segmentEnd;
+                    }
+                    completed = true;
+                    changes.getRecorder().complete();
+                }
+                if (writer != null && writer.getPendingCount() >= APPLY_SLICE)
+                {
+                    // applied in slices so that the time taken by the writer is checked against the budget
+                    segmentEnd = applyWriter(writerWorld, writer, writerSource, segmentStart);
+                    segmentStart = segmentEnd;
+                }
+            } catch (RuntimeException e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error applying changes from " + changes.getSource()
+                        + ", the remaining changes of the set have been dropped");
+                dropped += drop(changes, !completed);
+                // the writer may have been left part way through an apply, so it is not reused
+                writer = null;
+                writerWorld = null;
+                writerRecorder = null;
+                segmentEnd = System.nanoTime();
+                segmentStart = segmentEnd;
+            }
+            long applyEstimate = writer == null ? 0 : (long) (writer.getPendingCount() * this.applyNanosPerBlock);
+            if (segmentEnd + applyEstimate >= deadline)
+            {
+                break;
+            }
+        }
+        if (writer != null)
+        {
+            try
+            {
+                applyWriter(writerWorld, writer, writerSource, segmentStart);
+            } catch (RuntimeException e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error applying changes from " + writerSource);
+            }
+        }
+        if (this.current != null && this.index >= this.current.size())
+        {
+            this.current = null;
+        }
+        long now = System.nanoTime();
+        this.pending.addAndGet(-count - dropped);
+        this.applied.add(count);
+        this.lastTickApplied = count;
+        this.lastTickNanos = now - start;
+        if (this.lastTickNanos > this.maxTickNanos)
+        {
+            this.maxTickNanos = this.lastTickNanos;
+        }
+        if (this.lastRun != 0 && now > this.lastRun)
+        {
+            double rate = count * (double) TimeUnit.SECONDS.toNanos(1) / (now - this.lastRun);
+            this.drainRate += (rate - this.drainRate) * DRAIN_RATE_SMOOTHING;
+        }
+        this.lastRun = now;
+    }
+
+    /**
+     * Skips the remaining changes of the given set after a failure, completing its recorder so
+     * that the changes which were written are still kept in the history.
+     * 
+     * @param changes The change set which failed
+     * @param complete Whether the recorder of the set has yet to be completed
+     * @return The number of changes skipped
+     */
+    private int drop(ChangeSet changes, boolean complete)
+    {
+        int skipped = changes.size() - this.index;
+        this.index = changes.size();
+        if (complete && changes.getRecorder() != null)
+        {
+            try
+            {
+                changes.getRecorder().complete();
+            } catch (RuntimeException e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error completing the history of " + changes.getSource());
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Applies the given writer, attributing the time taken to the source of the last changes
+     * written to it. The time taken per block updates the estimate used to stop queueing changes
+     * before the writer would overrun the budget.
+     * 
+     * @return The time at which the writer finished applying
+     */
+    private long applyWriter(World world, BulkWriter writer, String source, long start)
+    {
+        int blocks = writer.getPendingCount();
+        long applyStart = System.nanoTime();
+        writer.apply();
+        long end = System.nanoTime();
+        if (blocks > 0)
+        {
+            double cost = (end - applyStart) / (double) blocks;
+            this.applyNanosPerBlock += (cost - this.applyNanosPerBlock) * APPLY_COST_SMOOTHING;
+        }
+        if (world instanceof Instrumented)
+        {
+            ((Instrumented) world).getMetrics().recordApply(source, 0, end - start);
+        }
+        return end;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.bulk;
+
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+/**
+ * A writer which collects block changes and applies them to the world together, allowing the
+ * platform to skip the per-block overhead of updates, relighting and packets.
+ */
+public interface BulkWriter
+{
+
+    /**
+     * Queues a change to the given position. Later changes to the same position replace earlier
+     * ones.
+     * 
+     * @param material The new material state
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    void setBlock(MaterialState material, int x, int y, int z);
+
+    /**
+     * Gets the number of changes which are queued and not yet applied.
+     * 
+     * @return The pending change count
+     */
+    int getPendingCount();
+
+    /**
+     * Sets the recorder which is told of the previous and new state of every position as the
+     * pending changes are written. Writers which cannot read the previous state of a position
+     * record nothing.
+     * 
+     * @param recorder The recorder, or null to stop recording
+     */
+    void setRecorder(ChangeRecorder recorder);
+
+    /**
+     * Writes all pending changes to the world and clears them from this writer. This must be
+     * called from the world thread.
+     */
+    void apply();
+
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.bulk;
+
+/**
+ * The JMX management interface of {@link BudgetedChangeApplier}.
+ */
+public interface ChangeApplierMXBean
+{
+
+    /**
+     * Gets the number of changes which are queued and not yet applied.
+     * 
+     * @return The queue depth
+     */
+    long getQueueDepth();
+
+    /**
+     * Gets the total number of changes applied by this applier.
+     * 
+     * @return The applied change count
+     */
+    long getAppliedCount();
+
+    /**
+     * Gets the number of changes applied in the most recent tick.
+     * 
+     * @return The changes applied last tick
+     */
+    int getLastTickApplied();
+
+    /**
+     * Gets the time spent applying changes in the most recent tick.
+     * 
+     * @return The time, in nanoseconds
+     */
+    long getLastTickNanos();
+
+    /**
+     * Gets the longest time spent applying changes in a single tick since the maximum was last
+     * reset.
+     * 
+     * @return The time, in nanoseconds
+     */
+    long getMaxTickNanos();
+
+    /**
+     * Resets the maximum tick time.
+     */
+    void resetMaxTickNanos();
+
+    /**
+     * Gets the smoothed rate at which queued changes are being applied.
+     * 
+     * @return The drain rate, in changes per second
+     */
+    double getDrainRate();
+
+}
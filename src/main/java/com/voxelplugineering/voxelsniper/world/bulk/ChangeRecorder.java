@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.bulk;
+
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+/**
+ * Receives the previous and new state of each position changed by a {@link ChangeSet} as the
+ * changes are written, see {@link ChangeSet#setRecorder(ChangeRecorder)}.
+ */
+public interface ChangeRecorder
+{
+
+    /**
+     * Records a change as it is written. This is called from the main thread.
+     * 
+     * @param previous The state before the change
+     * @param next The state after the change
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    void record(MaterialState previous, MaterialState next, int x, int y, int z);
+
+    /**
+     * Called from the main thread once every change of the set has been written.
+     */
+    void complete();
+
+}
@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.bulk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.util.Arrays;
+
+/**
+ * An ordered set of block changes to a single world, stored in primitive arrays so that large
+ * edits may be built off of the main thread and handed to a {@link BudgetedChangeApplier}.
+ */
+public class ChangeSet
+{
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final World world;
+    private int[] positions;
+    private MaterialState[] states;
+    private int size;
+    private String source;
+    private ChangeRecorder recorder;
+
+    /**
+     * Creates a new, empty {@link ChangeSet}.
+     * 
+     * @param world The world the changes are to
+     */
+    public ChangeSet(World world)
+    {
+        this(world, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty {@link ChangeSet} with room for the given number of changes before
+     * growing.
+     * 
+     * @param world The world the changes are to
+     * @param capacity The initial capacity
+     */
+    public ChangeSet(World world, int capacity)
+    {
+        this.world = checkNotNull(world);
+        capacity = Math.max(capacity, 16);
+        this.positions = new int[capacity * 3];
+        this.states = new MaterialState[capacity];
+    }
+
+    /**
+     * Adds a change to the given position.
+     * 
+     * @param material The new material state
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public void add(MaterialState material, int x, int y, int z)
+    {
+        checkNotNull(material);
+        if (this.size == this.states.length)
+        {
+            this.states = Arrays.copyOf(this.states, this.size * 2);
+            this.positions = Arrays.copyOf(this.positions, this.size * 6);
+        }
+        int i = this.size * 3;
+        this.positions[i] = x;
+        this.positions[i + 1] = y;
+        this.positions[i + 2] = z;
+        this.states[this.size++] = material;
+    }
+
+    /**
+     * Adds all changes of the given set to the end of this set.
+     * 
+     * @param changes The changes to add
+     */
+    public void addAll(ChangeSet changes)
+    {
+        checkNotNull(changes);
+        int required = this.size + changes.size;
+        if (required > this.states.length)
+        {
+            int capacity = Math.max(required, this.states.length * 2);
+            this.states = Arrays.copyOf(this.states, capacity);
+            this.positions = Arrays.copyOf(this.positions, capacity * 3);
+        }
+        System.arraycopy(changes.states, 0, this.states, this.size, changes.size);
+        System.arraycopy(changes.positions, 0, this.positions, this.size * 3, changes.size * 3);
+        this.size = required;
+    }
+
+    /**
+     * Gets the world these changes are to.
+     * 
+     * @return The world
+     */
+    public World getWorld()
+    {
+        return this.world;
+    }
+
+    /**
+     * Gets the source these changes are attributed to in the world metrics.
+     * 
+     * @return The source, or null if not set
+     */
+    public String getSource()
+    {
+        return this.source;
+    }
+
+    /**
+     * Sets the source these changes are attributed to in the world metrics, typically the name of
+     * the player and brush which produced them.
+     * 
+     * @param source The source
+     */
+    public void setSource(String source)
+    {
+        this.source = source;
+    }
+
+    /**
+     * Gets the recorder which is told of each change as it is written.
+     * 
+     * @return The recorder, or null if the changes are not recorded
+     */
+    public ChangeRecorder getRecorder()
+    {
+        return this.recorder;
+    }
+
+    /**
+     * Sets the recorder which is told of the previous and new state of each change as it is
+     * written, and once all changes have been written.
+     * 
+     * @param recorder The recorder, or null to not record the changes
+     */
+    public void setRecorder(ChangeRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Gets the number of changes in this set.
+     * 
+     * @return The size
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Gets the material state of the change at the given index.
+     * 
+     * @param index The index
+     * @return The material state
+     */
+    public MaterialState getState(int index)
+    {
+        return this.states[index];
+    }
+
+    /**
+     * Gets the x position of the change at the given index.
+     * 
+     * @param index The index
+     * @return The x position
+     */
+    public int getX(int index)
+    {
+        return this.positions[index * 3];
+    }
+
+    /**
+     * Gets the y position of the change at the given index.
+     * 
+     * @param index The index
+     * @return The y position
+     */
+    public int getY(int index)
+    {
+        return this.positions[index * 3 + 1];
+    }
+
+    /**
+     * Gets the z position of the change at the given index.
+     * 
+     * @param index The index
+     * @return The z position
+     */
+    public int getZ(int index)
+    {
+        return this.positions[index * 3 + 2];
+    }
+
+}
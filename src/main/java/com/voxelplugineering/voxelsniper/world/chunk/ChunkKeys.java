@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.chunk;
+
+/**
+ * Utilities for packing chunk coordinates into a single long key.
+ */
+public final class ChunkKeys
+{
+
+    /**
+     * Packs the given chunk coordinates into a single key.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The key
+     */
+    public static long toKey(int cx, int cz)
+    {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs the coordinates of the chunk containing the given block position into a single key.
+     * 
+     * @param x The block x coordinate
+     * @param z The block z coordinate
+     * @return The key
+     */
+    public static long toKeyFromBlock(int x, int z)
+    {
+        return toKey(x >> 4, z >> 4);
+    }
+
+    /**
+     * Gets the chunk x coordinate from the given key.
+     * 
+     * @param key The key
+     * @return The chunk x coordinate
+     */
+    public static int getX(long key)
+    {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Gets the chunk z coordinate from the given key.
+     * 
+     * @param key The key
+     * @return The chunk z coordinate
+     */
+    public static int getZ(long key)
+    {
+        return (int) key;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.chunk;
+
+/**
+ * A world whose chunks may be loaded ahead of an operation by a {@link ChunkPreloader}.
+ */
+public interface ChunkPreloadable
+{
+
+    /**
+     * Gets whether the chunk at the given chunk coordinates is loaded. This may be called from any
+     * thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return Is the chunk loaded
+     */
+    boolean isChunkLoaded(int cx, int cz);
+
+    /**
+     * Requests that the chunk at the given chunk coordinates be loaded, generating it if needed.
+     * The load is performed asynchronously where the platform supports it, otherwise the chunk is
+     * loaded before this returns. This must be called from the world thread.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    void requestChunkLoad(int cx, int cz);
+
+}
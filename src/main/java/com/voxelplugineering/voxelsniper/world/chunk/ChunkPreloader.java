@@ -0,0 +1,302 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.chunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Lists;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.World;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads the chunks overlapping the region of an operation before the operation is started, so
+ * that reading the region does not load or generate chunks on the main thread. Runs once per tick
+ * and requests at most {@link PerformanceConfiguration#preloadChunksPerTick} chunk loads each tick.
+ * On platforms without asynchronous chunk loading each request loads or generates the chunk before
+ * it returns, so requests also stop for the tick once
+ * {@link PerformanceConfiguration#preloadMillisPerTick} has been spent. At least one load is
+ * requested each tick so that preloading always progresses.
+ * 
+ * <p>Only worlds which are {@link ChunkPreloadable} are preloaded, operations on any other world
+ * are released on the next tick.</p>
+ */
+public class ChunkPreloader implements Runnable
+{
+
+    private static final int TICK_INTERVAL = 50;
+    private static final int RETRY_TICKS = 100;
+
+    private final Queue<Preload> submitted;
+    private final List<Preload> active;
+    private Optional<? extends Task> task;
+    private int tick;
+
+    /**
+     * Creates a new {@link ChunkPreloader}.
+     */
+    public ChunkPreloader()
+    {
+        this.submitted = new ConcurrentLinkedQueue<Preload>();
+        this.active = Lists.newArrayList();
+        this.task = Optional.empty();
+    }
+
+    /**
+     * Starts this preloader running every tick on the given scheduler.
+     * 
+     * @param scheduler The scheduler
+     */
+    public void start(Scheduler scheduler)
+    {
+        stop();
+        this.task = scheduler.startSynchronousTask(this, TICK_INTERVAL);
+    }
+
+    /**
+     * Stops this preloader, any pending preloads are kept and will continue if it is started
+     * again.
+     */
+    public void stop()
+    {
+        if (this.task.isPresent())
+        {
+            this.task.get().cancel();
+            this.task = Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the number of chunks which would be preloaded for the given region.
+     * 
+     * @param min The minimum corner of the region, inclusive
+     * @param max The maximum corner of the region, inclusive
+     * @return The chunk count
+     */
+    public static long getChunkCount(Vector3i min, Vector3i max)
+    {
+        return ((long) (max.getX() >> 4) - (min.getX() >> 4) + 1) * ((long) (max.getZ() >> 4) - (min.getZ() >> 4) + 1);
+    }
+
+    /**
+     * Preloads the chunks overlapping the given region. This may be called from any thread.
+     * 
+     * <p>The returned future is completed on the main thread, within the same tick in which every
+     * chunk of the region was last found to be loaded, so actions chained onto it run while the
+     * whole region is resident. If the region covers more than
+     * {@link PerformanceConfiguration#preloadMaxChunks} chunks the future is failed immediately
+     * with an {@link IllegalArgumentException}, and if the chunks are not all loaded within
+     * {@link PerformanceConfiguration#preloadTimeoutMillis} it is failed with a
+     * {@link TimeoutException}. Cancelling the future abandons the preload.</p>
+     * 
+     * @param world The world
+     * @param min The minimum corner of the region, inclusive
+     * @param max The maximum corner of the region, inclusive
+     * @return The future, completed once the region is loaded
+     */
+    public CompletableFuture<Void> preload(World world, Vector3i min, Vector3i max)
+    {
+        checkNotNull(world);
+        checkNotNull(min);
+        checkNotNull(max);
+        checkArgument(min.getX() <= max.getX() && min.getZ() <= max.getZ(), "Minimum must not exceed maximum");
+        CompletableFuture<Void> future = new CompletableFuture<Void>();
+        long count = getChunkCount(min, max);
+        if (count > PerformanceConfiguration.preloadMaxChunks)
+        {
+            future.completeExceptionally(new IllegalArgumentException(
+                    "Operation covers " + count + " chunks, the limit is " + PerformanceConfiguration.preloadMaxChunks));
+            return future;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PerformanceConfiguration.preloadTimeoutMillis);
+        this.submitted.add(new Preload(world, min, max, future, deadline));
+        return future;
+    }
+
+    /**
+     * Gets the number of preloads which are waiting for chunks to load.
+     * 
+     * @return The pending count
+     */
+    public int getPendingCount()
+    {
+        return this.submitted.size() + this.active.size();
+    }
+
+    @Override
+    public void run()
+    {
+        Preload next;
+        while ((next = this.submitted.poll()) != null)
+        {
+            this.active.add(next);
+        }
+        this.tick++;
+        int budget = PerformanceConfiguration.preloadChunksPerTick;
+        long now = System.nanoTime();
+        long tickEnd = now + TimeUnit.MILLISECONDS.toNanos(PerformanceConfiguration.preloadMillisPerTick);
+        for (Iterator<Preload> it = this.active.iterator(); it.hasNext();)
+        {
+            Preload preload = it.next();
+            if (preload.future.isDone())
+            {
+                it.remove();
+                continue;
+            }
+            budget = preload.advance(budget, this.tick, tickEnd);
+            if (preload.isResident())
+            {
+                it.remove();
+                preload.future.complete(null);
+            } else if (now - preload.deadline > 0)
+            {
+                it.remove();
+                preload.future.completeExceptionally(new TimeoutException("Chunks of the operation were not loaded in time"));
+            }
+        }
+    }
+
+    /**
+     * The chunks of a single pending operation, in the order they are requested.
+     */
+    private static class Preload
+    {
+
+        private final ChunkPreloadable world;
+        private final long[] chunks;
+        private final int[] requestTicks;
+        private final CompletableFuture<Void> future;
+        private final long deadline;
+        private int resident;
+
+        Preload(World world, Vector3i min, Vector3i max, CompletableFuture<Void> future, long deadline)
+        {
+            this.future = future;
+            this.deadline = deadline;
+            if (!(world instanceof ChunkPreloadable))
+            {
+                this.world = null;
+                this.chunks = new long[0];
+                this.requestTicks = new int[0];
+                return;
+            }
+            this.world = (ChunkPreloadable) world;
+            this.chunks = new long[(int) getChunkCount(min, max)];
+            this.requestTicks = new int[this.chunks.length];
+            int i = 0;
+            for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+            {
+                for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+                {
+                    this.chunks[i++] = ChunkKeys.toKey(cx, cz);
+                }
+            }
+        }
+
+        private boolean isLoaded(int index)
+        {
+            long key = this.chunks[index];
+            return this.world.isChunkLoaded(ChunkKeys.getX(key), ChunkKeys.getZ(key));
+        }
+
+        /**
+         * Skips past the chunks which have loaded and requests loads of the chunks which are not
+         * loaded, up to the given budget and until the end of the tick's time budget. A chunk which
+         * is seen loaded is requested again if it is later unloaded, and a request which has not
+         * loaded the chunk after {@value ChunkPreloader#RETRY_TICKS} ticks is repeated.
+         * 
+         * @param budget The number of loads which may be requested
+         * @param tick The number of the current tick, starting at one
+         * @param tickEnd The time at which no further loads may be requested, in nanoseconds
+         * @return The remaining budget
+         */
+        int advance(int budget, int tick, long tickEnd)
+        {
+            while (this.resident < this.chunks.length && isLoaded(this.resident))
+            {
+                this.requestTicks[this.resident] = 0;
+                this.resident++;
+            }
+            for (int i = this.resident; i < this.chunks.length && budget > 0; i++)
+            {
+                if (isLoaded(i))
+                {
+                    this.requestTicks[i] = 0;
+                    continue;
+                }
+                if (this.requestTicks[i] == 0 || tick - this.requestTicks[i] >= RETRY_TICKS)
+                {
+                    // the first request of each tick is always made
+                    if (budget < PerformanceConfiguration.preloadChunksPerTick && System.nanoTime() - tickEnd > 0)
+                    {
+                        return 0;
+                    }
+                    long key = this.chunks[i];
+                    this.world.requestChunkLoad(ChunkKeys.getX(key), ChunkKeys.getZ(key));
+                    this.requestTicks[i] = tick;
+                    budget--;
+                }
+            }
+            return budget;
+        }
+
+        /**
+         * Gets whether every chunk is loaded, chunks which have been unloaded again since they
+         * were passed over are requested again on the next tick.
+         * 
+         * @return Is resident
+         */
+        boolean isResident()
+        {
+            if (this.resident < this.chunks.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < this.chunks.length; i++)
+            {
+                if (!isLoaded(i))
+                {
+                    this.resident = i;
+                    this.requestTicks[i] = 0;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,317 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.chunk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A cache of chunk wrappers keyed by their chunk coordinates, backed by an open addressed table of
+ * primitive long keys (see {@link ChunkKeys}). The most recently used entry is checked before the
+ * table so that consecutive lookups within the same chunk, as made by brushes walking block by
+ * block, do not probe the table at all.
+ * 
+ * <p>The cache is written from the world thread and may be read from any thread, lookups are
+ * optimistic and do not lock unless they race a write. Entries must be removed when their chunk is
+ * unloaded, as the cache holds its wrappers strongly.</p>
+ * 
+ * @param <T> The wrapper type
+ */
+public class ChunkWrapperCache<T>
+{
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int size;
+    private volatile Entry<T> last;
+
+    /**
+     * Creates a new, empty {@link ChunkWrapperCache}.
+     */
+    public ChunkWrapperCache()
+    {
+        this.table = new Table(INITIAL_CAPACITY);
+    }
+
+    private static int slot(long key, int mask)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int find(long[] keys, long key)
+    {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (int n = 0; n < keys.length; n++)
+        {
+            long k = keys[i];
+            if (k == key)
+            {
+                return i;
+            }
+            if (k == EMPTY)
+            {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T lookup(Table table, long key)
+    {
+        int i = find(table.keys, key);
+        return i == -1 ? null : (T) table.values[i];
+    }
+
+    /**
+     * Gets the wrapper of the chunk at the given chunk coordinates.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return The wrapper, or null if none is cached
+     */
+    public T get(int cx, int cz)
+    {
+        long key = ChunkKeys.toKey(cx, cz);
+        Entry<T> recent = this.last;
+        if (recent != null && recent.key == key)
+        {
+            return recent.value;
+        }
+        long stamp = this.lock.tryOptimisticRead();
+        T value = lookup(this.table, key);
+        if (value != null)
+        {
+            // published before validating, a remove which has not yet run will clear it and one
+            // which has already run invalidates the stamp
+            this.last = new Entry<T>(key, value);
+        }
+        if (this.lock.validate(stamp))
+        {
+            return value;
+        }
+        this.last = null;
+        stamp = this.lock.readLock();
+        try
+        {
+            value = lookup(this.table, key);
+            if (value != null)
+            {
+                this.last = new Entry<T>(key, value);
+            }
+            return value;
+        } finally
+        {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Caches the wrapper of the chunk at the given chunk coordinates, replacing any existing
+     * wrapper.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @param value The wrapper
+     */
+    public void put(int cx, int cz, T value)
+    {
+        checkNotNull(value);
+        long key = ChunkKeys.toKey(cx, cz);
+        long stamp = this.lock.writeLock();
+        try
+        {
+            int i = find(this.table.keys, key);
+            if (i != -1)
+            {
+                this.table.values[i] = value;
+            } else
+            {
+                if ((this.size + 1) * 2 > this.table.keys.length)
+                {
+                    Table old = this.table;
+                    Table grown = new Table(old.keys.length * 2);
+                    for (int j = 0; j < old.keys.length; j++)
+                    {
+                        if (old.keys[j] != EMPTY)
+                        {
+                            grown.insert(old.keys[j], old.values[j]);
+                        }
+                    }
+                    this.table = grown;
+                }
+                this.table.insert(key, value);
+                this.size++;
+            }
+            this.last = new Entry<T>(key, value);
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the wrapper of the chunk at the given chunk coordinates, this should be called when
+     * the chunk is unloaded.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void remove(int cx, int cz)
+    {
+        long key = ChunkKeys.toKey(cx, cz);
+        long stamp = this.lock.writeLock();
+        try
+        {
+            Entry<T> recent = this.last;
+            if (recent != null && recent.key == key)
+            {
+                this.last = null;
+            }
+            long[] keys = this.table.keys;
+            Object[] values = this.table.values;
+            int i = find(keys, key);
+            if (i == -1)
+            {
+                return;
+            }
+            // backward shift deletion keeps probe sequences intact without tombstones
+            int mask = keys.length - 1;
+            int j = i;
+            while (true)
+            {
+                j = (j + 1) & mask;
+                long k = keys[j];
+                if (k == EMPTY)
+                {
+                    break;
+                }
+                int home = slot(k, mask);
+                if (((j - home) & mask) >= ((j - i) & mask))
+                {
+                    keys[i] = k;
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            values[i] = null;
+            this.size--;
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all wrappers from this cache.
+     */
+    public void clear()
+    {
+        long stamp = this.lock.writeLock();
+        try
+        {
+            this.table = new Table(INITIAL_CAPACITY);
+            this.size = 0;
+            this.last = null;
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the number of wrappers in this cache.
+     * 
+     * @return The size
+     */
+    public int size()
+    {
+        long stamp = this.lock.readLock();
+        try
+        {
+            return this.size;
+        } finally
+        {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The key and value arrays of the cache, replaced together when the cache grows so that an
+     * optimistic reader never sees arrays of different sizes.
+     */
+    private static final class Table
+    {
+
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity)
+        {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            Arrays.fill(this.keys, EMPTY);
+        }
+
+        void insert(long key, Object value)
+        {
+            int mask = this.keys.length - 1;
+            int i = slot(key, mask);
+            while (this.keys[i] != EMPTY)
+            {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+        }
+
+    }
+
+    /**
+     * An immutable cached key and value pair.
+     */
+    private static final class Entry<T>
+    {
+
+        final long key;
+        final T value;
+
+        Entry(long key, T value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+}
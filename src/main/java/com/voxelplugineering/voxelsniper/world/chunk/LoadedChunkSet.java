@@ -0,0 +1,252 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.chunk;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A set of loaded chunk positions backed by an open addressed table of primitive long keys (see
+ * {@link ChunkKeys}). The set is written from the world thread as chunks are loaded and unloaded
+ * and may be queried from any thread, lookups are optimistic and do not lock unless they race a
+ * write.
+ */
+public class LoadedChunkSet
+{
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private int size;
+
+    /**
+     * Creates a new, empty {@link LoadedChunkSet}.
+     */
+    public LoadedChunkSet()
+    {
+        this.keys = newTable(INITIAL_CAPACITY);
+    }
+
+    private static long[] newTable(int capacity)
+    {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int slot(long key, int mask)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int find(long[] table, long key)
+    {
+        int mask = table.length - 1;
+        int i = slot(key, mask);
+        for (int n = 0; n < table.length; n++)
+        {
+            long k = table[i];
+            if (k == key)
+            {
+                return i;
+            }
+            if (k == EMPTY)
+            {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets whether the chunk at the given chunk coordinates is in this set.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     * @return Is the chunk loaded
+     */
+    public boolean contains(int cx, int cz)
+    {
+        long key = ChunkKeys.toKey(cx, cz);
+        long stamp = this.lock.tryOptimisticRead();
+        boolean found = find(this.keys, key) != -1;
+        if (this.lock.validate(stamp))
+        {
+            return found;
+        }
+        stamp = this.lock.readLock();
+        try
+        {
+            return find(this.keys, key) != -1;
+        } finally
+        {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets whether the chunk containing the given block position is in this set.
+     * 
+     * @param x The block x coordinate
+     * @param z The block z coordinate
+     * @return Is the chunk loaded
+     */
+    public boolean containsBlock(int x, int z)
+    {
+        return contains(x >> 4, z >> 4);
+    }
+
+    /**
+     * Adds the chunk at the given chunk coordinates to this set.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void add(int cx, int cz)
+    {
+        long stamp = this.lock.writeLock();
+        try
+        {
+            insert(ChunkKeys.toKey(cx, cz));
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the chunk at the given chunk coordinates from this set.
+     * 
+     * @param cx The chunk x coordinate
+     * @param cz The chunk z coordinate
+     */
+    public void remove(int cx, int cz)
+    {
+        long stamp = this.lock.writeLock();
+        try
+        {
+            long[] table = this.keys;
+            int i = find(table, ChunkKeys.toKey(cx, cz));
+            if (i == -1)
+            {
+                return;
+            }
+            // backward shift deletion keeps probe sequences intact without tombstones
+            int mask = table.length - 1;
+            int j = i;
+            while (true)
+            {
+                j = (j + 1) & mask;
+                long k = table[j];
+                if (k == EMPTY)
+                {
+                    break;
+                }
+                int home = slot(k, mask);
+                if (((j - home) & mask) >= ((j - i) & mask))
+                {
+                    table[i] = k;
+                    i = j;
+                }
+            }
+            table[i] = EMPTY;
+            this.size--;
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all chunks from this set.
+     */
+    public void clear()
+    {
+        long stamp = this.lock.writeLock();
+        try
+        {
+            this.keys = newTable(INITIAL_CAPACITY);
+            this.size = 0;
+        } finally
+        {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the number of chunks in this set.
+     * 
+     * @return The size
+     */
+    public int size()
+    {
+        long stamp = this.lock.readLock();
+        try
+        {
+            return this.size;
+        } finally
+        {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    private void insert(long key)
+    {
+        if (find(this.keys, key) != -1)
+        {
+            return;
+        }
+        if ((this.size + 1) * 2 > this.keys.length)
+        {
+            long[] old = this.keys;
+            long[] table = newTable(old.length * 2);
+            for (long k : old)
+            {
+                if (k != EMPTY)
+                {
+                    put(table, k);
+                }
+            }
+            this.keys = table;
+        }
+        put(this.keys, key);
+        this.size++;
+    }
+
+    private static void put(long[] table, long key)
+    {
+        int mask = table.length - 1;
+        int i = slot(key, mask);
+        while (table[i] != EMPTY)
+        {
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.cursor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.world.Block;
+import com.voxelplugineering.voxelsniper.world.CommonBlock;
+import com.voxelplugineering.voxelsniper.world.CommonLocation;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+/**
+ * A mutable view of a single block which is repositioned as a region is iterated, allowing blocks
+ * to be read without allocating a {@link Block} and location for each position.
+ * 
+ * <p>A cursor is only valid for the duration of the {@link BlockVisitor#visit(BlockCursor)} call
+ * it is passed to. Callers which need to retain a block should use {@link #toBlock()}.</p>
+ */
+public final class BlockCursor
+{
+
+    private final World world;
+    private int x;
+    private int y;
+    private int z;
+    private int stateId;
+    private MaterialState state;
+
+    /**
+     * Creates a new {@link BlockCursor}.
+     * 
+     * @param world The world being iterated
+     */
+    public BlockCursor(World world)
+    {
+        this.world = checkNotNull(world);
+    }
+
+    /**
+     * Moves this cursor to the given position.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param stateId The native state id of the block, or -1 if the platform has none
+     * @param state The material state of the block
+     */
+    public void set(int x, int y, int z, int stateId, MaterialState state)
+    {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.stateId = stateId;
+        this.state = state;
+    }
+
+    /**
+     * Gets the world being iterated.
+     * 
+     * @return The world
+     */
+    public World getWorld()
+    {
+        return this.world;
+    }
+
+    /**
+     * Gets the x position of the current block.
+     * 
+     * @return The x position
+     */
+    public int getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * Gets the y position of the current block.
+     * 
+     * @return The y position
+     */
+    public int getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * Gets the z position of the current block.
+     * 
+     * @return The z position
+     */
+    public int getZ()
+    {
+        return this.z;
+    }
+
+    /**
+     * Gets the native state id of the current block.
+     * 
+     * @return The state id, or -1 if the platform has none
+     */
+    public int getStateId()
+    {
+        return this.stateId;
+    }
+
+    /**
+     * Gets the material state of the current block.
+     * 
+     * @return The material state
+     */
+    public MaterialState getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * Creates an immutable {@link Block} for the current position which may be retained after the
+     * cursor has moved on.
+     * 
+     * @return The block
+     */
+    public Block toBlock()
+    {
+        return new CommonBlock(new CommonLocation(this.world, this.x, this.y, this.z), this.state);
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.cursor;
+
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+
+/**
+ * A world whose blocks may be iterated with a {@link BlockVisitor}.
+ */
+public interface BlockVisitable
+{
+
+    /**
+     * Visits each readable block within the given cuboid with a single reused
+     * {@link BlockCursor}. Blocks are visited chunk by chunk, and positions which cannot be read,
+     * such as those outside of the world height, are skipped.
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @param visitor The visitor
+     */
+    void visitBlocks(Vector3i min, Vector3i max, BlockVisitor visitor);
+
+}
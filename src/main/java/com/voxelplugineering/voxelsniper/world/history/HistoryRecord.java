@@ -0,0 +1,296 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.history;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+/**
+ * The history of a single undoable operation, holding both the previous and the new state of
+ * every position it changed as {@link HistorySection}s. Once committed to a {@link HistoryStore}
+ * the record may be spilled to a memory mapped file, after which its sections are streamed back
+ * from the file when it is undone or redone.
+ * 
+ * <p>Records are not thread safe, and must not be modified once committed.</p>
+ */
+public class HistoryRecord
+{
+
+    private final World world;
+    private final StatePalette palette;
+    private Map<Long, HistorySection> before;
+    private Map<Long, HistorySection> after;
+    private int changes;
+    private File file;
+    private MappedByteBuffer mapped;
+    private int afterOffset;
+
+    /**
+     * Creates a new, empty {@link HistoryRecord}.
+     * 
+     * @param world The world the operation changes
+     * @param palette The palette of the owning store
+     */
+    HistoryRecord(World world, StatePalette palette)
+    {
+        this.world = checkNotNull(world);
+        this.palette = checkNotNull(palette);
+        this.before = Maps.newLinkedHashMap();
+        this.after = Maps.newLinkedHashMap();
+    }
+
+    /**
+     * Records a change at the given position. If the position has already been changed by this
+     * operation its original previous state is kept.
+     * 
+     * @param previous The state before the change
+     * @param next The state after the change
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public void record(MaterialState previous, MaterialState next, int x, int y, int z)
+    {
+        checkState(this.file == null, "Cannot record to a spilled history record");
+        if (y < 0 || y >= 256)
+        {
+            return;
+        }
+        long key = HistorySection.toKey(x >> 4, y >> 4, z >> 4);
+        HistorySection b = this.before.get(key);
+        HistorySection a;
+        if (b == null)
+        {
+            b = new HistorySection(x >> 4, y >> 4, z >> 4);
+            a = new HistorySection(x >> 4, y >> 4, z >> 4);
+            this.before.put(key, b);
+            this.after.put(key, a);
+        } else
+        {
+            a = this.after.get(key);
+        }
+        if (b.record(x & 15, y & 15, z & 15, this.palette.getId(previous)))
+        {
+            this.changes++;
+        }
+        a.set(x & 15, y & 15, z & 15, this.palette.getId(next));
+    }
+
+    /**
+     * Gets the world this record changes.
+     * 
+     * @return The world
+     */
+    public World getWorld()
+    {
+        return this.world;
+    }
+
+    /**
+     * Gets the number of distinct positions changed by this record.
+     * 
+     * @return The change count
+     */
+    public int size()
+    {
+        return this.changes;
+    }
+
+    /**
+     * Gets an estimate of the heap memory held by this record in bytes, which is negligible once
+     * the record has been spilled.
+     * 
+     * @return The memory size
+     */
+    public long getMemorySize()
+    {
+        if (this.file != null)
+        {
+            return 0;
+        }
+        long size = 0;
+        for (HistorySection section : this.before.values())
+        {
+            size += section.getMemorySize();
+        }
+        for (HistorySection section : this.after.values())
+        {
+            size += section.getMemorySize();
+        }
+        return size;
+    }
+
+    /**
+     * Gets whether this record has been spilled to disk.
+     * 
+     * @return Is spilled
+     */
+    public boolean isSpilled()
+    {
+        return this.file != null;
+    }
+
+    /**
+     * Adds the previous states of every changed position to the given change set.
+     * 
+     * @param changes The change set
+     */
+    public void undo(ChangeSet changes)
+    {
+        if (this.file == null)
+        {
+            write(this.before, changes);
+        } else
+        {
+            stream(0, changes);
+        }
+    }
+
+    /**
+     * Adds the new states of every changed position to the given change set.
+     * 
+     * @param changes The change set
+     */
+    public void redo(ChangeSet changes)
+    {
+        if (this.file == null)
+        {
+            write(this.after, changes);
+        } else
+        {
+            stream(this.afterOffset, changes);
+        }
+    }
+
+    /**
+     * Writes the sections of this record to the given file and maps it back into memory, releasing
+     * the in memory sections.
+     * 
+     * @param target The file to write to
+     * @throws IOException If the file could not be written
+     */
+    void spill(File target) throws IOException
+    {
+        checkState(this.file == null, "History record has already been spilled");
+        int beforeSize = getSerializedSize(this.before);
+        int size = beforeSize + getSerializedSize(this.after);
+        try (RandomAccessFile raf = new RandomAccessFile(target, "rw"); FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            writeSections(this.before, buffer);
+            writeSections(this.after, buffer);
+            this.mapped = buffer;
+        }
+        this.file = target;
+        this.afterOffset = beforeSize;
+        this.before = null;
+        this.after = null;
+    }
+
+    /**
+     * Releases the file backing this record, if it has been spilled. The record must not be used
+     * afterwards.
+     */
+    void release()
+    {
+        this.mapped = null;
+        this.before = null;
+        this.after = null;
+        if (this.file != null && !this.file.delete())
+        {
+            // the mapping may keep the file open until it is collected on some platforms
+            this.file.deleteOnExit();
+        }
+    }
+
+    private void write(Map<Long, HistorySection> sections, ChangeSet changes)
+    {
+        checkState(sections != null, "History record has been released");
+        HistorySection.Visitor visitor = toChangeSet(changes);
+        for (HistorySection section : sections.values())
+        {
+            section.forEach(visitor);
+        }
+    }
+
+    private void stream(int offset, ChangeSet changes)
+    {
+        checkState(this.mapped != null, "History record has been released");
+        ByteBuffer buffer = this.mapped.duplicate();
+        buffer.position(offset);
+        int count = buffer.getInt();
+        HistorySection.Visitor visitor = toChangeSet(changes);
+        // sections are read back one at a time so only a single section is on the heap at once
+        for (int i = 0; i < count; i++)
+        {
+            HistorySection.readFrom(buffer).forEach(visitor);
+        }
+    }
+
+    private HistorySection.Visitor toChangeSet(final ChangeSet changes)
+    {
+        return new HistorySection.Visitor()
+        {
+
+            @Override
+            public void visit(int x, int y, int z, int id)
+            {
+                changes.add(HistoryRecord.this.palette.get(id), x, y, z);
+            }
+        };
+    }
+
+    private static int getSerializedSize(Map<Long, HistorySection> sections)
+    {
+        int size = 4;
+        for (HistorySection section : sections.values())
+        {
+            size += section.getSerializedSize();
+        }
+        return size;
+    }
+
+    private static void writeSections(Map<Long, HistorySection> sections, ByteBuffer buffer)
+    {
+        buffer.putInt(sections.size());
+        for (HistorySection section : sections.values())
+        {
+            section.writeTo(buffer);
+        }
+    }
+
+}
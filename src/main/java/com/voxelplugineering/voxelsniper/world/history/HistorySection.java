@@ -0,0 +1,376 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.history;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The recorded states of a single 16x16x16 chunk section. Each position holds an index into a small
+ * palette of {@link StatePalette} ids, bit packed into a long array using only as many bits per
+ * position as the palette requires. Index zero marks a position which has not been recorded.
+ * 
+ * <p>Sections are not thread safe.</p>
+ */
+public class HistorySection
+{
+
+    /**
+     * The id returned for positions which have not been recorded.
+     */
+    public static final int NONE = -1;
+
+    private static final int VOLUME = 4096;
+
+    private final int x;
+    private final int y;
+    private final int z;
+    private int[] palette;
+    private int paletteSize;
+    private int bits;
+    private int perLong;
+    private long mask;
+    private long[] data;
+    private int count;
+    private int lastId = NONE;
+    private int lastIndex;
+
+    /**
+     * Creates a new, empty {@link HistorySection}.
+     * 
+     * @param x The section x coordinate
+     * @param y The section y coordinate
+     * @param z The section z coordinate
+     */
+    public HistorySection(int x, int y, int z)
+    {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.palette = new int[4];
+        resize(1);
+    }
+
+    private HistorySection(int x, int y, int z, int[] palette, int bits, long[] data, int count)
+    {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.palette = palette;
+        this.paletteSize = palette.length;
+        this.bits = bits;
+        this.perLong = 64 / bits;
+        this.mask = (1L << bits) - 1;
+        this.data = data;
+        this.count = count;
+    }
+
+    /**
+     * Packs the given section coordinates into a single key.
+     * 
+     * @param x The section x coordinate
+     * @param y The section y coordinate, from 0 to 15
+     * @param z The section z coordinate
+     * @return The key
+     */
+    public static long toKey(int x, int y, int z)
+    {
+        return ((x & 0x3FFFFFFL) << 30) | ((z & 0x3FFFFFFL) << 4) | (y & 15);
+    }
+
+    /**
+     * Gets the x coordinate of this section.
+     * 
+     * @return The section x coordinate
+     */
+    public int getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * Gets the y coordinate of this section.
+     * 
+     * @return The section y coordinate
+     */
+    public int getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * Gets the z coordinate of this section.
+     * 
+     * @return The section z coordinate
+     */
+    public int getZ()
+    {
+        return this.z;
+    }
+
+    /**
+     * Records the given state id at a position within this section, unless a state has already
+     * been recorded there, in which case the first recorded state is kept.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param y The y position, from 0 to 15
+     * @param z The z position, from 0 to 15
+     * @param id The state id
+     * @return Whether the state was recorded
+     */
+    public boolean record(int x, int y, int z, int id)
+    {
+        int index = y << 8 | z << 4 | x;
+        if (getRaw(index) != 0)
+        {
+            return false;
+        }
+        setRaw(index, getLocalIndex(id));
+        this.count++;
+        return true;
+    }
+
+    /**
+     * Sets the given state id at a position within this section, replacing any state already
+     * recorded there.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param y The y position, from 0 to 15
+     * @param z The z position, from 0 to 15
+     * @param id The state id
+     */
+    public void set(int x, int y, int z, int id)
+    {
+        int index = y << 8 | z << 4 | x;
+        int local = getLocalIndex(id);
+        if (getRaw(index) == 0)
+        {
+            this.count++;
+        }
+        setRaw(index, local);
+    }
+
+    /**
+     * Gets the state id recorded at a position within this section.
+     * 
+     * @param x The x position, from 0 to 15
+     * @param y The y position, from 0 to 15
+     * @param z The z position, from 0 to 15
+     * @return The state id, or {@link #NONE} if nothing has been recorded
+     */
+    public int get(int x, int y, int z)
+    {
+        int raw = getRaw(y << 8 | z << 4 | x);
+        return raw == 0 ? NONE : this.palette[raw - 1];
+    }
+
+    /**
+     * Passes every recorded position of this section, in world coordinates, to the given visitor.
+     * 
+     * @param visitor The visitor
+     */
+    public void forEach(Visitor visitor)
+    {
+        int bx = this.x << 4;
+        int by = this.y << 4;
+        int bz = this.z << 4;
+        for (int i = 0; i < VOLUME; i++)
+        {
+            int raw = getRaw(i);
+            if (raw != 0)
+            {
+                visitor.visit(bx + (i & 15), by + (i >> 8), bz + ((i >> 4) & 15), this.palette[raw - 1]);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of positions recorded in this section.
+     * 
+     * @return The recorded count
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Gets an estimate of the heap memory held by this section in bytes.
+     * 
+     * @return The memory size
+     */
+    public long getMemorySize()
+    {
+        return 64 + this.data.length * 8L + this.palette.length * 4L;
+    }
+
+    /**
+     * Gets the number of bytes {@link #writeTo(ByteBuffer)} will write.
+     * 
+     * @return The serialized size
+     */
+    public int getSerializedSize()
+    {
+        return 4 * 7 + this.paletteSize * 4 + this.data.length * 8;
+    }
+
+    /**
+     * Writes this section to the given buffer.
+     * 
+     * @param buffer The buffer
+     */
+    public void writeTo(ByteBuffer buffer)
+    {
+        buffer.putInt(this.x);
+        buffer.putInt(this.y);
+        buffer.putInt(this.z);
+        buffer.putInt(this.count);
+        buffer.putInt(this.bits);
+        buffer.putInt(this.paletteSize);
+        for (int i = 0; i < this.paletteSize; i++)
+        {
+            buffer.putInt(this.palette[i]);
+        }
+        buffer.putInt(this.data.length);
+        for (long l : this.data)
+        {
+            buffer.putLong(l);
+        }
+    }
+
+    /**
+     * Reads a section which was written by {@link #writeTo(ByteBuffer)} from the given buffer.
+     * 
+     * @param buffer The buffer
+     * @return The section
+     */
+    public static HistorySection readFrom(ByteBuffer buffer)
+    {
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        int z = buffer.getInt();
+        int count = buffer.getInt();
+        int bits = buffer.getInt();
+        int[] palette = new int[buffer.getInt()];
+        for (int i = 0; i < palette.length; i++)
+        {
+            palette[i] = buffer.getInt();
+        }
+        long[] data = new long[buffer.getInt()];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = buffer.getLong();
+        }
+        return new HistorySection(x, y, z, palette, bits, data, count);
+    }
+
+    private int getLocalIndex(int id)
+    {
+        if (id == this.lastId)
+        {
+            return this.lastIndex;
+        }
+        // palettes of a single section are small so a linear scan beats hashing here
+        int local = 0;
+        for (int i = 0; i < this.paletteSize; i++)
+        {
+            if (this.palette[i] == id)
+            {
+                local = i + 1;
+                break;
+            }
+        }
+        if (local == 0)
+        {
+            if (this.paletteSize == this.palette.length)
+            {
+                this.palette = Arrays.copyOf(this.palette, this.palette.length * 2);
+            }
+            this.palette[this.paletteSize++] = id;
+            local = this.paletteSize;
+            if (local > this.mask)
+            {
+                resize(this.bits + 1);
+            }
+        }
+        this.lastId = id;
+        this.lastIndex = local;
+        return local;
+    }
+
+    private void resize(int newBits)
+    {
+        long[] old = this.data;
+        int oldBits = this.bits;
+        int oldPerLong = this.perLong;
+        long oldMask = this.mask;
+        this.bits = newBits;
+        this.perLong = 64 / newBits;
+        this.mask = (1L << newBits) - 1;
+        this.data = new long[(VOLUME + this.perLong - 1) / this.perLong];
+        if (old == null)
+        {
+            return;
+        }
+        for (int i = 0; i < VOLUME; i++)
+        {
+            int raw = (int) ((old[i / oldPerLong] >>> ((i % oldPerLong) * oldBits)) & oldMask);
+            if (raw != 0)
+            {
+                setRaw(i, raw);
+            }
+        }
+    }
+
+    private int getRaw(int index)
+    {
+        return (int) ((this.data[index / this.perLong] >>> ((index % this.perLong) * this.bits)) & this.mask);
+    }
+
+    private void setRaw(int index, int value)
+    {
+        int word = index / this.perLong;
+        int shift = (index % this.perLong) * this.bits;
+        this.data[word] = (this.data[word] & ~(this.mask << shift)) | ((long) value << shift);
+    }
+
+    /**
+     * A visitor of the recorded positions of a section.
+     */
+    public interface Visitor
+    {
+
+        /**
+         * Visits a recorded position.
+         * 
+         * @param x The x position
+         * @param y The y position
+         * @param z The z position
+         * @param id The recorded state id
+         */
+        void visit(int x, int y, int z, int id);
+
+    }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.history;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeRecorder;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the undo and redo history of each player as compact {@link HistoryRecord}s. When the
+ * history of a player exceeds its memory cap (see
+ * {@link PerformanceConfiguration#historyMemoryMegabytes}) its oldest records are spilled to
+ * memory mapped files in the history directory until it fits again.
+ * 
+ * <p>Records are filled as their changes are written by a {@link BudgetedChangeApplier}, see
+ * {@link #track(UUID, ChangeSet)}, and undone and redone through the same applier so that a large
+ * record is spread over as many ticks as needed.</p>
+ */
+public class HistoryStore
+{
+
+    private static final String SPILL_SUFFIX = ".history";
+    private static final String UNDO_SOURCE = "undo";
+    private static final String REDO_SOURCE = "redo";
+
+    private final File directory;
+    private final BudgetedChangeApplier applier;
+    private final StatePalette palette;
+    private final Map<UUID, PlayerHistory> histories;
+    private final AtomicLong spillCount;
+
+    /**
+     * Creates a new {@link HistoryStore}. Any files left in the directory by a previous store are
+     * removed.
+     * 
+     * @param directory The directory to spill records to
+     * @param applier The applier undo and redo changes are submitted to
+     */
+    public HistoryStore(File directory, BudgetedChangeApplier applier)
+    {
+        this.directory = checkNotNull(directory);
+        this.applier = checkNotNull(applier);
+        this.palette = new StatePalette();
+        this.histories = Maps.newConcurrentMap();
+        this.spillCount = new AtomicLong();
+        File[] stale = directory.listFiles();
+        if (stale != null)
+        {
+            for (File file : stale)
+            {
+                if (file.getName().endsWith(SPILL_SUFFIX))
+                {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new, empty record for an operation in the given world. The record should be
+     * filled and then passed to {@link #commit(UUID, HistoryRecord)}.
+     * 
+     * @param world The world
+     * @return The new record
+     */
+    public HistoryRecord createRecord(World world)
+    {
+        return new HistoryRecord(world, this.palette);
+    }
+
+    /**
+     * Records the previous state of each position changed by the given changes as they are
+     * written, and commits the record to the history of the given owner once all of the changes
+     * have been written. The changes should then be submitted to the applier.
+     * 
+     * @param owner The owner of the history
+     * @param changes The changes to record
+     */
+    public void track(final UUID owner, ChangeSet changes)
+    {
+        checkNotNull(owner);
+        final HistoryRecord record = createRecord(changes.getWorld());
+        changes.setRecorder(new ChangeRecorder()
+        {
+
+            @Override
+            public void record(MaterialState previous, MaterialState next, int x, int y, int z)
+            {
+                record.record(previous, next, x, y, z);
+            }
+
+            @Override
+            public void complete()
+            {
+                commit(owner, record);
+            }
+        });
+    }
+
+    /**
+     * Adds the given record to the top of the undo history of the given owner, discarding their
+     * redo history. Old records are dropped beyond {@link PerformanceConfiguration#historyMaxRecords}
+     * and spilled to disk beyond the memory cap.
+     * 
+     * @param owner The owner of the history
+     * @param record The record
+     */
+    public void commit(UUID owner, HistoryRecord record)
+    {
+        checkNotNull(record);
+        if (record.size() == 0)
+        {
+            return;
+        }
+        PlayerHistory history = getHistory(owner);
+        synchronized (history)
+        {
+            for (HistoryRecord redo : history.redo)
+            {
+                history.release(redo);
+            }
+            history.redo.clear();
+            history.undo.addFirst(record);
+            history.memory += record.getMemorySize();
+            while (history.undo.size() > Math.max(PerformanceConfiguration.historyMaxRecords, 1))
+            {
+                history.release(history.undo.removeLast());
+            }
+            spillUntilWithinCap(owner, history);
+        }
+    }
+
+    /**
+     * Undoes the most recent operation of the given owner. The changes are submitted to the
+     * applier and written over the following ticks. This may be called from any thread.
+     * 
+     * @param owner The owner of the history
+     * @return The number of changes undone, zero if there is no history
+     */
+    public int undo(UUID owner)
+    {
+        PlayerHistory history = getHistory(owner);
+        synchronized (history)
+        {
+            HistoryRecord record = history.undo.pollFirst();
+            if (record == null)
+            {
+                return 0;
+            }
+            ChangeSet changes = new ChangeSet(record.getWorld(), record.size());
+            record.undo(changes);
+            this.applier.submit(changes, UNDO_SOURCE);
+            history.redo.addFirst(record);
+            return record.size();
+        }
+    }
+
+    /**
+     * Redoes the most recently undone operation of the given owner. The changes are submitted to
+     * the applier and written over the following ticks. This may be called from any thread.
+     * 
+     * @param owner The owner of the history
+     * @return The number of changes redone, zero if there is nothing to redo
+     */
+    public int redo(UUID owner)
+    {
+        PlayerHistory history = getHistory(owner);
+        synchronized (history)
+        {
+            HistoryRecord record = history.redo.pollFirst();
+            if (record == null)
+            {
+                return 0;
+            }
+            ChangeSet changes = new ChangeSet(record.getWorld(), record.size());
+            record.redo(changes);
+            this.applier.submit(changes, REDO_SOURCE);
+            history.undo.addFirst(record);
+            return record.size();
+        }
+    }
+
+    /**
+     * Gets the estimated heap memory held by the in memory records of the given owner, in bytes.
+     * 
+     * @param owner The owner of the history
+     * @return The memory usage
+     */
+    public long getMemoryUsage(UUID owner)
+    {
+        PlayerHistory history = this.histories.get(owner);
+        if (history == null)
+        {
+            return 0;
+        }
+        synchronized (history)
+        {
+            return history.memory;
+        }
+    }
+
+    /**
+     * Discards all history of the given owner and deletes any files spilled for it.
+     * 
+     * @param owner The owner of the history
+     */
+    public void clear(UUID owner)
+    {
+        PlayerHistory history = this.histories.remove(owner);
+        if (history == null)
+        {
+            return;
+        }
+        synchronized (history)
+        {
+            for (HistoryRecord record : history.undo)
+            {
+                history.release(record);
+            }
+            for (HistoryRecord record : history.redo)
+            {
+                history.release(record);
+            }
+            history.undo.clear();
+            history.redo.clear();
+        }
+    }
+
+    private PlayerHistory getHistory(UUID owner)
+    {
+        checkNotNull(owner);
+        PlayerHistory history = this.histories.get(owner);
+        if (history == null)
+        {
+            history = new PlayerHistory();
+            PlayerHistory existing = this.histories.putIfAbsent(owner, history);
+            if (existing != null)
+            {
+                history = existing;
+            }
+        }
+        return history;
+    }
+
+    private void spillUntilWithinCap(UUID owner, PlayerHistory history)
+    {
+        long cap = PerformanceConfiguration.historyMemoryMegabytes * 1024L * 1024L;
+        Iterator<HistoryRecord> oldest = history.undo.descendingIterator();
+        while (history.memory > cap && oldest.hasNext())
+        {
+            HistoryRecord record = oldest.next();
+            if (record.isSpilled())
+            {
+                continue;
+            }
+            long size = record.getMemorySize();
+            try
+            {
+                this.directory.mkdirs();
+                record.spill(new File(this.directory, owner + "-" + this.spillCount.incrementAndGet() + SPILL_SUFFIX));
+            } catch (IOException e)
+            {
+                GunsmithLogger.getLogger().error(e, "Error spilling history to disk, discarding the oldest history instead");
+                oldest.remove();
+                record.release();
+            }
+            history.memory -= size;
+        }
+    }
+
+    /**
+     * The undo and redo stacks of a single owner, newest records first.
+     */
+    private static class PlayerHistory
+    {
+
+        final Deque<HistoryRecord> undo = new ArrayDeque<HistoryRecord>();
+        final Deque<HistoryRecord> redo = new ArrayDeque<HistoryRecord>();
+        long memory;
+
+        void release(HistoryRecord record)
+        {
+            this.memory -= record.getMemorySize();
+            record.release();
+        }
+
+    }
+
+}
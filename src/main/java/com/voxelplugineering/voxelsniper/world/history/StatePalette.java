@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.history;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Assigns a compact, stable integer id to every {@link MaterialState} recorded into a
+ * {@link HistoryStore}, so that history sections only need to store ids. Ids are never reused or
+ * removed, which keeps ids in spilled sections valid for the lifetime of the store.
+ */
+public class StatePalette
+{
+
+    private final Map<MaterialState, Integer> ids;
+    private final CopyOnWriteArrayList<MaterialState> states;
+
+    /**
+     * Creates a new, empty {@link StatePalette}.
+     */
+    public StatePalette()
+    {
+        this.ids = new ConcurrentHashMap<MaterialState, Integer>();
+        this.states = new CopyOnWriteArrayList<MaterialState>();
+    }
+
+    /**
+     * Gets the id of the given state, assigning it the next free id if it has none yet.
+     * 
+     * @param state The material state
+     * @return The id
+     */
+    public int getId(MaterialState state)
+    {
+        Integer id = this.ids.get(checkNotNull(state));
+        if (id != null)
+        {
+            return id;
+        }
+        synchronized (this.states)
+        {
+            id = this.ids.get(state);
+            if (id == null)
+            {
+                id = this.states.size();
+                this.states.add(state);
+                this.ids.put(state, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Gets the state with the given id.
+     * 
+     * @param id The id
+     * @return The material state, or null if the id has not been assigned
+     */
+    public MaterialState get(int id)
+    {
+        if (id < 0 || id >= this.states.size())
+        {
+            return null;
+        }
+        return this.states.get(id);
+    }
+
+    /**
+     * Gets the number of ids which have been assigned.
+     * 
+     * @return The size
+     */
+    public int size()
+    {
+        return this.states.size();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.material;
+
+/**
+ * Bit flags for the properties of a {@link Material}, allowing platforms to compute every property
+ * once when the material is registered and answer each query with a single mask test.
+ */
+public final class MaterialProperties
+{
+
+    /**
+     * The material is affected by gravity.
+     */
+    public static final int GRAVITY = 1;
+
+    /**
+     * The material is solid.
+     */
+    public static final int SOLID = 1 << 1;
+
+    /**
+     * The material is a liquid.
+     */
+    public static final int LIQUID = 1 << 2;
+
+    /**
+     * The material can break on physics updates.
+     */
+    public static final int RELIANT_ON_ENVIRONMENT = 1 << 3;
+
+    /**
+     * The material is flammable.
+     */
+    public static final int FLAMMABLE = 1 << 4;
+
+    /**
+     * Returns the given property if the condition holds, and no properties otherwise.
+     * 
+     * @param property The property flag
+     * @param condition Whether the material has the property
+     * @return The property flag or zero
+     */
+    public static int flag(int property, boolean condition)
+    {
+        return condition ? property : 0;
+    }
+
+    /**
+     * Gets whether the given properties include the given property.
+     * 
+     * @param properties The properties of a material
+     * @param property The property flag
+     * @return Whether the property is set
+     */
+    public static boolean has(int properties, int property)
+    {
+        return (properties & property) != 0;
+    }
+
+}
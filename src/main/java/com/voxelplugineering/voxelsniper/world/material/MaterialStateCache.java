@@ -23,13 +23,25 @@
  */
 package com.voxelplugineering.voxelsniper.world.material;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.Function;
-import com.google.common.collect.Maps;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
- * A cache for {@link MaterialState} instances.
+ * A thread safe cache for {@link MaterialState} instances. Lookups never lock, and each data value
+ * is only ever mapped to a single state instance.
+ * 
+ * <p>If the underlying data values can be mapped to small non-negative integers the cache may be
+ * created with a dense index, values within it are stored in a flat array and may be fetched by
+ * their index directly with {@link #get(int)} without creating the data value.</p>
  * 
  * @param <T> The underlying data type
  * @param <M> The MaterialState instance type
@@ -37,8 +49,13 @@ import java.util.Map;
 public class MaterialStateCache<T, M extends MaterialState>
 {
 
-    private final Map<T, M> cache = Maps.newHashMap();
+    private final ConcurrentMap<T, M> cache = new ConcurrentHashMap<T, M>();
     private final Function<T, M> builder;
+    private final AtomicReferenceArray<M> dense;
+    private final ToIntFunction<? super T> indexer;
+    private final IntFunction<? extends T> keys;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
 
     /**
      * Creates a new {@link MaterialStateCache} with the given builder function.
@@ -47,7 +64,29 @@ public class MaterialStateCache<T, M extends MaterialState>
      */
     public MaterialStateCache(Function<T, M> builder)
     {
-        this.builder = builder;
+        this.builder = checkNotNull(builder);
+        this.dense = null;
+        this.indexer = null;
+        this.keys = null;
+    }
+
+    /**
+     * Creates a new {@link MaterialStateCache} with the given builder function and a dense index
+     * for data values which map to integers in the range {@code [0, denseSize)}.
+     * 
+     * @param builder The builder function
+     * @param denseSize The size of the dense index
+     * @param indexer A function mapping a data value to its index, values mapped outside of the
+     *            dense range are cached normally
+     * @param keys A function mapping an index back to its data value
+     */
+    public MaterialStateCache(Function<T, M> builder, int denseSize, ToIntFunction<? super T> indexer, IntFunction<? extends T> keys)
+    {
+        checkArgument(denseSize > 0, "Dense size must be positive");
+        this.builder = checkNotNull(builder);
+        this.dense = new AtomicReferenceArray<M>(denseSize);
+        this.indexer = checkNotNull(indexer);
+        this.keys = checkNotNull(keys);
     }
 
     /**
@@ -58,16 +97,102 @@ public class MaterialStateCache<T, M extends MaterialState>
      */
     public M get(T state)
     {
-        if (this.cache.containsKey(state))
+        if (this.dense != null)
+        {
+            int index = this.indexer.applyAsInt(state);
+            if (index >= 0 && index < this.dense.length())
+            {
+                return getDense(index, state);
+            }
+        }
+        M mat = this.cache.get(state);
+        if (mat != null)
+        {
+            this.hits.increment();
+            return mat;
+        }
+        this.misses.increment();
+        return this.cache.computeIfAbsent(state, (key) -> this.builder.apply(key));
+    }
+
+    /**
+     * Gets a {@link MaterialState} from the cache for the data value with the given dense index.
+     * 
+     * @param index The index of the data value
+     * @return A MaterialState
+     * @throws IllegalStateException If this cache was created without a dense index
+     */
+    public M get(int index)
+    {
+        if (this.dense == null)
+        {
+            throw new IllegalStateException("Cache has no dense index");
+        }
+        if (index < 0 || index >= this.dense.length())
+        {
+            return get(this.keys.apply(index));
+        }
+        M mat = this.dense.get(index);
+        if (mat != null)
         {
-            return this.cache.get(state);
+            this.hits.increment();
+            return mat;
         }
-        synchronized (this.cache)
+        return getDense(index, this.keys.apply(index));
+    }
+
+    private M getDense(int index, T state)
+    {
+        M mat = this.dense.get(index);
+        if (mat != null)
         {
-            M mat = this.builder.apply(state);
-            this.cache.put(state, mat);
+            this.hits.increment();
             return mat;
         }
+        this.misses.increment();
+        M built = this.builder.apply(state);
+        if (this.dense.compareAndSet(index, null, built))
+        {
+            return built;
+        }
+        // lost the race to another thread, use the instance it published
+        return this.dense.get(index);
+    }
+
+    /**
+     * Removes every cached state. This must be called whenever the dense index of the data values
+     * may have changed, as states are otherwise served for the indices they were built for.
+     */
+    public void clear()
+    {
+        if (this.dense != null)
+        {
+            for (int i = 0; i < this.dense.length(); i++)
+            {
+                this.dense.set(i, null);
+            }
+        }
+        this.cache.clear();
+    }
+
+    /**
+     * Gets the number of lookups which were served from the cache.
+     * 
+     * @return The hit count
+     */
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups which had to build a new state.
+     * 
+     * @return The miss count
+     */
+    public long getMissCount()
+    {
+        return this.misses.sum();
     }
 
 }
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.material;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A dense table mapping the platform's native integer block state ids to {@link MaterialState}s,
+ * allowing a state to be resolved from a native id with a single array index rather than a name
+ * based registry lookup.
+ * 
+ * <p>The table is populated by {@link #rebuild()}. Ids which are not present in the table, for
+ * example because a block was registered after the table was built, are resolved on demand and
+ * then stored.</p>
+ * 
+ * @param <M> The MaterialState instance type
+ */
+public class MaterialStateTable<M extends MaterialState>
+{
+
+    private final IntSupplier size;
+    private final IntFunction<M> resolver;
+    private final ToIntFunction<? super M> ids;
+    private volatile AtomicReferenceArray<M> states = new AtomicReferenceArray<M>(0);
+
+    /**
+     * Creates a new {@link MaterialStateTable}.
+     * 
+     * @param size A supplier for the current exclusive upper bound of native state ids
+     * @param resolver A function resolving a native state id to its state, or null if the id is
+     *            not valid
+     * @param ids A function returning the native state id of a state
+     */
+    public MaterialStateTable(IntSupplier size, IntFunction<M> resolver, ToIntFunction<? super M> ids)
+    {
+        this.size = checkNotNull(size);
+        this.resolver = checkNotNull(resolver);
+        this.ids = checkNotNull(ids);
+    }
+
+    /**
+     * Rebuilds this table by resolving every id up to the current size.
+     */
+    public void rebuild()
+    {
+        int length = this.size.getAsInt();
+        AtomicReferenceArray<M> table = new AtomicReferenceArray<M>(length);
+        for (int i = 0; i < length; i++)
+        {
+            M state = this.resolver.apply(i);
+            if (state != null)
+            {
+                table.set(i, state);
+            }
+        }
+        this.states = table;
+    }
+
+    /**
+     * Gets the state for the given native state id.
+     * 
+     * @param id The native state id
+     * @return The state, or null if the id is not valid
+     */
+    public M get(int id)
+    {
+        if (id < 0)
+        {
+            return null;
+        }
+        AtomicReferenceArray<M> table = this.states;
+        if (id >= table.length())
+        {
+            return this.resolver.apply(id);
+        }
+        M state = table.get(id);
+        if (state == null)
+        {
+            state = this.resolver.apply(id);
+            if (state != null)
+            {
+                table.lazySet(id, state);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Gets the native state id of the given state, this is the reverse of {@link #get(int)}.
+     * 
+     * @param state The state
+     * @return The native state id
+     */
+    public int getId(M state)
+    {
+        return this.ids.applyAsInt(state);
+    }
+
+    /**
+     * Gets the number of ids currently held in the table.
+     * 
+     * @return The table size
+     */
+    public int size()
+    {
+        return this.states.length();
+    }
+
+}
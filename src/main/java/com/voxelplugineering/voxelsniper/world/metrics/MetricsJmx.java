@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.metrics;
+
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers VoxelSniper's management beans with the platform MBean server, under the
+ * {@value #DOMAIN} domain.
+ */
+public final class MetricsJmx
+{
+
+    /**
+     * The JMX domain of all VoxelSniper beans.
+     */
+    public static final String DOMAIN = "com.voxelplugineering.voxelsniper";
+
+    /**
+     * Registers the given bean, replacing any bean already registered with the same type and
+     * name. Failures are logged rather than thrown as metrics are never required for editing to
+     * work. Nothing is registered if {@link PerformanceConfiguration#metricsJmx} is disabled.
+     * 
+     * @param bean The bean
+     * @param type The bean type
+     * @param name The bean name, or null if there is only a single bean of the type
+     */
+    public static void register(Object bean, String type, String name)
+    {
+        if (!PerformanceConfiguration.metricsJmx)
+        {
+            return;
+        }
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName id = getName(type, name);
+            if (server.isRegistered(id))
+            {
+                server.unregisterMBean(id);
+            }
+            server.registerMBean(bean, id);
+        } catch (JMException | SecurityException e)
+        {
+            GunsmithLogger.getLogger().warn("Failed to register " + type + " metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the bean of the given type and name, if one is registered.
+     * 
+     * @param type The bean type
+     * @param name The bean name, or null if there is only a single bean of the type
+     */
+    public static void unregister(String type, String name)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName id = getName(type, name);
+            if (server.isRegistered(id))
+            {
+                server.unregisterMBean(id);
+            }
+        } catch (JMException | SecurityException e)
+        {
+            GunsmithLogger.getLogger().warn("Failed to unregister " + type + " metrics from JMX: " + e.getMessage());
+        }
+    }
+
+    private static ObjectName getName(String type, String name) throws JMException
+    {
+        String id = DOMAIN + ":type=" + type;
+        if (name != null)
+        {
+            id += ",name=" + ObjectName.quote(name);
+        }
+        return new ObjectName(id);
+    }
+
+    private MetricsJmx()
+    {
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the operations performed on a single world. All counters are striped
+ * {@link LongAdder}s so that recording from the main thread and from async readers never
+ * contends, the totals are only summed when read.
+ * 
+ * <p>Changes applied from the change queue are additionally attributed to the source recorded on
+ * their change set (typically the player and brush which produced them) so that the cause of time
+ * spent on the main thread can be identified. At most {@value #MAX_SOURCES} sources are tracked,
+ * changes from any further sources are attributed to {@link #OTHER_SOURCE}.</p>
+ */
+public class WorldMetrics implements WorldMetricsMXBean
+{
+
+    /**
+     * The source recorded for applied changes which did not declare one.
+     */
+    public static final String UNKNOWN_SOURCE = "unknown";
+
+    /**
+     * The source recorded for applied changes once the maximum number of sources are tracked.
+     */
+    public static final String OTHER_SOURCE = "other";
+
+    private static final int MAX_SOURCES = 256;
+
+    private static final String JMX_TYPE = "World";
+    private static final ConcurrentMap<String, WorldMetrics> worlds = new ConcurrentHashMap<String, WorldMetrics>();
+
+    /**
+     * Creates the metrics for the world with the given name and registers them for reporting,
+     * replacing the metrics of any previous world of the same name.
+     * 
+     * @param worldName The world name
+     * @return The new metrics
+     */
+    public static WorldMetrics create(String worldName)
+    {
+        WorldMetrics metrics = new WorldMetrics(worldName);
+        worlds.put(worldName, metrics);
+        MetricsJmx.register(metrics, JMX_TYPE, worldName);
+        return metrics;
+    }
+
+    /**
+     * Removes the given metrics from reporting, once their world has been unloaded. Nothing is
+     * removed if the metrics have already been replaced by those of a newer world of the same
+     * name.
+     * 
+     * @param metrics The metrics
+     */
+    public static void remove(WorldMetrics metrics)
+    {
+        checkNotNull(metrics);
+        if (worlds.remove(metrics.getWorldName(), metrics))
+        {
+            MetricsJmx.unregister(JMX_TYPE, metrics.getWorldName());
+        }
+    }
+
+    /**
+     * Gets the metrics of all loaded worlds.
+     * 
+     * @return The metrics of all worlds
+     */
+    public static Collection<WorldMetrics> getAll()
+    {
+        return Collections.unmodifiableCollection(worlds.values());
+    }
+
+    private final String worldName;
+    private final LongAdder blocksRead = new LongAdder();
+    private final LongAdder blocksWritten = new LongAdder();
+    private final LongAdder chunkCacheHits = new LongAdder();
+    private final LongAdder chunkCacheMisses = new LongAdder();
+    private final LongAdder chunkLoads = new LongAdder();
+    private final LongAdder sectionsChanged = new LongAdder();
+    private final LongAdder applyNanos = new LongAdder();
+    private final ConcurrentMap<String, SourceMetrics> sources = new ConcurrentHashMap<String, SourceMetrics>();
+
+    /**
+     * Creates a new {@link WorldMetrics}, see {@link #create(String)} to also register them for
+     * reporting.
+     * 
+     * @param worldName The world name
+     */
+    public WorldMetrics(String worldName)
+    {
+        this.worldName = checkNotNull(worldName);
+    }
+
+    /**
+     * Records that the given number of block positions were read.
+     * 
+     * @param count The number of positions
+     */
+    public void recordRead(long count)
+    {
+        this.blocksRead.add(count);
+    }
+
+    /**
+     * Records that the given number of block positions were written.
+     * 
+     * @param count The number of positions
+     */
+    public void recordWrite(long count)
+    {
+        this.blocksWritten.add(count);
+    }
+
+    /**
+     * Records a lookup of a chunk wrapper.
+     * 
+     * @param hit Whether the wrapper was served from the cache
+     */
+    public void recordChunkLookup(boolean hit)
+    {
+        if (hit)
+        {
+            this.chunkCacheHits.increment();
+        } else
+        {
+            this.chunkCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Records that a chunk was loaded.
+     */
+    public void recordChunkLoad()
+    {
+        this.chunkLoads.increment();
+    }
+
+    /**
+     * Records that the given number of chunk sections were changed during a tick.
+     * 
+     * @param count The number of sections
+     */
+    public void recordSectionsChanged(long count)
+    {
+        this.sectionsChanged.add(count);
+    }
+
+    /**
+     * Records time spent on the main thread applying queued changes from the given source.
+     * 
+     * @param source The source of the changes, or null if unknown
+     * @param blocks The number of blocks applied
+     * @param nanos The time taken, in nanoseconds
+     */
+    public void recordApply(String source, int blocks, long nanos)
+    {
+        this.applyNanos.add(nanos);
+        String key = source == null ? UNKNOWN_SOURCE : source;
+        SourceMetrics metrics = this.sources.get(key);
+        if (metrics == null && this.sources.size() >= MAX_SOURCES)
+        {
+            key = OTHER_SOURCE;
+            metrics = this.sources.get(key);
+        }
+        if (metrics == null)
+        {
+            SourceMetrics created = new SourceMetrics();
+            metrics = this.sources.putIfAbsent(key, created);
+            if (metrics == null)
+            {
+                metrics = created;
+            }
+        }
+        metrics.blocks.add(blocks);
+        metrics.nanos.add(nanos);
+    }
+
+    @Override
+    public String getWorldName()
+    {
+        return this.worldName;
+    }
+
+    @Override
+    public long getBlocksRead()
+    {
+        return this.blocksRead.sum();
+    }
+
+    @Override
+    public long getBlocksWritten()
+    {
+        return this.blocksWritten.sum();
+    }
+
+    @Override
+    public long getChunkCacheHits()
+    {
+        return this.chunkCacheHits.sum();
+    }
+
+    @Override
+    public long getChunkCacheMisses()
+    {
+        return this.chunkCacheMisses.sum();
+    }
+
+    @Override
+    public long getChunkLoads()
+    {
+        return this.chunkLoads.sum();
+    }
+
+    @Override
+    public long getSectionsChanged()
+    {
+        return this.sectionsChanged.sum();
+    }
+
+    @Override
+    public long getApplyNanos()
+    {
+        return this.applyNanos.sum();
+    }
+
+    @Override
+    public Map<String, Long> getSourceBlocks()
+    {
+        Map<String, Long> result = Maps.newHashMap();
+        for (Map.Entry<String, SourceMetrics> e : this.sources.entrySet())
+        {
+            result.put(e.getKey(), e.getValue().blocks.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getSourceNanos()
+    {
+        Map<String, Long> result = Maps.newHashMap();
+        for (Map.Entry<String, SourceMetrics> e : this.sources.entrySet())
+        {
+            result.put(e.getKey(), e.getValue().nanos.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.blocksRead.reset();
+        this.blocksWritten.reset();
+        this.chunkCacheHits.reset();
+        this.chunkCacheMisses.reset();
+        this.chunkLoads.reset();
+        this.sectionsChanged.reset();
+        this.applyNanos.reset();
+        this.sources.clear();
+    }
+
+    /**
+     * The applied change counters of a single source.
+     */
+    private static class SourceMetrics
+    {
+
+        private final LongAdder blocks = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface of {@link WorldMetrics}.
+ */
+public interface WorldMetricsMXBean
+{
+
+    /**
+     * Gets the name of the world.
+     * 
+     * @return The world name
+     */
+    String getWorldName();
+
+    /**
+     * Gets the number of block positions read from the world.
+     * 
+     * @return The read count
+     */
+    long getBlocksRead();
+
+    /**
+     * Gets the number of block positions written to the world.
+     * 
+     * @return The write count
+     */
+    long getBlocksWritten();
+
+    /**
+     * Gets the number of chunk wrapper lookups which were served from the cache.
+     * 
+     * @return The hit count
+     */
+    long getChunkCacheHits();
+
+    /**
+     * Gets the number of chunk wrapper lookups which had to create a new wrapper.
+     * 
+     * @return The miss count
+     */
+    long getChunkCacheMisses();
+
+    /**
+     * Gets the number of chunks loaded by the world.
+     * 
+     * @return The chunk load count
+     */
+    long getChunkLoads();
+
+    /**
+     * Gets the number of chunk sections changed, counted once for each tick in which they were
+     * changed. Not every platform reports changed sections.
+     * 
+     * @return The changed section count
+     */
+    long getSectionsChanged();
+
+    /**
+     * Gets the total time spent applying queued changes to the world on the main thread.
+     * 
+     * @return The time, in nanoseconds
+     */
+    long getApplyNanos();
+
+    /**
+     * Gets the number of blocks applied to the world from the change queue by each source.
+     * 
+     * @return The applied blocks, by source
+     */
+    Map<String, Long> getSourceBlocks();
+
+    /**
+     * Gets the time spent on the main thread applying changes to the world for each source.
+     * 
+     * @return The time in nanoseconds, by source
+     */
+    Map<String, Long> getSourceNanos();
+
+    /**
+     * Resets all counters to zero.
+     */
+    void reset();
+
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.query;
+
+import com.voxelplugineering.voxelsniper.entity.Entity;
+import com.voxelplugineering.voxelsniper.util.math.Vector3d;
+
+import java.util.List;
+
+/**
+ * A world which can be queried for the entities within a region without iterating every entity
+ * in the world. Only entities within loaded chunks are returned.
+ */
+public interface EntityQueryable
+{
+
+    /**
+     * Gets all entities whose position lies within the given axis aligned box.
+     * 
+     * @param min The minimum corner, inclusive
+     * @param max The maximum corner, inclusive
+     * @return The entities
+     */
+    List<Entity> getEntitiesWithin(Vector3d min, Vector3d max);
+
+    /**
+     * Gets all entities whose position lies within the given sphere.
+     * 
+     * @param center The center of the sphere
+     * @param radius The radius of the sphere
+     * @return The entities
+     */
+    List<Entity> getEntitiesNear(Vector3d center, double radius);
+
+}
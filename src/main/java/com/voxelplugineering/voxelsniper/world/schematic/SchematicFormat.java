@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.schematic;
+
+/**
+ * Constants describing the layout of schematic files.
+ * 
+ * <p>A schematic starts with a fixed size header, followed by any number of region records and
+ * finally the palette. Each region record holds a 16x16x16 cube of the schematic as its region
+ * coordinates followed by one unsigned short palette index per position, laid out with x varying
+ * fastest, then z, then y. Regions are fixed size so that any region may be located directly in a
+ * memory mapped file, and the palette is written last so that the writer never needs to hold more
+ * than a single region in memory.</p>
+ */
+public final class SchematicFormat
+{
+
+    /**
+     * The magic number at the start of every schematic file.
+     */
+    public static final int MAGIC = 0x56534348;
+
+    /**
+     * The current format version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes: magic, version, the three dimensions and the region count
+     * as ints, then the palette offset as a long.
+     */
+    public static final int HEADER_SIZE = 4 * 6 + 8;
+
+    /**
+     * The edge length of a region.
+     */
+    public static final int REGION_LENGTH = 16;
+
+    /**
+     * The number of positions in a region.
+     */
+    public static final int REGION_VOLUME = REGION_LENGTH * REGION_LENGTH * REGION_LENGTH;
+
+    /**
+     * The size of a single region record in bytes.
+     */
+    public static final int REGION_SIZE = 4 * 3 + REGION_VOLUME * 2;
+
+    /**
+     * The palette index of positions which were not captured and are skipped when pasting.
+     */
+    public static final char SKIP = 0xFFFF;
+
+    /**
+     * The largest number of distinct states a single schematic may hold.
+     */
+    public static final int MAX_PALETTE_SIZE = SKIP;
+
+}
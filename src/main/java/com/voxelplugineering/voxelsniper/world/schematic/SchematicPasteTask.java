@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.schematic;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.GunsmithLogger;
+import com.voxelplugineering.voxelsniper.service.scheduler.Scheduler;
+import com.voxelplugineering.voxelsniper.service.scheduler.Task;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Pastes a schematic into a world over as many ticks as needed. Regions are read into
+ * {@link ChangeSet}s and submitted to the shared {@link BudgetedChangeApplier}, so the paste is
+ * written within the same per tick budget as every other change. Regions are only read while the
+ * applier's queue is short, so that a large schematic is not held in memory all at once. The index
+ * of the next region to submit is exposed so that an interrupted paste may be resumed later with
+ * a new task.
+ */
+public class SchematicPasteTask implements Runnable
+{
+
+    /**
+     * The source the pasted changes are attributed to.
+     */
+    public static final String SOURCE = "schematic";
+
+    private static final int TICK_INTERVAL = 50;
+    private static final int SUBMIT_SIZE = 4096;
+    private static final int MAX_QUEUED = 65536;
+
+    private final SchematicReader reader;
+    private final World world;
+    private final Vector3i origin;
+    private final BudgetedChangeApplier applier;
+    private volatile int next;
+    private volatile long placed;
+    private volatile boolean done;
+    private Optional<? extends Task> task;
+
+    /**
+     * Creates a new {@link SchematicPasteTask} starting from the first region.
+     * 
+     * @param reader The schematic to paste, which is closed once the paste completes
+     * @param world The world to paste into
+     * @param origin The world position to place the schematic's minimum corner at
+     * @param applier The applier to submit the pasted changes to
+     */
+    public SchematicPasteTask(SchematicReader reader, World world, Vector3i origin, BudgetedChangeApplier applier)
+    {
+        this(reader, world, origin, applier, 0);
+    }
+
+    /**
+     * Creates a new {@link SchematicPasteTask} resuming from the given region.
+     * 
+     * @param reader The schematic to paste, which is closed once the paste completes
+     * @param world The world to paste into
+     * @param origin The world position to place the schematic's minimum corner at
+     * @param applier The applier to submit the pasted changes to
+     * @param startRegion The index of the first region to paste
+     */
+    public SchematicPasteTask(SchematicReader reader, World world, Vector3i origin, BudgetedChangeApplier applier, int startRegion)
+    {
+        this.reader = checkNotNull(reader);
+        this.world = checkNotNull(world);
+        this.origin = checkNotNull(origin);
+        this.applier = checkNotNull(applier);
+        checkArgument(startRegion >= 0 && startRegion <= reader.getRegionCount(), "Start region out of bounds");
+        this.next = startRegion;
+        this.task = Optional.empty();
+    }
+
+    /**
+     * Starts pasting every tick on the given scheduler.
+     * 
+     * @param scheduler The scheduler
+     */
+    public void start(Scheduler scheduler)
+    {
+        stop();
+        if (!this.done)
+        {
+            this.task = scheduler.startSynchronousTask(this, TICK_INTERVAL);
+        }
+    }
+
+    /**
+     * Pauses the paste, it may be continued by starting it again. Changes which were already
+     * submitted are still applied.
+     */
+    public void stop()
+    {
+        if (this.task.isPresent())
+        {
+            this.task.get().cancel();
+            this.task = Optional.empty();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        if (this.done)
+        {
+            return;
+        }
+        int count = this.reader.getRegionCount();
+        try
+        {
+            while (this.next < count && this.applier.getQueueDepth() < MAX_QUEUED)
+            {
+                ChangeSet changes = new ChangeSet(this.world, SUBMIT_SIZE + SchematicFormat.REGION_VOLUME);
+                // regions are submitted in batches so the applier can group its work per chunk
+                while (this.next < count && changes.size() < SUBMIT_SIZE)
+                {
+                    this.placed += this.reader.readRegion(this.next, this.origin, changes);
+                    this.next++;
+                }
+                this.applier.submit(changes, SOURCE);
+            }
+        } catch (IOException e)
+        {
+            GunsmithLogger.getLogger().error(e, "Error reading schematic, the paste has been stopped");
+            finish();
+            return;
+        }
+        if (this.next >= count)
+        {
+            finish();
+        }
+    }
+
+    /**
+     * Gets the index of the next region to be submitted, which may be passed to a new task to
+     * resume this paste.
+     * 
+     * @return The next region index
+     */
+    public int getNextRegion()
+    {
+        return this.next;
+    }
+
+    /**
+     * Gets the fraction of regions which have been submitted.
+     * 
+     * @return The progress, from 0 to 1
+     */
+    public double getProgress()
+    {
+        int count = this.reader.getRegionCount();
+        return count == 0 ? 1 : this.next / (double) count;
+    }
+
+    /**
+     * Gets the number of blocks submitted to the applier so far.
+     * 
+     * @return The placed count
+     */
+    public long getPlacedCount()
+    {
+        return this.placed;
+    }
+
+    /**
+     * Gets whether every region has been submitted, or the paste was stopped by an error.
+     * 
+     * @return Is done
+     */
+    public boolean isDone()
+    {
+        return this.done;
+    }
+
+    private void finish()
+    {
+        this.done = true;
+        stop();
+        try
+        {
+            this.reader.close();
+        } catch (IOException e)
+        {
+            GunsmithLogger.getLogger().error(e, "Error closing schematic");
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.schematic;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Charsets;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Reads a schematic file region by region, see {@link SchematicFormat}. The palette is decoded into
+ * material states of the target world up front, and the regions are read from a memory mapped
+ * window of the file which is moved as needed, so memory use does not depend on the size of the
+ * schematic.
+ */
+public class SchematicReader implements Closeable
+{
+
+    private static final int REGIONS_PER_WINDOW = 1 << 16;
+
+    private final FileChannel channel;
+    private final Vector3i size;
+    private final int regionCount;
+    private final MaterialState[] palette;
+    private int unknownStates;
+    private MappedByteBuffer window;
+    private int windowIndex = -1;
+
+    /**
+     * Creates a new {@link SchematicReader}.
+     * 
+     * @param file The file to read
+     * @param codec The codec to decode the palette with
+     * @throws IOException If the file could not be read or is not a schematic
+     */
+    public SchematicReader(File file, StateCodec codec) throws IOException
+    {
+        checkNotNull(codec);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(SchematicFormat.HEADER_SIZE);
+            while (header.hasRemaining())
+            {
+                if (this.channel.read(header, header.position()) < 0)
+                {
+                    throw new IOException("Schematic header is truncated");
+                }
+            }
+            header.flip();
+            if (header.getInt() != SchematicFormat.MAGIC || header.getInt() != SchematicFormat.VERSION)
+            {
+                throw new IOException("Not a supported schematic file: " + file.getName());
+            }
+            this.size = new Vector3i(header.getInt(), header.getInt(), header.getInt());
+            this.regionCount = header.getInt();
+            long paletteOffset = header.getLong();
+            ByteBuffer names = this.channel.map(FileChannel.MapMode.READ_ONLY, paletteOffset, this.channel.size() - paletteOffset);
+            this.palette = new MaterialState[names.getInt()];
+            for (int i = 0; i < this.palette.length; i++)
+            {
+                byte[] bytes = new byte[names.getShort() & 0xFFFF];
+                names.get(bytes);
+                Optional<MaterialState> state = codec.decode(new String(bytes, Charsets.UTF_8));
+                if (state.isPresent())
+                {
+                    this.palette[i] = state.get();
+                } else
+                {
+                    this.unknownStates++;
+                }
+            }
+        } catch (IOException | RuntimeException e)
+        {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the size of the schematic.
+     * 
+     * @return The size
+     */
+    public Vector3i getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of region records in the file.
+     * 
+     * @return The region count
+     */
+    public int getRegionCount()
+    {
+        return this.regionCount;
+    }
+
+    /**
+     * Gets the number of palette entries which are not known to the target world, positions
+     * holding these states are skipped when pasting.
+     * 
+     * @return The unknown state count
+     */
+    public int getUnknownStateCount()
+    {
+        return this.unknownStates;
+    }
+
+    /**
+     * Adds every captured position of the region record with the given index to the change set.
+     * 
+     * @param index The index of the region record
+     * @param origin The world position to place the schematic's minimum corner at
+     * @param changes The change set
+     * @return The number of blocks added
+     * @throws IOException If the region could not be read
+     */
+    public int readRegion(int index, Vector3i origin, ChangeSet changes) throws IOException
+    {
+        checkElementIndex(index, this.regionCount);
+        ByteBuffer buffer = getWindow(index / REGIONS_PER_WINDOW).duplicate();
+        buffer.position((index % REGIONS_PER_WINDOW) * SchematicFormat.REGION_SIZE);
+        int bx = origin.getX() + buffer.getInt() * SchematicFormat.REGION_LENGTH;
+        int by = origin.getY() + buffer.getInt() * SchematicFormat.REGION_LENGTH;
+        int bz = origin.getZ() + buffer.getInt() * SchematicFormat.REGION_LENGTH;
+        int queued = 0;
+        for (int i = 0; i < SchematicFormat.REGION_VOLUME; i++)
+        {
+            char entry = buffer.getChar();
+            if (entry == SchematicFormat.SKIP || entry >= this.palette.length || this.palette[entry] == null)
+            {
+                continue;
+            }
+            changes.add(this.palette[entry], bx + (i & 15), by + (i >> 8), bz + ((i >> 4) & 15));
+            queued++;
+        }
+        return queued;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.window = null;
+        this.channel.close();
+    }
+
+    private MappedByteBuffer getWindow(int index) throws IOException
+    {
+        if (index != this.windowIndex)
+        {
+            // windows always hold whole regions so no record is ever split between two of them
+            int first = index * REGIONS_PER_WINDOW;
+            int count = Math.min(REGIONS_PER_WINDOW, this.regionCount - first);
+            long start = SchematicFormat.HEADER_SIZE + (long) first * SchematicFormat.REGION_SIZE;
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, (long) count * SchematicFormat.REGION_SIZE);
+            this.windowIndex = index;
+        }
+        return this.window;
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.schematic;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+import com.voxelplugineering.voxelsniper.world.volume.VolumeSource;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes a schematic file region by region, see {@link SchematicFormat}. Only a single region and
+ * the palette are held in memory, so a schematic of any size may be exported by feeding the writer
+ * one small {@link VolumeSource} at a time.
+ */
+public class SchematicWriter implements Closeable
+{
+
+    private final FileChannel channel;
+    private final Vector3i size;
+    private final StateCodec codec;
+    private final ByteBuffer region;
+    private final Map<MaterialState, Character> indices;
+    private final List<String> palette;
+    private int regionCount;
+
+    /**
+     * Creates a new {@link SchematicWriter}, replacing the given file.
+     * 
+     * @param file The file to write to
+     * @param size The size of the schematic
+     * @param codec The codec to name states with
+     * @throws IOException If the file could not be opened
+     */
+    public SchematicWriter(File file, Vector3i size, StateCodec codec) throws IOException
+    {
+        this.size = checkNotNull(size);
+        this.codec = checkNotNull(codec);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.position(SchematicFormat.HEADER_SIZE);
+        this.region = ByteBuffer.allocateDirect(SchematicFormat.REGION_SIZE);
+        this.indices = Maps.newHashMap();
+        this.palette = Lists.newArrayList();
+    }
+
+    /**
+     * Writes every region of the schematic which overlaps the given source. Positions of those
+     * regions outside of the source are skipped, so a region split across several sources may be
+     * written once from each and is pasted correctly.
+     * 
+     * @param source The source to read from
+     * @param origin The world position of the schematic's minimum corner
+     * @throws IOException If the regions could not be written
+     */
+    public void writeRegions(VolumeSource source, Vector3i origin) throws IOException
+    {
+        int x0 = Math.max(source.getMin().getX() - origin.getX(), 0);
+        int y0 = Math.max(source.getMin().getY() - origin.getY(), 0);
+        int z0 = Math.max(source.getMin().getZ() - origin.getZ(), 0);
+        int x1 = Math.min(source.getMax().getX() - origin.getX(), this.size.getX() - 1);
+        int y1 = Math.min(source.getMax().getY() - origin.getY(), this.size.getY() - 1);
+        int z1 = Math.min(source.getMax().getZ() - origin.getZ(), this.size.getZ() - 1);
+        if (x0 > x1 || y0 > y1 || z0 > z1)
+        {
+            return;
+        }
+        for (int ry = y0 >> 4; ry <= y1 >> 4; ry++)
+        {
+            for (int rz = z0 >> 4; rz <= z1 >> 4; rz++)
+            {
+                for (int rx = x0 >> 4; rx <= x1 >> 4; rx++)
+                {
+                    writeRegion(source, origin, rx, ry, rz);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a single region of the schematic from the given source.
+     * 
+     * @param source The source to read from
+     * @param origin The world position of the schematic's minimum corner
+     * @param rx The region x coordinate
+     * @param ry The region y coordinate
+     * @param rz The region z coordinate
+     * @throws IOException If the region could not be written
+     */
+    public void writeRegion(VolumeSource source, Vector3i origin, int rx, int ry, int rz) throws IOException
+    {
+        this.region.clear();
+        this.region.putInt(rx);
+        this.region.putInt(ry);
+        this.region.putInt(rz);
+        int bx = rx * SchematicFormat.REGION_LENGTH;
+        int by = ry * SchematicFormat.REGION_LENGTH;
+        int bz = rz * SchematicFormat.REGION_LENGTH;
+        for (int y = by; y < by + SchematicFormat.REGION_LENGTH; y++)
+        {
+            for (int z = bz; z < bz + SchematicFormat.REGION_LENGTH; z++)
+            {
+                for (int x = bx; x < bx + SchematicFormat.REGION_LENGTH; x++)
+                {
+                    char index = SchematicFormat.SKIP;
+                    if (x < this.size.getX() && y < this.size.getY() && z < this.size.getZ())
+                    {
+                        Optional<MaterialState> state = source.getState(origin.getX() + x, origin.getY() + y, origin.getZ() + z);
+                        if (state.isPresent())
+                        {
+                            index = getIndex(state.get());
+                        }
+                    }
+                    this.region.putChar(index);
+                }
+            }
+        }
+        this.region.flip();
+        while (this.region.hasRemaining())
+        {
+            this.channel.write(this.region);
+        }
+        this.regionCount++;
+    }
+
+    /**
+     * Gets the number of regions written so far.
+     * 
+     * @return The region count
+     */
+    public int getRegionCount()
+    {
+        return this.regionCount;
+    }
+
+    /**
+     * Writes the palette and header and closes the file. The schematic is not readable until this
+     * has been called.
+     * 
+     * @throws IOException If the file could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!this.channel.isOpen())
+        {
+            return;
+        }
+        try
+        {
+            long paletteOffset = this.channel.position();
+            ByteBuffer count = ByteBuffer.allocate(4);
+            count.putInt(this.palette.size()).flip();
+            writeFully(count);
+            for (String name : this.palette)
+            {
+                byte[] bytes = name.getBytes(Charsets.UTF_8);
+                ByteBuffer entry = ByteBuffer.allocate(2 + bytes.length);
+                entry.putShort((short) bytes.length).put(bytes).flip();
+                writeFully(entry);
+            }
+            ByteBuffer header = ByteBuffer.allocate(SchematicFormat.HEADER_SIZE);
+            header.putInt(SchematicFormat.MAGIC);
+            header.putInt(SchematicFormat.VERSION);
+            header.putInt(this.size.getX());
+            header.putInt(this.size.getY());
+            header.putInt(this.size.getZ());
+            header.putInt(this.regionCount);
+            header.putLong(paletteOffset);
+            header.flip();
+            this.channel.position(0);
+            writeFully(header);
+        } finally
+        {
+            this.channel.close();
+        }
+    }
+
+    private char getIndex(MaterialState state)
+    {
+        Character index = this.indices.get(state);
+        if (index != null)
+        {
+            return index;
+        }
+        Optional<String> name = this.codec.encode(state);
+        if (!name.isPresent() || this.palette.size() >= SchematicFormat.MAX_PALETTE_SIZE)
+        {
+            index = SchematicFormat.SKIP;
+        } else
+        {
+            index = (char) this.palette.size();
+            this.palette.add(name.get());
+        }
+        this.indices.put(state, index);
+        return index;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            this.channel.write(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.volume;
+
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+
+/**
+ * Computes the changes of an operation for a part of its target region, see
+ * {@link ParallelVolumeEvaluator}.
+ */
+public interface ChunkEvaluator
+{
+
+    /**
+     * Evaluates the part of the target region lying within a single chunk column, adding the
+     * resulting changes to the given set. Different chunks are evaluated concurrently, so this must
+     * only read from the given source and never from the live world.
+     * 
+     * @param source The blocks to read from
+     * @param min The minimum corner of the part to evaluate, inclusive
+     * @param max The maximum corner of the part to evaluate, inclusive
+     * @param changes The set to add the changes to
+     */
+    void evaluate(VolumeSource source, Vector3i min, Vector3i max, ChangeSet changes);
+
+}
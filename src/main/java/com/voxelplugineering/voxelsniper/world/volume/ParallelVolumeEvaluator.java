@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.volume;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.voxelplugineering.voxelsniper.config.PerformanceConfiguration;
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.World;
+import com.voxelplugineering.voxelsniper.world.bulk.BudgetedChangeApplier;
+import com.voxelplugineering.voxelsniper.world.bulk.ChangeSet;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates an operation over a region in parallel by splitting the region into chunk columns,
+ * each of which is evaluated by a {@link ChunkEvaluator} on a {@link ForkJoinPool} against a
+ * {@link VolumeSource} taken from the world beforehand. The changes of all chunks are merged into a
+ * single {@link ChangeSet} in chunk order so that they may be applied on the main thread.
+ * 
+ * <p>The pool is created on first use with the number of threads configured by
+ * {@link PerformanceConfiguration#evaluationThreads}.</p>
+ */
+public class ParallelVolumeEvaluator
+{
+
+    private ForkJoinPool pool;
+
+    /**
+     * Evaluates the given region and waits for the result.
+     * 
+     * @param world The world the changes are to
+     * @param source The blocks to read from
+     * @param min The minimum corner of the region, inclusive
+     * @param max The maximum corner of the region, inclusive
+     * @param evaluator The evaluator
+     * @return The merged changes
+     */
+    public ChangeSet evaluate(World world, VolumeSource source, Vector3i min, Vector3i max, ChunkEvaluator evaluator)
+    {
+        PartitionTask task = new PartitionTask(world, source, min, max, evaluator);
+        getPool().invoke(task);
+        return task.merge();
+    }
+
+    /**
+     * Evaluates the given region in the background and submits the merged changes to the given
+     * applier once complete. This may be called from any thread.
+     * 
+     * @param world The world the changes are to
+     * @param source The blocks to read from
+     * @param min The minimum corner of the region, inclusive
+     * @param max The maximum corner of the region, inclusive
+     * @param evaluator The evaluator
+     * @param applier The applier to submit the changes to
+     * @return The running task, which completes with the merged changes
+     */
+    public ForkJoinTask<ChangeSet> evaluateAndSubmit(final World world, final VolumeSource source, final Vector3i min, final Vector3i max,
+            final ChunkEvaluator evaluator, final BudgetedChangeApplier applier)
+    {
+        checkNotNull(applier);
+        final PartitionTask task = new PartitionTask(world, source, min, max, evaluator);
+        return getPool().submit(new Callable<ChangeSet>()
+        {
+
+            @Override
+            public ChangeSet call() throws Exception
+            {
+                task.invoke();
+                ChangeSet changes = task.merge();
+                applier.submit(changes);
+                return changes;
+            }
+        });
+    }
+
+    /**
+     * Stops the worker threads of this evaluator, a new pool is created if it is used again.
+     */
+    public synchronized void shutdown()
+    {
+        if (this.pool != null)
+        {
+            this.pool.shutdownNow();
+            this.pool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool getPool()
+    {
+        if (this.pool == null)
+        {
+            int threads = PerformanceConfiguration.evaluationThreads;
+            if (threads <= 0)
+            {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            this.pool = new ForkJoinPool(threads);
+        }
+        return this.pool;
+    }
+
+    /**
+     * Evaluates a range of the chunk columns of a region, splitting the range in half until a
+     * single column remains. Each column writes its changes into its own slot of a shared array.
+     */
+    private static class PartitionTask extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final World world;
+        private final VolumeSource source;
+        private final Vector3i min;
+        private final Vector3i max;
+        private final ChunkEvaluator evaluator;
+        private final int minCX;
+        private final int minCZ;
+        private final int columnsZ;
+        private final ChangeSet[] results;
+        private final int from;
+        private final int to;
+
+        PartitionTask(World world, VolumeSource source, Vector3i min, Vector3i max, ChunkEvaluator evaluator)
+        {
+            this.world = checkNotNull(world);
+            this.source = checkNotNull(source);
+            this.min = checkNotNull(min);
+            this.max = checkNotNull(max);
+            this.evaluator = checkNotNull(evaluator);
+            checkArgument(min.getX() <= max.getX() && min.getY() <= max.getY() && min.getZ() <= max.getZ(), "Minimum must not exceed maximum");
+            this.minCX = min.getX() >> 4;
+            this.minCZ = min.getZ() >> 4;
+            this.columnsZ = (max.getZ() >> 4) - this.minCZ + 1;
+            this.results = new ChangeSet[((max.getX() >> 4) - this.minCX + 1) * this.columnsZ];
+            this.from = 0;
+            this.to = this.results.length;
+        }
+
+        private PartitionTask(PartitionTask parent, int from, int to)
+        {
+            this.world = parent.world;
+            this.source = parent.source;
+            this.min = parent.min;
+            this.max = parent.max;
+            this.evaluator = parent.evaluator;
+            this.minCX = parent.minCX;
+            this.minCZ = parent.minCZ;
+            this.columnsZ = parent.columnsZ;
+            this.results = parent.results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (this.to - this.from > 1)
+            {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new PartitionTask(this, this.from, mid), new PartitionTask(this, mid, this.to));
+                return;
+            }
+            int cx = this.minCX + this.from / this.columnsZ;
+            int cz = this.minCZ + this.from % this.columnsZ;
+            Vector3i columnMin = new Vector3i(Math.max(this.min.getX(), cx << 4), this.min.getY(), Math.max(this.min.getZ(), cz << 4));
+            Vector3i columnMax = new Vector3i(Math.min(this.max.getX(), (cx << 4) + 15), this.max.getY(), Math.min(this.max.getZ(), (cz << 4) + 15));
+            ChangeSet changes = new ChangeSet(this.world);
+            this.evaluator.evaluate(this.source, columnMin, columnMax, changes);
+            this.results[this.from] = changes;
+        }
+
+        /**
+         * Merges the changes of every column into a single set, in column order. Must only be
+         * called once this task has completed.
+         */
+        ChangeSet merge()
+        {
+            int total = 0;
+            for (ChangeSet changes : this.results)
+            {
+                total += changes.size();
+            }
+            ChangeSet merged = new ChangeSet(this.world, total);
+            for (ChangeSet changes : this.results)
+            {
+                merged.addAll(changes);
+            }
+            return merged;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014 The Voxel Plugineering Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.voxelplugineering.voxelsniper.world.volume;
+
+import com.voxelplugineering.voxelsniper.util.math.Vector3i;
+import com.voxelplugineering.voxelsniper.world.material.MaterialState;
+
+import java.util.Optional;
+
+/**
+ * A read only view of the blocks within a cuboid volume of a world which is detached from the live
+ * world, and may therefore be read from any number of threads at once.
+ */
+public interface VolumeSource
+{
+
+    /**
+     * Gets the minimum corner of this volume.
+     * 
+     * @return The minimum corner, inclusive
+     */
+    Vector3i getMin();
+
+    /**
+     * Gets the maximum corner of this volume.
+     * 
+     * @return The maximum corner, inclusive
+     */
+    Vector3i getMax();
+
+    /**
+     * Gets the material state at the given world position.
+     * 
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The material state, if the position is within this volume and its chunk was loaded
+     *         when the volume was taken
+     */
+    Optional<MaterialState> getState(int x, int y, int z);
+
+}